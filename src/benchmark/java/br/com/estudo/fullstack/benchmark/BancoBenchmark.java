@@ -0,0 +1,83 @@
+package br.com.estudo.fullstack.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import br.com.estudo.fullstack.FullstackApplication;
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import br.com.estudo.fullstack.model.repository.UsuarioRepository;
+import br.com.estudo.fullstack.service.LancamentoService;
+
+/**
+ * Sobe a aplicação sem servidor web sobre um H2 em memória próprio de cada benchmark e popula os lançamentos pelo
+ * próprio serviço, do mesmo jeito que uma importação.
+ */
+final class BancoBenchmark {
+
+	private static final int TAMANHO_LOTE = 10_000;
+
+	private BancoBenchmark() {
+	}
+
+	static ConfigurableApplicationContext iniciar(String banco, String... propriedades) {
+		List<String> argumentos = new ArrayList<>();
+		argumentos.add("--spring.datasource.url=jdbc:h2:mem:" + banco
+				+ ";DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas");
+		argumentos.add("--spring.main.banner-mode=off");
+		argumentos.add("--logging.level.root=WARN");
+		for (String propriedade : propriedades) {
+			argumentos.add("--" + propriedade);
+		}
+		return new SpringApplicationBuilder(FullstackApplication.class)
+				.profiles("test")
+				.web(WebApplicationType.NONE)
+				.run(argumentos.toArray(new String[0]));
+	}
+
+	/**
+	 * Cria um usuário com a quantidade de lançamentos informada. A importação grava tudo como pendente; metade passa a
+	 * efetivado direto no banco e o saldo mantido é reconciliado em seguida, para que as consultas de saldo somem algo.
+	 */
+	static Usuario popular(ConfigurableApplicationContext contexto, int quantidade) {
+		Usuario usuario = contexto.getBean(UsuarioRepository.class).save(Usuario.builder()
+				.nome("benchmark").email("benchmark" + System.nanoTime() + "@email.com").senha("senha").build());
+		LancamentoService service = contexto.getBean(LancamentoService.class);
+
+		List<Lancamento> lote = new ArrayList<>(TAMANHO_LOTE);
+		for (int i = 0; i < quantidade; i++) {
+			lote.add(novoLancamento(usuario, i));
+			if (lote.size() == TAMANHO_LOTE || i == quantidade - 1) {
+				service.importarLancamentos(lote);
+				lote = new ArrayList<>(TAMANHO_LOTE);
+			}
+		}
+		contexto.getBean(JdbcTemplate.class).update(
+				"update financas.lancamento set status = ? where id_usuario = ? and mod(id, 2) = 0",
+				StatusLancamento.EFETIVADO.name(), usuario.getId());
+		service.reconciliarSaldo(usuario.getId());
+		return usuario;
+	}
+
+	static Lancamento novoLancamento(Usuario usuario, int indice) {
+		Lancamento lancamento = new Lancamento();
+		lancamento.setDescricao("Lançamento " + indice);
+		lancamento.setAno(2000 + indice % 25);
+		lancamento.setMes(indice % 12 + 1);
+		lancamento.setValor(BigDecimal.valueOf(indice % 1000 + 1, 2));
+		lancamento.setDataCadastro(LocalDate.of(2020, 1, 1).plusDays(indice % 1000));
+		lancamento.setTipo(indice % 3 == 0 ? TipoLancamento.DESPESA : TipoLancamento.RECEITA);
+		lancamento.setStatus(StatusLancamento.PENDENTE);
+		lancamento.setUsuario(usuario);
+		return lancamento;
+	}
+}
@@ -0,0 +1,103 @@
+package br.com.estudo.fullstack.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.ExampleMatcher.StringMatcher;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import br.com.estudo.fullstack.model.repository.LancamentoListagem;
+import br.com.estudo.fullstack.model.repository.LancamentoRepository;
+import br.com.estudo.fullstack.service.LancamentoService;
+
+/**
+ * Buscas de um usuário com muitos lançamentos pelos índices de usuário/ano/mês e usuário/status/tipo. A listagem não
+ * passa pelo cache de buscas, então mede sempre a consulta; a busca por entidades repetida mede o cache. A linha de
+ * base é a busca anterior, por Example com like ignorando maiúsculas em todo campo preenchido, inclusive do usuário.
+ * Com um milhão de lançamentos a carga inicial leva alguns minutos e o H2 em memória não cabe no heap padrão, daí o
+ * heap maior no fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class BuscaLancamentosBenchmark {
+
+	@Param({ "100000", "1000000" })
+	public int lancamentos;
+
+	private ConfigurableApplicationContext contexto;
+
+	private LancamentoService service;
+
+	private LancamentoRepository repository;
+
+	private Lancamento filtroAnoMes;
+
+	private Lancamento filtroStatusTipo;
+
+	@Setup
+	public void setup() {
+		contexto = BancoBenchmark.iniciar("busca" + lancamentos);
+		service = contexto.getBean(LancamentoService.class);
+		repository = contexto.getBean(LancamentoRepository.class);
+		Usuario usuario = BancoBenchmark.popular(contexto, lancamentos);
+
+		filtroAnoMes = new Lancamento();
+		filtroAnoMes.setUsuario(usuario);
+		filtroAnoMes.setAno(2010);
+		filtroAnoMes.setMes(6);
+
+		filtroStatusTipo = new Lancamento();
+		filtroStatusTipo.setUsuario(usuario);
+		filtroStatusTipo.setAno(2010);
+		filtroStatusTipo.setStatus(StatusLancamento.EFETIVADO);
+		filtroStatusTipo.setTipo(TipoLancamento.DESPESA);
+	}
+
+	@TearDown
+	public void tearDown() {
+		contexto.close();
+	}
+
+	@Benchmark
+	public List<LancamentoListagem> listarPorAnoEMes() {
+		return service.listarLancamentos(filtroAnoMes);
+	}
+
+	@Benchmark
+	public List<LancamentoListagem> listarPorStatusETipo() {
+		return service.listarLancamentos(filtroStatusTipo);
+	}
+
+	@Benchmark
+	public List<Lancamento> buscarPorAnoEMesComExample() {
+		return repository.findAll(Example.of(filtroAnoMes,
+				ExampleMatcher.matching().withIgnoreCase().withStringMatcher(StringMatcher.CONTAINING)));
+	}
+
+	@Benchmark
+	public List<Lancamento> buscarPorAnoEMesComCache() {
+		return service.buscarLancamentos(filtroAnoMes);
+	}
+}
@@ -0,0 +1,100 @@
+package br.com.estudo.fullstack.benchmark;
+
+import java.lang.reflect.Constructor;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.estudo.fullstack.api.dto.LancamentoDTO;
+import br.com.estudo.fullstack.api.idempotencia.RespostasIdempotentes;
+import br.com.estudo.fullstack.api.resource.LancamentoResource;
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.service.LancamentoService;
+import br.com.estudo.fullstack.service.UsuarioService;
+import br.com.estudo.fullstack.service.impl.IngestaoLancamentos;
+
+/**
+ * Conversão entre entidade e DTO feita pelo resource. A busca do usuário na conversão do DTO responde da memória, como
+ * o cache de usuários responderia, para medir só a conversão.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversaoLancamentoBenchmark {
+
+	private LancamentoResource resource;
+
+	private Lancamento lancamento;
+
+	private LancamentoDTO dto;
+
+	@Setup
+	public void setup() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).nome("benchmark").email("benchmark@email.com").build();
+		Constructor<LancamentoResource> construtor = LancamentoResource.class.getDeclaredConstructor(
+				LancamentoService.class, UsuarioService.class, ObjectMapper.class, RespostasIdempotentes.class,
+				IngestaoLancamentos.class);
+		construtor.setAccessible(true);
+		resource = construtor.newInstance(null, new UsuarioEmMemoria(usuario), null, null, null);
+
+		lancamento = BancoBenchmark.novoLancamento(usuario, 7);
+		lancamento.setId(7l);
+		lancamento.setVersao(0l);
+		dto = resource.converter(lancamento);
+	}
+
+	@Benchmark
+	public LancamentoDTO converterParaDto() {
+		return resource.converter(lancamento);
+	}
+
+	@Benchmark
+	public Lancamento converterParaEntidade() {
+		return resource.converter(dto);
+	}
+
+	private static final class UsuarioEmMemoria implements UsuarioService {
+
+		private final Optional<Usuario> usuario;
+
+		private UsuarioEmMemoria(Usuario usuario) {
+			this.usuario = Optional.of(usuario);
+		}
+
+		@Override
+		public Usuario autenticar(String email, String senha) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Usuario salvarUsuario(Usuario usuario) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void validarEmail(String email) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Optional<Usuario> buscarPorId(Long id) {
+			return usuario;
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package br.com.estudo.fullstack.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.com.estudo.fullstack.exception.ConflitoVersaoException;
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.repository.UsuarioRepository;
+import br.com.estudo.fullstack.service.LancamentoService;
+
+/**
+ * Edições por versão feitas como um cliente: lê o lançamento, soma 1 ao valor e envia a versão lida, lendo de novo a
+ * cada conflito. A mesma edição roda com uma thread e com {@value #THREADS}, sobre o mesmo lançamento, sobre
+ * lançamentos distintos do mesmo usuário e sobre lançamentos de usuários distintos. O contador {@code conflitos}
+ * soma as releituras da medição.
+ * <p>
+ * Toda escrita espera a trava do usuário em sincronizacao_usuario, então as escritas de um mesmo usuário continuam em
+ * série: mais threads sobre o mesmo usuário não aumentam a vazão e, sobre o mesmo lançamento, ainda somam
+ * releituras. Só usuários distintos escrevem em paralelo.
+ * <p>
+ * Rodada com as configurações abaixo no H2 em memória, numa máquina de 1 CPU, em edições confirmadas por segundo. O
+ * erro passa de 50% da média, então só a ordem de grandeza vale:
+ * <ul>
+ * <li>mesmo lançamento: ~280 com 1 thread e ~160 com 8, com cerca de 1 conflito por edição confirmada;</li>
+ * <li>mesmo usuário, lançamentos distintos: ~360 com 8 threads, sem conflitos;</li>
+ * <li>usuários distintos: ~420 com 8 threads, sem conflitos; com uma CPU há pouco paralelismo para aproveitar.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EdicaoConcorrenteBenchmark {
+
+	static final int THREADS = 8;
+
+	private ConfigurableApplicationContext contexto;
+
+	private LancamentoService service;
+
+	private Usuario usuario;
+
+	private Long idCompartilhado;
+
+	@Setup
+	public void setup() {
+		contexto = BancoBenchmark.iniciar("edicao");
+		service = contexto.getBean(LancamentoService.class);
+		usuario = BancoBenchmark.popular(contexto, 0);
+		idCompartilhado = service.salvarLancamento(BancoBenchmark.novoLancamento(usuario, 0)).getId();
+	}
+
+	@TearDown
+	public void tearDown() {
+		contexto.close();
+	}
+
+	/**
+	 * Lançamentos de cada thread: um do usuário compartilhado e um de um usuário só dela.
+	 */
+	@State(Scope.Thread)
+	public static class LancamentosDaThread {
+
+		Long idMesmoUsuario;
+
+		Long idOutroUsuario;
+
+		@Setup
+		public void setup(EdicaoConcorrenteBenchmark banco) {
+			idMesmoUsuario = banco.service.salvarLancamento(BancoBenchmark.novoLancamento(banco.usuario, 0)).getId();
+			Usuario proprio = banco.contexto.getBean(UsuarioRepository.class).save(Usuario.builder().nome("benchmark")
+					.email("benchmark" + System.nanoTime() + "@email.com").senha("senha").build());
+			idOutroUsuario = banco.service.salvarLancamento(BancoBenchmark.novoLancamento(proprio, 0)).getId();
+		}
+	}
+
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Conflitos {
+
+		public long conflitos;
+
+		@Setup(Level.Iteration)
+		public void zerar() {
+			conflitos = 0;
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Lancamento mesmoLancamentoSequencial(Conflitos conflitos) {
+		return incrementar(idCompartilhado, conflitos);
+	}
+
+	@Benchmark
+	@Threads(THREADS)
+	public Lancamento mesmoLancamentoConcorrente(Conflitos conflitos) {
+		return incrementar(idCompartilhado, conflitos);
+	}
+
+	@Benchmark
+	@Threads(THREADS)
+	public Lancamento mesmoUsuarioConcorrente(LancamentosDaThread lancamentos, Conflitos conflitos) {
+		return incrementar(lancamentos.idMesmoUsuario, conflitos);
+	}
+
+	@Benchmark
+	@Threads(THREADS)
+	public Lancamento usuariosDistintosConcorrente(LancamentosDaThread lancamentos, Conflitos conflitos) {
+		return incrementar(lancamentos.idOutroUsuario, conflitos);
+	}
+
+	private Lancamento incrementar(Long id, Conflitos conflitos) {
+		while (true) {
+			Lancamento lido = service.buscarPorId(id).get();
+			Lancamento alterado = BancoBenchmark.novoLancamento(lido.getUsuario(), 0);
+			alterado.setValor(lido.getValor().add(BigDecimal.ONE));
+			alterado.setVersao(lido.getVersao());
+			try {
+				return service.atualizarLancamento(id, alterado).get();
+			} catch (ConflitoVersaoException e) {
+				conflitos.conflitos++;
+			}
+		}
+	}
+}
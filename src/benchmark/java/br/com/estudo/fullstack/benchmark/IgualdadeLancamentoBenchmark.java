@@ -0,0 +1,77 @@
+package br.com.estudo.fullstack.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+
+/**
+ * equals e hashCode de Lancamento percorrem todos os campos, inclusive o Usuario aninhado. Compara cópias iguais em
+ * instâncias diferentes, que não param na verificação de identidade, e mede o custo de montar um HashSet.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IgualdadeLancamentoBenchmark {
+
+	private static final int QUANTIDADE_CONJUNTO = 10_000;
+
+	private Lancamento lancamento;
+
+	private Lancamento copia;
+
+	private List<Lancamento> lancamentos;
+
+	@Setup
+	public void setup() {
+		lancamento = criar(7);
+		copia = criar(7);
+		lancamentos = new ArrayList<>(QUANTIDADE_CONJUNTO);
+		for (int i = 0; i < QUANTIDADE_CONJUNTO; i++) {
+			lancamentos.add(criar(i));
+		}
+	}
+
+	@Benchmark
+	public int hashCodeLancamento() {
+		return lancamento.hashCode();
+	}
+
+	@Benchmark
+	public boolean equalsLancamento() {
+		return lancamento.equals(copia);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Set<Lancamento> montarConjunto() {
+		return new HashSet<>(lancamentos);
+	}
+
+	private static Lancamento criar(int indice) {
+		Usuario usuario = Usuario.builder().id(1l).nome("benchmark").email("benchmark@email.com").senha("senha").build();
+		Lancamento lancamento = BancoBenchmark.novoLancamento(usuario, indice);
+		lancamento.setId((long) indice);
+		lancamento.setVersao(0l);
+		lancamento.setVersaoAlteracao(1l);
+		return lancamento;
+	}
+}
@@ -0,0 +1,84 @@
+package br.com.estudo.fullstack.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.service.LancamentoService;
+
+/**
+ * Vazão da importação em lançamentos por segundo: cada chamada importa um lote e conta cada linha como uma operação.
+ * <p>
+ * As linhas de base medem o cenário anterior: com {@code tamanhoLoteJdbc} 1 cada linha vira um insert próprio, como
+ * acontecia com ids IDENTITY, que desligavam o batch do Hibernate; {@link #salvarUmPorVez()} grava linha a linha pelo
+ * cadastro comum, uma transação e uma atualização de saldo por lançamento, como o cliente fazia sem a importação.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImportacaoLancamentosBenchmark {
+
+	private static final int TAMANHO_LOTE = 1000;
+
+	@Param({ "50", "1" })
+	private int tamanhoLoteJdbc;
+
+	private ConfigurableApplicationContext contexto;
+
+	private LancamentoService service;
+
+	private Usuario usuario;
+
+	@Setup
+	public void setup() {
+		contexto = BancoBenchmark.iniciar("importacao",
+				"spring.jpa.properties.hibernate.jdbc.batch_size=" + tamanhoLoteJdbc);
+		service = contexto.getBean(LancamentoService.class);
+		usuario = BancoBenchmark.popular(contexto, 0);
+	}
+
+	@TearDown
+	public void tearDown() {
+		contexto.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TAMANHO_LOTE)
+	public List<Lancamento> importar() {
+		List<Lancamento> lote = new ArrayList<>(TAMANHO_LOTE);
+		for (int i = 0; i < TAMANHO_LOTE; i++) {
+			lote.add(BancoBenchmark.novoLancamento(usuario, i));
+		}
+		return service.importarLancamentos(lote);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TAMANHO_LOTE)
+	public List<Lancamento> salvarUmPorVez() {
+		List<Lancamento> salvos = new ArrayList<>(TAMANHO_LOTE);
+		for (int i = 0; i < TAMANHO_LOTE; i++) {
+			salvos.add(service.salvarLancamento(BancoBenchmark.novoLancamento(usuario, i)));
+		}
+		return salvos;
+	}
+}
@@ -0,0 +1,79 @@
+package br.com.estudo.fullstack.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import br.com.estudo.fullstack.model.repository.LancamentoRepository;
+import br.com.estudo.fullstack.service.LancamentoService;
+
+/**
+ * Saldo de um usuário no H2 populado: o saldo mantido que o serviço devolve, o recálculo em uma passada usado quando
+ * ele não existe e o recálculo antigo, com uma consulta por tipo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SaldoBenchmark {
+
+	@Param({ "10000", "100000" })
+	public int lancamentos;
+
+	private ConfigurableApplicationContext contexto;
+
+	private LancamentoService service;
+
+	private LancamentoRepository repository;
+
+	private Long idUsuario;
+
+	@Setup
+	public void setup() {
+		contexto = BancoBenchmark.iniciar("saldo" + lancamentos);
+		service = contexto.getBean(LancamentoService.class);
+		repository = contexto.getBean(LancamentoRepository.class);
+		idUsuario = BancoBenchmark.popular(contexto, lancamentos).getId();
+	}
+
+	@TearDown
+	public void tearDown() {
+		contexto.close();
+	}
+
+	@Benchmark
+	public BigDecimal obterSaldoPorUsuario() {
+		return service.obterSaldoPorUsuario(idUsuario);
+	}
+
+	@Benchmark
+	public BigDecimal recalcularEmUmaPassada() {
+		return repository.obterSaldoPorUsuarioEStatus(idUsuario, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
+	}
+
+	@Benchmark
+	public BigDecimal recalcularComDuasConsultas() {
+		BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(idUsuario, TipoLancamento.RECEITA,
+				StatusLancamento.EFETIVADO);
+		BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(idUsuario, TipoLancamento.DESPESA,
+				StatusLancamento.EFETIVADO);
+		return receitas.subtract(despesas);
+	}
+}
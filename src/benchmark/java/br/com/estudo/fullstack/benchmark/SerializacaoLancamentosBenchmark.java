@@ -0,0 +1,64 @@
+package br.com.estudo.fullstack.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+
+/**
+ * Serialização de listas de lançamentos com o mesmo ObjectMapper que o Spring Boot configura, escrevendo num stream
+ * descartável para não medir a cópia do resultado.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacaoLancamentosBenchmark {
+
+	@Param({ "100", "10000", "100000" })
+	public int quantidade;
+
+	private ObjectMapper objectMapper;
+
+	private List<Lancamento> lancamentos;
+
+	@Setup
+	public void setup() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		Usuario usuario = Usuario.builder().id(1l).nome("benchmark").email("benchmark@email.com").senha("senha").build();
+		lancamentos = new ArrayList<>(quantidade);
+		for (int i = 0; i < quantidade; i++) {
+			Lancamento lancamento = BancoBenchmark.novoLancamento(usuario, i);
+			lancamento.setId((long) i);
+			lancamento.setVersao(0l);
+			lancamentos.add(lancamento);
+		}
+	}
+
+	@Benchmark
+	public List<Lancamento> serializar() throws IOException {
+		objectMapper.writeValue(OutputStream.nullOutputStream(), lancamentos);
+		return lancamentos;
+	}
+}
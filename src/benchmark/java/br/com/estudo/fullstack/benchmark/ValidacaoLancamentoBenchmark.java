@@ -0,0 +1,62 @@
+package br.com.estudo.fullstack.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.estudo.fullstack.exception.RegraNegocioException;
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.service.impl.LancamentoServiceImpl;
+
+/**
+ * Validação de um lançamento válido e de um recusado na última regra, que paga todas as verificações e a exceção.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidacaoLancamentoBenchmark {
+
+	private LancamentoServiceImpl service;
+
+	private Lancamento valido;
+
+	private Lancamento semTipo;
+
+	@Setup
+	public void setup() {
+		// a validação não usa nenhuma dependência do serviço
+		service = new LancamentoServiceImpl(null, null, null, null, null, null, null, null, null, null);
+		valido = BancoBenchmark.novoLancamento(Usuario.builder().id(1l).build(), 7);
+		semTipo = BancoBenchmark.novoLancamento(Usuario.builder().id(1l).build(), 7);
+		semTipo.setTipo(null);
+	}
+
+	@Benchmark
+	public Lancamento validarValido() {
+		service.validarLancamento(valido);
+		return valido;
+	}
+
+	@Benchmark
+	public RegraNegocioException validarInvalido() {
+		try {
+			service.validarLancamento(semTipo);
+			return null;
+		} catch (RegraNegocioException e) {
+			return e;
+		}
+	}
+}
@@ -0,0 +1,298 @@
+package br.com.estudo.fullstack.carga;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.estudo.fullstack.api.dto.AtualizaStatusDTO;
+import br.com.estudo.fullstack.api.dto.LancamentoDTO;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+
+/**
+ * Repete contra a aplicação no ar uma carga mista de criação, busca, mudança de status e saldo, com os usuários
+ * sorteados na proporção dos lançamentos de cada um (os pesados recebem mais requisições), e informa vazão e
+ * percentis de latência por endpoint. Usa o arquivo de usuários gravado pelo {@link GeradorDados}:
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:java@carga -Dcarga.clientes=200 -Dcarga.duracao=60}
+ * <p>
+ * A mistura é configurada em {@code carga.mistura}, em pesos por operação: {@code criar=20,buscar=40,status=15,saldo=25}.
+ */
+public class CargaMista {
+
+	enum Operacao {
+		CRIAR, BUSCAR, STATUS, SALDO
+	}
+
+	private static final int IDS_GUARDADOS = 10_000;
+
+	private final String url = System.getProperty("carga.url", "http://localhost:8080");
+
+	private final File arquivo = new File(System.getProperty("carga.arquivo", "target/carga/usuarios.csv"));
+
+	private final int clientes = Integer.getInteger("carga.clientes", 100);
+
+	private final Duration duracao = Duration.ofSeconds(Long.getLong("carga.duracao", 60l));
+
+	private final Duration aquecimento = Duration.ofSeconds(Long.getLong("carga.aquecimento", 10l));
+
+	private final Map<Operacao, Integer> mistura = lerMistura(
+			System.getProperty("carga.mistura", "criar=20,buscar=40,status=15,saldo=25"));
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+	private long[] usuarios;
+
+	private long[] pesosAcumulados;
+
+	/** Ids de lançamentos criados durante a carga, sorteados para a mudança de status. */
+	private final AtomicLongArray criados = new AtomicLongArray(IDS_GUARDADOS);
+
+	private final AtomicLong quantidadeCriados = new AtomicLong();
+
+	public static void main(String[] args) throws Exception {
+		new CargaMista().executar();
+	}
+
+	void executar() throws Exception {
+		lerUsuarios();
+		System.out.printf("%d usuários, %d clientes, mistura %s%n", usuarios.length, clientes, mistura);
+
+		rodar(aquecimento);
+		long inicio = System.nanoTime();
+		List<Map<Operacao, Latencias>> medidas = rodar(duracao);
+		double segundos = (System.nanoTime() - inicio) / 1e9;
+
+		System.out.printf("%-8s %10s %8s %10s %10s %10s %10s %10s%n", "endpoint", "requisições", "erros", "req/s",
+				"p50 ms", "p95 ms", "p99 ms", "máx ms");
+		for (Operacao operacao : Operacao.values()) {
+			Latencias total = new Latencias();
+			medidas.forEach(doCliente -> total.juntar(doCliente.get(operacao)));
+			System.out.println(total.resumo(operacao.name().toLowerCase(), segundos));
+		}
+	}
+
+	private List<Map<Operacao, Latencias>> rodar(Duration tempo) throws Exception {
+		long fim = System.nanoTime() + tempo.toNanos();
+		List<Future<Map<Operacao, Latencias>>> execucoes = new ArrayList<>(clientes);
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < clientes; i++) {
+				execucoes.add(executor.submit(() -> {
+					Map<Operacao, Latencias> medidas = new EnumMap<>(Operacao.class);
+					for (Operacao operacao : Operacao.values()) {
+						medidas.put(operacao, new Latencias());
+					}
+					while (System.nanoTime() < fim) {
+						Operacao operacao = sortearOperacao();
+						long enviada = System.nanoTime();
+						boolean sucesso = executar(operacao);
+						medidas.get(operacao).registrar(System.nanoTime() - enviada, sucesso);
+					}
+					return medidas;
+				}));
+			}
+		}
+		List<Map<Operacao, Latencias>> medidas = new ArrayList<>(clientes);
+		for (Future<Map<Operacao, Latencias>> execucao : execucoes) {
+			medidas.add(execucao.get());
+		}
+		return medidas;
+	}
+
+	private boolean executar(Operacao operacao) {
+		try {
+			switch (operacao) {
+			case CRIAR:
+				return criar();
+			case BUSCAR:
+				return buscar();
+			case STATUS:
+				return atualizarStatus();
+			default:
+				return obterSaldo();
+			}
+		} catch (IOException e) {
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private boolean criar() throws IOException, InterruptedException {
+		ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+		TipoLancamento tipo = aleatorio.nextInt(10) < 7 ? TipoLancamento.DESPESA : TipoLancamento.RECEITA;
+		LancamentoDTO dto = new LancamentoDTO();
+		dto.setUsuario(sortearUsuario());
+		dto.setDescricao(GeradorDados.DESCRICOES[aleatorio.nextInt(GeradorDados.DESCRICOES.length)]);
+		dto.setAno(LocalDate.now().getYear());
+		dto.setMes(LocalDate.now().getMonthValue());
+		dto.setValor(BigDecimal.valueOf(100 + aleatorio.nextInt(500_000), 2));
+		dto.setTipo(tipo.name());
+
+		HttpResponse<String> resposta = enviar(requisicao("/api/lancamentos")
+				.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(dto))));
+		if (resposta.statusCode() != 201) {
+			return false;
+		}
+		long id = objectMapper.readTree(resposta.body()).path("id").asLong();
+		criados.set((int) (quantidadeCriados.getAndIncrement() % IDS_GUARDADOS), id);
+		return true;
+	}
+
+	private boolean buscar() throws IOException, InterruptedException {
+		ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+		StringBuilder consulta = new StringBuilder("/api/lancamentos?usuario=").append(sortearUsuario())
+				.append("&ano=").append(LocalDate.now().getYear() - aleatorio.nextInt(5));
+		if (aleatorio.nextBoolean()) {
+			consulta.append("&mes=").append(1 + aleatorio.nextInt(12));
+		}
+		if (aleatorio.nextInt(4) == 0) {
+			consulta.append("&tipo=").append(TipoLancamento.DESPESA.name());
+		}
+		return enviar(requisicao(consulta.toString()).GET()).statusCode() == 200;
+	}
+
+	/**
+	 * Muda o status de um lançamento criado durante a carga; enquanto nenhum foi criado, cria um.
+	 */
+	private boolean atualizarStatus() throws IOException, InterruptedException {
+		long guardados = Math.min(quantidadeCriados.get(), IDS_GUARDADOS);
+		long id = guardados == 0 ? 0 : criados.get(ThreadLocalRandom.current().nextInt((int) guardados));
+		if (id == 0) {
+			return criar();
+		}
+		StatusLancamento status = ThreadLocalRandom.current().nextBoolean() ? StatusLancamento.EFETIVADO
+				: StatusLancamento.CANCELADO;
+		HttpResponse<String> resposta = enviar(requisicao("/api/lancamentos/" + id + "/atualiza-status")
+				.PUT(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(new AtualizaStatusDTO(status.name())))));
+		return resposta.statusCode() == 200;
+	}
+
+	private boolean obterSaldo() throws IOException, InterruptedException {
+		JsonNode saldo = objectMapper.readTree(
+				enviar(requisicao("/api/usuarios/" + sortearUsuario() + "/saldo").GET()).body());
+		return saldo.isNumber();
+	}
+
+	private HttpRequest.Builder requisicao(String caminho) {
+		return HttpRequest.newBuilder(URI.create(url + caminho))
+				.timeout(Duration.ofSeconds(30))
+				.header("Content-Type", "application/json");
+	}
+
+	private HttpResponse<String> enviar(HttpRequest.Builder requisicao) throws IOException, InterruptedException {
+		return cliente.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+	}
+
+	private Operacao sortearOperacao() {
+		int total = mistura.values().stream().mapToInt(Integer::intValue).sum();
+		int sorteio = ThreadLocalRandom.current().nextInt(total);
+		for (Map.Entry<Operacao, Integer> peso : mistura.entrySet()) {
+			sorteio -= peso.getValue();
+			if (sorteio < 0) {
+				return peso.getKey();
+			}
+		}
+		throw new IllegalStateException();
+	}
+
+	/**
+	 * Sorteia um usuário com probabilidade proporcional aos lançamentos que ele tem.
+	 */
+	private long sortearUsuario() {
+		long sorteio = ThreadLocalRandom.current().nextLong(pesosAcumulados[pesosAcumulados.length - 1]);
+		int posicao = Arrays.binarySearch(pesosAcumulados, sorteio + 1);
+		return usuarios[posicao >= 0 ? posicao : -posicao - 1];
+	}
+
+	private void lerUsuarios() throws IOException {
+		List<String> linhas = Files.readAllLines(arquivo.toPath());
+		usuarios = new long[linhas.size()];
+		pesosAcumulados = new long[linhas.size()];
+		long acumulado = 0;
+		for (int i = 0; i < linhas.size(); i++) {
+			String[] partes = linhas.get(i).split(";");
+			usuarios[i] = Long.parseLong(partes[0]);
+			// usuários sem lançamentos ainda recebem requisições
+			acumulado += Math.max(1, Long.parseLong(partes[1]));
+			pesosAcumulados[i] = acumulado;
+		}
+	}
+
+	private static Map<Operacao, Integer> lerMistura(String mistura) {
+		Map<Operacao, Integer> pesos = new EnumMap<>(Operacao.class);
+		for (String parte : mistura.split(",")) {
+			String[] pesoOperacao = parte.split("=");
+			int peso = Integer.parseInt(pesoOperacao[1].trim());
+			if (peso > 0) {
+				pesos.put(Operacao.valueOf(pesoOperacao[0].trim().toUpperCase()), peso);
+			}
+		}
+		return pesos;
+	}
+
+	private static final class Latencias {
+
+		private long[] valores = new long[1024];
+
+		private int quantidade;
+
+		private int erros;
+
+		private void registrar(long latencia, boolean sucesso) {
+			if (quantidade == valores.length) {
+				valores = Arrays.copyOf(valores, quantidade * 2);
+			}
+			valores[quantidade++] = latencia;
+			if (!sucesso) {
+				erros++;
+			}
+		}
+
+		private void juntar(Latencias outras) {
+			for (int i = 0; i < outras.quantidade; i++) {
+				registrar(outras.valores[i], true);
+			}
+			erros += outras.erros;
+		}
+
+		private String resumo(String endpoint, double segundos) {
+			long[] ordenadas = Arrays.copyOf(valores, quantidade);
+			Arrays.sort(ordenadas);
+			return String.format("%-8s %10d %8d %10.0f %10.1f %10.1f %10.1f %10.1f", endpoint, quantidade, erros,
+					quantidade / segundos, percentil(ordenadas, 0.50), percentil(ordenadas, 0.95),
+					percentil(ordenadas, 0.99), ordenadas.length == 0 ? 0 : ordenadas[ordenadas.length - 1] / 1e6);
+		}
+
+		private static double percentil(long[] ordenadas, double percentil) {
+			if (ordenadas.length == 0) {
+				return 0;
+			}
+			return ordenadas[(int) Math.ceil(percentil * ordenadas.length) - 1] / 1e6;
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package br.com.estudo.fullstack.carga;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.com.estudo.fullstack.FullstackApplication;
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import br.com.estudo.fullstack.model.repository.LancamentoRepositoryTest;
+import br.com.estudo.fullstack.model.repository.UsuarioRepository;
+import br.com.estudo.fullstack.service.LancamentoService;
+
+/**
+ * Compara latência (p50 e p99) e vazão da listagem com muitos clientes simultâneos, com threads virtuais
+ * habilitadas e desabilitadas. Sobe a aplicação duas vezes, cada uma com seu H2 em memória:
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:java@threads-virtuais -Dcarga.clientes=400 -Dcarga.requisicoes=20}
+ * <p>
+ * Os valores acima são os padrões, com 50 threads no Tomcat ({@code carga.threads-tomcat}). Contra o H2 em memória
+ * as consultas não esperam rede; os números refletem melhor o ganho contra um PostgreSQL remoto
+ * ({@code -Dcarga.jdbc-url=jdbc:postgresql://...}).
+ */
+public class ComparacaoThreadsVirtuais {
+
+	static final int CLIENTES = Integer.getInteger("carga.clientes", 400);
+	static final int REQUISICOES_POR_CLIENTE = Integer.getInteger("carga.requisicoes", 20);
+	static final int THREADS_TOMCAT = Integer.getInteger("carga.threads-tomcat", 50);
+
+	public static void main(String[] args) throws Exception {
+		ComparacaoThreadsVirtuais comparacao = new ComparacaoThreadsVirtuais();
+		Resultado plataforma = comparacao.medir(false);
+		Resultado virtuais = comparacao.medir(true);
+
+		System.out.printf("%d clientes, %d requisições cada, %d threads no Tomcat%n", CLIENTES,
+				REQUISICOES_POR_CLIENTE, THREADS_TOMCAT);
+		System.out.println("threads de plataforma: " + plataforma);
+		System.out.println("threads virtuais:      " + virtuais);
+	}
+
+	private Resultado medir(boolean threadsVirtuais) throws Exception {
+		try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(FullstackApplication.class)
+				.profiles("test")
+				.run("--server.port=0",
+						"--server.tomcat.threads.max=" + THREADS_TOMCAT,
+						"--server.tomcat.accept-count=" + CLIENTES,
+						"--server.tomcat.max-connections=" + CLIENTES * 2,
+						"--financas.threads-virtuais.habilitadas=" + threadsVirtuais,
+						"--spring.datasource.url=" + System.getProperty("carga.jdbc-url",
+								"jdbc:h2:mem:carga" + threadsVirtuais + ";DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas"))) {
+			Executor executorTomcat = ((TomcatWebServer) ((ServletWebServerApplicationContext) contexto).getWebServer())
+					.getTomcat().getConnector().getProtocolHandler().getExecutor();
+			CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+			executorTomcat.execute(() -> virtual.complete(Thread.currentThread().isVirtual()));
+			if (virtual.get() != threadsVirtuais) {
+				throw new IllegalStateException("Executor do Tomcat não corresponde a threads-virtuais=" + threadsVirtuais);
+			}
+
+			Long idUsuario = popular(contexto);
+			String url = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port")
+					+ "/api/lancamentos/listagem?usuario=" + idUsuario;
+			aquecer(url);
+			return executarCarga(url);
+		}
+	}
+
+	private Long popular(ConfigurableApplicationContext contexto) {
+		Usuario usuario = contexto.getBean(UsuarioRepository.class).save(Usuario.builder()
+				.nome("carga").email("carga" + System.nanoTime() + "@email.com").senha("senha").build());
+		List<Lancamento> lancamentos = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+			lancamento.setDescricao("Lançamento " + i);
+			lancamento.setMes(i % 12 + 1);
+			lancamento.setValor(BigDecimal.valueOf(i + 1));
+			lancamento.setTipo(i % 2 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA);
+			lancamento.setUsuario(usuario);
+			lancamentos.add(lancamento);
+		}
+		contexto.getBean(LancamentoService.class).importarLancamentos(lancamentos);
+		return usuario.getId();
+	}
+
+	private void aquecer(String url) throws Exception {
+		HttpClient cliente = HttpClient.newHttpClient();
+		for (int i = 0; i < 200; i++) {
+			cliente.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.discarding());
+		}
+	}
+
+	private Resultado executarCarga(String url) throws Exception {
+		HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+		HttpRequest requisicao = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(60)).build();
+		AtomicInteger erros = new AtomicInteger();
+
+		long inicio = System.nanoTime();
+		List<Future<long[]>> clientes = new ArrayList<>(CLIENTES);
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < CLIENTES; i++) {
+				clientes.add(executor.submit(() -> {
+					long[] latencias = new long[REQUISICOES_POR_CLIENTE];
+					for (int j = 0; j < REQUISICOES_POR_CLIENTE; j++) {
+						long enviada = System.nanoTime();
+						try {
+							HttpResponse<Void> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding());
+							if (resposta.statusCode() != 200) {
+								erros.incrementAndGet();
+							}
+						} catch (Exception e) {
+							erros.incrementAndGet();
+						}
+						latencias[j] = System.nanoTime() - enviada;
+					}
+					return latencias;
+				}));
+			}
+		}
+		long duracao = System.nanoTime() - inicio;
+
+		long[] todas = new long[CLIENTES * REQUISICOES_POR_CLIENTE];
+		for (int i = 0; i < CLIENTES; i++) {
+			System.arraycopy(clientes.get(i).get(), 0, todas, i * REQUISICOES_POR_CLIENTE, REQUISICOES_POR_CLIENTE);
+		}
+		Arrays.sort(todas);
+		return new Resultado(todas.length * 1_000_000_000d / duracao, percentil(todas, 0.50), percentil(todas, 0.99),
+				erros.get());
+	}
+
+	private static long percentil(long[] ordenadas, double percentil) {
+		return ordenadas[(int) Math.ceil(percentil * ordenadas.length) - 1];
+	}
+
+	private static final class Resultado {
+
+		private final double requisicoesPorSegundo;
+		private final long p50;
+		private final long p99;
+		private final int erros;
+
+		private Resultado(double requisicoesPorSegundo, long p50, long p99, int erros) {
+			this.requisicoesPorSegundo = requisicoesPorSegundo;
+			this.p50 = p50;
+			this.p99 = p99;
+			this.erros = erros;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%.0f req/s, p50 %.1f ms, p99 %.1f ms, %d erros", requisicoesPorSegundo, p50 / 1e6,
+					p99 / 1e6, erros);
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package br.com.estudo.fullstack.carga;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import br.com.estudo.fullstack.FullstackApplication;
+import br.com.estudo.fullstack.model.entity.SincronizacaoUsuario;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import br.com.estudo.fullstack.model.repository.SincronizacaoUsuarioRepository;
+import br.com.estudo.fullstack.model.repository.UsuarioRepository;
+import br.com.estudo.fullstack.service.LancamentoService;
+
+/**
+ * Gera uma massa de dados com a distribuição de produção num H2 em arquivo: poucos usuários concentram boa parte dos
+ * lançamentos, tipos e status misturados e vários anos de histórico. Os lançamentos entram por inserts em lote
+ * direto no banco; saldo mantido, resumo mensal e versão de sincronização são refeitos pelo serviço no final.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:java@gerar-dados -Dcarga.usuarios=1000 -Dcarga.lancamentos=1000000}
+ * <p>
+ * Grava em {@code carga.arquivo} a lista de usuários com a quantidade de lançamentos de cada um, usada pela
+ * {@link CargaMista}, e imprime como subir a aplicação sobre o banco gerado.
+ */
+public class GeradorDados {
+
+	static final String[] DESCRICOES = { "Salário", "Aluguel", "Mercado", "Energia", "Água", "Internet", "Farmácia",
+			"Combustível", "Restaurante", "Academia", "Escola", "Plano de saúde", "Cartão de crédito", "Investimento",
+			"Presente", "Viagem", "Manutenção do carro", "Assinatura", "Telefone", "Condomínio" };
+
+	private static final int TAMANHO_LOTE = 5000;
+
+	private static final String INSERIR = "insert into financas.lancamento (id, descricao, ano, mes, valor, id_usuario,"
+			+ " data_cadastro, tipo, status, versao_alteracao, versao) values (?, ?, ?, ?, ?, ?, ?, ?, ?, 1, 0)";
+
+	private final int usuarios = Integer.getInteger("carga.usuarios", 1000);
+
+	private final int lancamentos = Integer.getInteger("carga.lancamentos", 1_000_000);
+
+	private final int usuariosPesados = Integer.getInteger("carga.usuarios-pesados", 10);
+
+	private final double fracaoPesados = Double.parseDouble(System.getProperty("carga.fracao-pesados", "0.5"));
+
+	private final int anos = Integer.getInteger("carga.anos", 20);
+
+	private final File banco = new File(System.getProperty("carga.banco", "target/carga/financas")).getAbsoluteFile();
+
+	private final File arquivo = new File(System.getProperty("carga.arquivo", "target/carga/usuarios.csv"));
+
+	private final Random aleatorio = new Random(Long.getLong("carga.semente", 42l));
+
+	public static void main(String[] args) throws IOException {
+		new GeradorDados().gerar();
+	}
+
+	void gerar() throws IOException {
+		long inicio = System.nanoTime();
+		try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(FullstackApplication.class)
+				.profiles("test")
+				.web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=" + urlJdbc(banco),
+						"--spring.jpa.hibernate.ddl-auto=update",
+						"--spring.main.banner-mode=off",
+						"--logging.level.root=WARN")) {
+			List<Usuario> criados = criarUsuarios(contexto);
+			long[] quantidades = inserirLancamentos(contexto.getBean(JdbcTemplate.class), criados);
+			refazerDerivados(contexto, criados);
+			gravarUsuarios(criados, quantidades);
+		}
+		System.out.printf("%d usuários e %d lançamentos gerados em %.1f s%n", usuarios, lancamentos,
+				(System.nanoTime() - inicio) / 1e9);
+		System.out.println("usuários: " + arquivo.getAbsolutePath());
+		// o esquema já existe: a aplicação não deve recriá-lo sobre a massa gerada
+		System.out.println("suba a aplicação com: mvn spring-boot:run -Dspring-boot.run.profiles=test"
+				+ " -Dspring-boot.run.arguments=\"--spring.datasource.url=jdbc:h2:file:" + banco.getPath()
+				+ " --spring.jpa.hibernate.ddl-auto=none --financas.reativo.habilitado=true"
+				+ " --financas.reativo.url=r2dbc:h2:file:///" + banco.getPath() + "\"");
+	}
+
+	private List<Usuario> criarUsuarios(ConfigurableApplicationContext contexto) {
+		List<Usuario> novos = new ArrayList<>(usuarios);
+		for (int i = 0; i < usuarios; i++) {
+			novos.add(Usuario.builder().nome("Usuário " + i)
+					.email("carga" + i + "." + System.nanoTime() + "@email.com").senha("senha").build());
+		}
+		return contexto.getBean(UsuarioRepository.class).saveAll(novos);
+	}
+
+	/**
+	 * Os ids seguem o maior id existente e a sequência do Hibernate é reiniciada acima deles no final.
+	 */
+	private long[] inserirLancamentos(JdbcTemplate jdbcTemplate, List<Usuario> criados) {
+		long[] quantidades = new long[criados.size()];
+		long proximoId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from financas.lancamento", Long.class) + 1;
+		int anoAtual = LocalDate.now().getYear();
+
+		List<Object[]> lote = new ArrayList<>(TAMANHO_LOTE);
+		for (int i = 0; i < lancamentos; i++) {
+			int usuario = sortearUsuario(criados.size());
+			quantidades[usuario]++;
+			TipoLancamento tipo = aleatorio.nextInt(10) < 7 ? TipoLancamento.DESPESA : TipoLancamento.RECEITA;
+			String descricao = tipo == TipoLancamento.RECEITA && aleatorio.nextBoolean() ? DESCRICOES[0]
+					: DESCRICOES[1 + aleatorio.nextInt(DESCRICOES.length - 1)];
+			int ano = anoAtual - aleatorio.nextInt(anos);
+			int mes = 1 + aleatorio.nextInt(12);
+
+			lote.add(new Object[] { proximoId++, descricao, ano, mes,
+					BigDecimal.valueOf(100 + aleatorio.nextInt(500_000), 2), criados.get(usuario).getId(),
+					Date.valueOf(LocalDate.of(ano, mes, 1 + aleatorio.nextInt(28))), tipo.name(), sortearStatus().name() });
+			if (lote.size() == TAMANHO_LOTE || i == lancamentos - 1) {
+				jdbcTemplate.batchUpdate(INSERIR, lote);
+				lote.clear();
+			}
+		}
+		jdbcTemplate.execute("alter sequence financas.lancamento_seq restart with " + (proximoId + 100));
+		return quantidades;
+	}
+
+	/**
+	 * Os primeiros usuários são os pesados e recebem a fração configurada dos lançamentos; o resto se divide entre os
+	 * demais.
+	 */
+	private int sortearUsuario(int total) {
+		int pesados = Math.min(usuariosPesados, total);
+		if (pesados > 0 && (pesados == total || aleatorio.nextDouble() < fracaoPesados)) {
+			return aleatorio.nextInt(pesados);
+		}
+		return pesados + aleatorio.nextInt(total - pesados);
+	}
+
+	private StatusLancamento sortearStatus() {
+		int sorteio = aleatorio.nextInt(10);
+		if (sorteio < 6) {
+			return StatusLancamento.EFETIVADO;
+		}
+		return sorteio < 9 ? StatusLancamento.PENDENTE : StatusLancamento.CANCELADO;
+	}
+
+	private void refazerDerivados(ConfigurableApplicationContext contexto, List<Usuario> criados) {
+		LancamentoService service = contexto.getBean(LancamentoService.class);
+		SincronizacaoUsuarioRepository sincronizacao = contexto.getBean(SincronizacaoUsuarioRepository.class);
+		for (Usuario usuario : criados) {
+			sincronizacao.save(new SincronizacaoUsuario(usuario.getId(), 1l));
+			service.reconciliarSaldo(usuario.getId());
+			service.reconstruirResumoMensal(usuario.getId());
+		}
+	}
+
+	private void gravarUsuarios(List<Usuario> criados, long[] quantidades) throws IOException {
+		List<String> linhas = new ArrayList<>(criados.size());
+		for (int i = 0; i < criados.size(); i++) {
+			linhas.add(criados.get(i).getId() + ";" + quantidades[i]);
+		}
+		arquivo.getAbsoluteFile().getParentFile().mkdirs();
+		Files.write(arquivo.toPath(), linhas);
+	}
+
+	private static String urlJdbc(File banco) {
+		return "jdbc:h2:file:" + banco.getPath() + ";INIT=CREATE SCHEMA IF NOT EXISTS financas";
+	}
+}
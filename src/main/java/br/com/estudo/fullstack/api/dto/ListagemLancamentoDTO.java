@@ -0,0 +1,21 @@
+package br.com.estudo.fullstack.api.dto;
+
+import java.util.List;
+
+import br.com.estudo.fullstack.model.repository.LancamentoListagem;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListagemLancamentoDTO {
+
+	private Long usuario;
+	private List<LancamentoListagem> lancamentos;
+}
@@ -0,0 +1,22 @@
+package br.com.estudo.fullstack.api.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificacaoSaldoDTO {
+
+	private Long usuario;
+	private BigDecimal saldo;
+	private List<Long> lancamentos;
+}
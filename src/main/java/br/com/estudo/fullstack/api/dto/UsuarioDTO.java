@@ -1,19 +1,19 @@
-package br.com.estudo.fullstack.api.dto;
-
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
-
-@Getter
-@Setter
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-public class UsuarioDTO {
-
-	private String email;
-	private String nome;
-	private String senha;
-}
+package br.com.estudo.fullstack.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsuarioDTO {
+
+	private String email;
+	private String nome;
+	private String senha;
+}
@@ -0,0 +1,185 @@
+package br.com.estudo.fullstack.api.idempotencia;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.com.estudo.fullstack.model.entity.RespostaIdempotente;
+import br.com.estudo.fullstack.model.repository.RespostaIdempotenteRepository;
+import br.com.estudo.fullstack.service.impl.ExecucaoUnica;
+
+/**
+ * Respostas de escritas enviadas com o cabeçalho Idempotency-Key. A operação e a gravação da resposta são confirmadas
+ * na mesma transação, então uma repetição da requisição (o cliente que não recebeu a resposta por timeout) devolve a
+ * resposta original sem validar nem gravar de novo. As respostas ficam em memória com tamanho e validade limitados e
+ * no banco para as demais instâncias e para depois de um reinício; a chave primária no banco garante que, entre
+ * instâncias, só uma requisição com a mesma chave é confirmada.
+ */
+@Component
+public class RespostasIdempotentes {
+
+	public static final String CABECALHO = "Idempotency-Key";
+
+	public static final String CABECALHO_REPETIDA = "Idempotent-Replayed";
+
+	static final int TAMANHO_MAXIMO_CHAVE = 100;
+
+	private final RespostaIdempotenteRepository repository;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final ExecucaoUnica execucaoUnica;
+
+	private final ObjectMapper objectMapper;
+
+	private final Duration validade;
+
+	private final Cache<String, RespostaIdempotente> respostas;
+
+	public RespostasIdempotentes(RespostaIdempotenteRepository repository, PlatformTransactionManager transactionManager,
+			ExecucaoUnica execucaoUnica, ObjectMapper objectMapper,
+			@Value("${financas.idempotencia.validade-horas:24}") long validadeHoras,
+			@Value("${financas.idempotencia.maximo-em-memoria:10000}") long maximoEmMemoria) {
+		this.repository = repository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.execucaoUnica = execucaoUnica;
+		this.objectMapper = objectMapper;
+		this.validade = Duration.ofHours(validadeHoras);
+		this.respostas = Caffeine.newBuilder()
+				.maximumSize(maximoEmMemoria)
+				.expireAfterWrite(validade)
+				.build();
+	}
+
+	/**
+	 * Executa a operação uma única vez por chave. Sem chave a operação roda normalmente. Só respostas de sucesso são
+	 * guardadas: uma requisição recusada pode ser corrigida e reenviada com a mesma chave. A mesma chave com outra
+	 * requisição é recusada com 422.
+	 */
+	public ResponseEntity executar(String operacao, String chave, Object requisicao, Supplier<ResponseEntity> execucao) {
+		if (chave == null || chave.trim().isEmpty()) {
+			return execucao.get();
+		}
+		if (chave.trim().length() > TAMANHO_MAXIMO_CHAVE) {
+			return ResponseEntity.badRequest()
+					.body(CABECALHO + " deve ter no máximo " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+		}
+		String id = operacao + ":" + chave.trim();
+		String resumo = resumir(requisicao);
+
+		// repetições simultâneas da mesma requisição aguardam a primeira em vez de disputar a chave no banco
+		return execucaoUnica.executar("idempotencia", new SimpleImmutableEntry<>(id, resumo), () -> {
+			Optional<RespostaIdempotente> guardada = buscar(id);
+			if (guardada.isPresent()) {
+				return repetir(guardada.get(), resumo);
+			}
+			try {
+				return executarEGuardar(id, resumo, execucao);
+			} catch (DataIntegrityViolationException e) {
+				// outra instância confirmou a mesma chave primeiro; a escrita desta requisição foi desfeita
+				return buscar(id).map(resposta -> repetir(resposta, resumo)).orElseThrow(() -> e);
+			}
+		});
+	}
+
+	@Scheduled(initialDelayString = "${financas.idempotencia.limpeza-ms:3600000}",
+			fixedDelayString = "${financas.idempotencia.limpeza-ms:3600000}")
+	@Transactional
+	public void removerExpiradas() {
+		repository.deletarCriadasAntesDe(LocalDateTime.now().minus(validade));
+	}
+
+	private ResponseEntity executarEGuardar(String id, String resumo, Supplier<ResponseEntity> execucao) {
+		AtomicReference<RespostaIdempotente> gravada = new AtomicReference<>();
+		ResponseEntity resposta = transactionTemplate.execute(status -> {
+			ResponseEntity obtida = execucao.get();
+			if (!obtida.getStatusCode().is2xxSuccessful()) {
+				status.setRollbackOnly();
+				return obtida;
+			}
+			gravada.set(repository.saveAndFlush(RespostaIdempotente.builder()
+					.chave(id)
+					.resumoRequisicao(resumo)
+					.status(obtida.getStatusCodeValue())
+					.corpo(serializar(obtida.getBody()))
+					.criacao(LocalDateTime.now()).build()));
+			return obtida;
+		});
+		if (gravada.get() != null) {
+			respostas.put(id, gravada.get());
+		}
+		return resposta;
+	}
+
+	private Optional<RespostaIdempotente> buscar(String id) {
+		RespostaIdempotente resposta = respostas.getIfPresent(id);
+		if (resposta == null) {
+			resposta = repository.findById(id).orElse(null);
+			if (resposta == null) {
+				return Optional.empty();
+			}
+			respostas.put(id, resposta);
+		}
+		if (resposta.getCriacao().isBefore(LocalDateTime.now().minus(validade))) {
+			return Optional.empty();
+		}
+		return Optional.of(resposta);
+	}
+
+	private ResponseEntity repetir(RespostaIdempotente resposta, String resumo) {
+		if (!resposta.getResumoRequisicao().equals(resumo)) {
+			return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+					.body(CABECALHO + " já utilizada com outra requisição.");
+		}
+		ResponseEntity.BodyBuilder repetida = ResponseEntity.status(resposta.getStatus())
+				.header(CABECALHO_REPETIDA, "true");
+		if (resposta.getCorpo() == null) {
+			return repetida.build();
+		}
+		return repetida.contentType(MediaType.APPLICATION_JSON).body(resposta.getCorpo());
+	}
+
+	private String serializar(Object corpo) {
+		if (corpo == null) {
+			return null;
+		}
+		try {
+			return objectMapper.writeValueAsString(corpo);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Não foi possível guardar a resposta da requisição.", e);
+		}
+	}
+
+	private String resumir(Object requisicao) {
+		try {
+			byte[] conteudo = requisicao instanceof String ? ((String) requisicao).getBytes(StandardCharsets.UTF_8)
+					: objectMapper.writeValueAsBytes(requisicao);
+			return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(conteudo));
+		} catch (JsonProcessingException | NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Não foi possível resumir a requisição.", e);
+		}
+	}
+}
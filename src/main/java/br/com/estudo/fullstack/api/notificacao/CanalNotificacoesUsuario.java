@@ -0,0 +1,362 @@
+package br.com.estudo.fullstack.api.notificacao;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.estudo.fullstack.api.dto.NotificacaoSaldoDTO;
+import br.com.estudo.fullstack.service.LancamentoService;
+import br.com.estudo.fullstack.service.LancamentosAlteradosEvent;
+
+/**
+ * Distribui, dentro do processo, as alterações confirmadas de lançamentos para as conexões SSE abertas de cada
+ * usuário. Quem confirma a escrita só marca as conexões do usuário como pendentes; saldo e envio rodam no executor
+ * próprio, um envio por vez em cada conexão, e o saldo é lido no momento do envio, então o último evento recebido
+ * sempre traz o saldo mais recente. A escrita no socket é não bloqueante: conexão sem espaço para escrever aguarda o
+ * aviso do servidor sem ocupar thread e é encerrada quando fica parada além do tempo limite ou acumula alterações
+ * demais. Ao reconectar, o cliente recebe o saldo atual e pode buscar as alterações pela versão de sincronização.
+ */
+@Component
+public class CanalNotificacoesUsuario {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CanalNotificacoesUsuario.class);
+
+	private final LancamentoService lancamentoService;
+
+	private final ObjectMapper objectMapper;
+
+	private final int capacidadeFila;
+
+	private final int maximoPorUsuario;
+
+	private final long timeoutMillis;
+
+	private final long timeoutEscritaNanos;
+
+	private final Map<Long, Set<Assinante>> assinantes = new ConcurrentHashMap<>();
+
+	private final ExecutorService executor;
+
+	private final ScheduledExecutorService vigia;
+
+	public CanalNotificacoesUsuario(LancamentoService lancamentoService, ObjectMapper objectMapper,
+			@Value("${financas.notificacoes.capacidade-fila:32}") int capacidadeFila,
+			@Value("${financas.notificacoes.maximo-por-usuario:10}") int maximoPorUsuario,
+			@Value("${financas.notificacoes.timeout-minutos:30}") long timeoutMinutos,
+			@Value("${financas.notificacoes.threads:4}") int threads,
+			@Value("${financas.notificacoes.timeout-escrita-ms:10000}") long timeoutEscritaMillis) {
+		this.lancamentoService = lancamentoService;
+		this.objectMapper = objectMapper;
+		this.capacidadeFila = capacidadeFila;
+		this.maximoPorUsuario = maximoPorUsuario;
+		this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutos);
+		this.timeoutEscritaNanos = TimeUnit.MILLISECONDS.toNanos(timeoutEscritaMillis);
+		AtomicInteger contador = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0l, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(10_000), tarefa -> {
+					Thread thread = new Thread(tarefa, "notificacoes-" + contador.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.vigia = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+			Thread thread = new Thread(tarefa, "notificacoes-vigia");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long intervalo = Math.max(1l, timeoutEscritaMillis / 2);
+		vigia.scheduleWithFixedDelay(this::verificarEscritasParadas, intervalo, intervalo, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Inicia a resposta assíncrona do fluxo de eventos. O primeiro evento traz o saldo atual e é enviado quando o
+	 * servidor avisa que a conexão aceita escrita.
+	 */
+	public void assinar(Long idUsuario, HttpServletRequest request, HttpServletResponse response) throws IOException {
+		Assinante assinante = new Assinante(idUsuario);
+		AtomicBoolean aceito = new AtomicBoolean();
+		assinantes.compute(idUsuario, (id, doUsuario) -> {
+			Set<Assinante> atual = doUsuario == null ? new CopyOnWriteArraySet<>() : doUsuario;
+			if (atual.size() < maximoPorUsuario) {
+				aceito.set(atual.add(assinante));
+			}
+			return atual.isEmpty() ? null : atual;
+		});
+		if (!aceito.get()) {
+			response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Limite de conexões do usuário atingido.");
+			return;
+		}
+
+		response.setStatus(HttpStatus.OK.value());
+		response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+		try {
+			AsyncContext contexto = request.startAsync(request, response);
+			contexto.setTimeout(timeoutMillis);
+			contexto.addListener(assinante);
+			assinante.iniciar(contexto, response.getOutputStream());
+		} catch (IOException | RuntimeException e) {
+			remover(assinante);
+			throw e;
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void aoAlterarLancamentos(LancamentosAlteradosEvent evento) {
+		for (Long idUsuario : evento.getUsuarios()) {
+			Set<Assinante> doUsuario = assinantes.get(idUsuario);
+			if (doUsuario != null) {
+				Set<Long> lancamentos = evento.getLancamentos(idUsuario);
+				doUsuario.forEach(assinante -> assinante.marcar(lancamentos));
+			}
+		}
+	}
+
+	public int quantidadeAssinantes(Long idUsuario) {
+		return assinantes.getOrDefault(idUsuario, Collections.emptySet()).size();
+	}
+
+	@PreDestroy
+	public void encerrar() {
+		vigia.shutdownNow();
+		executor.shutdownNow();
+		assinantes.values().forEach(doUsuario -> doUsuario.forEach(Assinante::fechar));
+	}
+
+	private void verificarEscritasParadas() {
+		long agora = System.nanoTime();
+		assinantes.values().forEach(doUsuario -> doUsuario.forEach(assinante -> {
+			if (assinante.aguardandoEscrita && agora - assinante.aguardandoDesde > timeoutEscritaNanos) {
+				LOG.debug("Conexão de notificações do usuário {} parada na escrita; encerrando.", assinante.idUsuario);
+				assinante.fechar();
+			} else if (!assinante.aguardandoEscrita && assinante.pendente()) {
+				// Retoma envios que o executor recusou quando estava cheio
+				assinante.agendarEnvio();
+			}
+		}));
+	}
+
+	private void remover(Assinante assinante) {
+		assinantes.computeIfPresent(assinante.idUsuario, (id, doUsuario) -> {
+			doUsuario.remove(assinante);
+			return doUsuario.isEmpty() ? null : doUsuario;
+		});
+	}
+
+	private boolean executar(Runnable tarefa) {
+		try {
+			executor.execute(tarefa);
+			return true;
+		} catch (RejectedExecutionException e) {
+			LOG.warn("Fila de notificações cheia; envio adiado.");
+			return false;
+		}
+	}
+
+	private byte[] evento(NotificacaoSaldoDTO notificacao) throws IOException {
+		ByteArrayOutputStream evento = new ByteArrayOutputStream();
+		evento.write("event:saldo\ndata:".getBytes(StandardCharsets.UTF_8));
+		objectMapper.writeValue(evento, notificacao);
+		evento.write("\n\n".getBytes(StandardCharsets.UTF_8));
+		return evento.toByteArray();
+	}
+
+	/**
+	 * Estado de uma conexão: os lançamentos alterados desde o último envio e se o saldo precisa ser enviado. Só a
+	 * tarefa de envio escreve na saída, e só enquanto a saída está pronta.
+	 */
+	private final class Assinante implements WriteListener, AsyncListener {
+
+		private final Long idUsuario;
+
+		private final Set<Long> pendentes = new LinkedHashSet<>();
+
+		private final AtomicBoolean enviando = new AtomicBoolean();
+
+		private boolean sujo = true;
+
+		private boolean descarregar;
+
+		private volatile boolean aguardandoEscrita;
+
+		private volatile long aguardandoDesde;
+
+		private volatile boolean fechado;
+
+		private volatile AsyncContext contexto;
+
+		private volatile ServletOutputStream saida;
+
+		private Assinante(Long idUsuario) {
+			this.idUsuario = idUsuario;
+		}
+
+		private void iniciar(AsyncContext contexto, ServletOutputStream saida) {
+			this.contexto = contexto;
+			this.saida = saida;
+			saida.setWriteListener(this);
+		}
+
+		private void marcar(Set<Long> lancamentos) {
+			boolean excedeu;
+			synchronized (this) {
+				if (fechado) {
+					return;
+				}
+				pendentes.addAll(lancamentos);
+				sujo = true;
+				excedeu = pendentes.size() > capacidadeFila;
+			}
+			if (excedeu) {
+				fechar();
+				return;
+			}
+			if (!aguardandoEscrita) {
+				agendarEnvio();
+			}
+		}
+
+		private synchronized List<Long> retirar() {
+			if (!sujo) {
+				return null;
+			}
+			sujo = false;
+			List<Long> lancamentos = new ArrayList<>(pendentes);
+			pendentes.clear();
+			return lancamentos;
+		}
+
+		private synchronized boolean pendente() {
+			return sujo;
+		}
+
+		private void agendarEnvio() {
+			if (saida != null && !fechado && enviando.compareAndSet(false, true) && !executar(this::enviar)) {
+				enviando.set(false);
+			}
+		}
+
+		private void enviar() {
+			try {
+				while (!fechado) {
+					// Marcado antes de consultar a saída: o aviso de escrita possível pode chegar a qualquer momento
+					aguardandoDesde = System.nanoTime();
+					aguardandoEscrita = true;
+					if (!saida.isReady()) {
+						return;
+					}
+					aguardandoEscrita = false;
+					if (descarregar) {
+						descarregar = false;
+						saida.flush();
+						continue;
+					}
+					List<Long> lancamentos = retirar();
+					if (lancamentos == null) {
+						return;
+					}
+					saida.write(evento(NotificacaoSaldoDTO.builder()
+							.usuario(idUsuario)
+							.saldo(lancamentoService.obterSaldoPorUsuario(idUsuario))
+							.lancamentos(lancamentos).build()));
+					descarregar = true;
+				}
+			} catch (IOException | RuntimeException e) {
+				LOG.debug("Falha ao enviar notificação ao usuário {}; encerrando a conexão.", idUsuario, e);
+				fechar();
+			} finally {
+				enviando.set(false);
+			}
+			if (!aguardandoEscrita && (descarregar || pendente())) {
+				agendarEnvio();
+			}
+		}
+
+		private void fechar() {
+			synchronized (this) {
+				if (fechado) {
+					return;
+				}
+				fechado = true;
+				pendentes.clear();
+			}
+			remover(this);
+			if (contexto != null) {
+				try {
+					contexto.complete();
+				} catch (IllegalStateException e) {
+					// Resposta já concluída pelo servidor
+				}
+			}
+		}
+
+		@Override
+		public void onWritePossible() {
+			aguardandoEscrita = false;
+			agendarEnvio();
+		}
+
+		@Override
+		public void onError(Throwable erro) {
+			fechar();
+		}
+
+		@Override
+		public void onComplete(AsyncEvent evento) {
+			fechado = true;
+			remover(this);
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent evento) {
+			fechar();
+		}
+
+		@Override
+		public void onError(AsyncEvent evento) {
+			fechar();
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent evento) {
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package br.com.estudo.fullstack.api.reativo;
+
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import br.com.estudo.fullstack.model.repository.LancamentoListagem;
+import br.com.estudo.fullstack.model.repository.LancamentoRepositoryReativo;
+import reactor.core.publisher.Mono;
+
+/**
+ * Leituras não bloqueantes para painéis: a listagem de lançamentos como NDJSON, um lançamento por linha enviado
+ * conforme o cliente consome, e o saldo do usuário. Os caminhos são os mesmos da API bloqueante, servidos pelo
+ * {@link ServidorReativo} na porta própria.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "financas.reativo.habilitado", havingValue = "true")
+public class RotasReativas {
+
+	@Bean
+	public RouterFunction<ServerResponse> rotasLeituraReativa(LancamentoRepositoryReativo repository) {
+		return RouterFunctions.route()
+				.GET("/api/lancamentos", requisicao -> listar(repository, requisicao))
+				.GET("/api/usuarios/{id}/saldo", requisicao -> obterSaldo(repository, requisicao))
+				.build();
+	}
+
+	private Mono<ServerResponse> listar(LancamentoRepositoryReativo repository, ServerRequest requisicao) {
+		Lancamento filtro = new Lancamento();
+		try {
+			filtro.setUsuario(Usuario.builder().id(Long.valueOf(requisicao.queryParam("usuario").orElse(""))).build());
+			filtro.setAno(inteiro(requisicao.queryParam("ano")));
+			filtro.setMes(inteiro(requisicao.queryParam("mes")));
+		} catch (NumberFormatException e) {
+			return ServerResponse.badRequest().bodyValue("Informe o usuário e, se desejar, ano e mês numéricos.");
+		}
+		try {
+			filtro.setTipo(requisicao.queryParam("tipo").map(TipoLancamento::valueOf).orElse(null));
+			filtro.setStatus(requisicao.queryParam("status").map(StatusLancamento::valueOf).orElse(null));
+		} catch (IllegalArgumentException e) {
+			return ServerResponse.badRequest().bodyValue("Tipo ou status de lançamento inválido.");
+		}
+		filtro.setDescricao(requisicao.queryParam("descricao").orElse(null));
+
+		return ServerResponse.ok()
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.body(repository.listar(filtro), LancamentoListagem.class);
+	}
+
+	private Mono<ServerResponse> obterSaldo(LancamentoRepositoryReativo repository, ServerRequest requisicao) {
+		Long idUsuario;
+		try {
+			idUsuario = Long.valueOf(requisicao.pathVariable("id"));
+		} catch (NumberFormatException e) {
+			return ServerResponse.badRequest().bodyValue("Usuário inválido.");
+		}
+		return repository.obterSaldo(idUsuario)
+				.flatMap(saldo -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(saldo))
+				.switchIfEmpty(ServerResponse.notFound().build());
+	}
+
+	private static Integer inteiro(Optional<String> valor) {
+		return valor.map(Integer::valueOf).orElse(null);
+	}
+}
@@ -0,0 +1,72 @@
+package br.com.estudo.fullstack.api.reativo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Servidor Netty das leituras reativas, ao lado do Tomcat que atende a API bloqueante. Poucas threads de event loop
+ * atendem todas as conexões: nenhuma fica presa a um cliente lento ou a uma consulta em andamento. Só sobe com
+ * {@code financas.reativo.habilitado=true}, junto com o pool R2DBC de {@code ReativoConfig}.
+ */
+@Component
+@ConditionalOnProperty(name = "financas.reativo.habilitado", havingValue = "true")
+public class ServidorReativo implements SmartLifecycle {
+
+	private final RouterFunction<ServerResponse> rotas;
+
+	private final ObjectMapper objectMapper;
+
+	private final int porta;
+
+	private volatile DisposableServer servidor;
+
+	public ServidorReativo(RouterFunction<ServerResponse> rotasLeituraReativa, ObjectMapper objectMapper,
+			@Value("${financas.reativo.porta:8081}") int porta) {
+		this.rotas = rotasLeituraReativa;
+		this.objectMapper = objectMapper;
+		this.porta = porta;
+	}
+
+	@Override
+	public void start() {
+		HandlerStrategies estrategias = HandlerStrategies.builder()
+				.codecs(codecs -> {
+					codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+					codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+				})
+				.build();
+		servidor = HttpServer.create()
+				.port(porta)
+				.handle(new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(rotas, estrategias)))
+				.bindNow();
+	}
+
+	@Override
+	public void stop() {
+		servidor.disposeNow();
+		servidor = null;
+	}
+
+	@Override
+	public boolean isRunning() {
+		return servidor != null;
+	}
+
+	public int getPorta() {
+		return servidor.port();
+	}
+}
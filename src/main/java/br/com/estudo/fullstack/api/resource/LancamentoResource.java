@@ -1,136 +1,560 @@
-package br.com.estudo.fullstack.api.resource;
-
-import java.util.List;
-import java.util.Optional;
-
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.DeleteMapping;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.PutMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
-
-import br.com.estudo.fullstack.api.dto.AtualizaStatusDTO;
-import br.com.estudo.fullstack.api.dto.LancamentoDTO;
-import br.com.estudo.fullstack.exception.RegraNegocioException;
-import br.com.estudo.fullstack.model.entity.Lancamento;
-import br.com.estudo.fullstack.model.entity.Usuario;
-import br.com.estudo.fullstack.model.enums.StatusLancamento;
-import br.com.estudo.fullstack.model.enums.TipoLancamento;
-import br.com.estudo.fullstack.service.LancamentoService;
-import br.com.estudo.fullstack.service.UsuarioService;
-
-@RestController
-@RequestMapping("/api/lancamentos")
-public class LancamentoResource {
-
-	private LancamentoService service;
-
-	private UsuarioService usuarioService;
-
-	private LancamentoResource(LancamentoService service, UsuarioService usuarioService) {
-		this.service = service;
-		this.usuarioService = usuarioService;
-	}
-
-	@PostMapping
-	public ResponseEntity salvar(@RequestBody LancamentoDTO dto) {
-		try {
-			Lancamento entidade = converter(dto);
-			entidade = service.salvarLancamento(entidade);
-			return new ResponseEntity(entidade, HttpStatus.CREATED);
-		} catch (RegraNegocioException e) {
-			return ResponseEntity.badRequest().body(e.getMessage());
-		}
-	}
-
-	@PutMapping("{id}")
-	public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO dto) {
-
-		return service.buscarPorId(id).map(entidade -> {
-			try {
-				Lancamento lancamento = converter(dto);
-				lancamento.setId(id);
-				service.atualizarLancamento(lancamento);
-				return new ResponseEntity(lancamento, HttpStatus.OK);
-			} catch (RegraNegocioException e) {
-				return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
-			}
-		}).orElseGet(() -> new ResponseEntity("Lançamento não encontrado na Base de Dados.", HttpStatus.BAD_REQUEST));
-	}
-
-	@PutMapping("{id}/atualiza-status")
-	public ResponseEntity atualizarStatus(@PathVariable("id") Long id,@RequestBody AtualizaStatusDTO dto) {
-		return service.buscarPorId(id).map(entidade -> {
-			StatusLancamento statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
-			
-			if (statusSelecionado == null) {
-				return new ResponseEntity("Não foi possível atualizar o status do lançamento, envie um status válido", HttpStatus.BAD_REQUEST);
-			}
-			
-			try {
-			entidade.setStatus(statusSelecionado);
-			service.atualizarLancamento(entidade);
-			return new ResponseEntity(entidade, HttpStatus.OK);
-			}catch(RegraNegocioException e){
-				return new ResponseEntity(e.getMessage(),HttpStatus.BAD_REQUEST);
-			}
-		}).orElseGet(() -> new ResponseEntity("Lançamento não encontrado na Base de Dados.", HttpStatus.BAD_REQUEST));
-	}
-
-	@DeleteMapping("{id}")
-	public ResponseEntity deletar(@PathVariable("id") Long id) {
-		return service.buscarPorId(id).map(entidade -> {
-			service.deletarLancamento(entidade);
-			return new ResponseEntity(HttpStatus.NO_CONTENT);
-		}).orElseGet(() -> new ResponseEntity("Lançamento não encontrado na Base de Dados.", HttpStatus.BAD_REQUEST));
-	}
-
-	@GetMapping
-	public ResponseEntity buscar(@RequestParam(value = "descricao", required = false) String descricao,
-			@RequestParam(value = "mes", required = false) Integer mes,
-			@RequestParam(value = "ano", required = false) Integer ano,
-			@RequestParam(value = "usuario", required = false) Long idUsuario) {
-		Lancamento lancamentoFiltro = new Lancamento();
-		lancamentoFiltro.setDescricao(descricao);
-		lancamentoFiltro.setMes(mes);
-		lancamentoFiltro.setAno(ano);
-
-		Optional<Usuario> usuario = usuarioService.buscarPorId(idUsuario);
-		if (!usuario.isPresent()) {
-			return new ResponseEntity("Usuário não encontrado com o Id informado.", HttpStatus.BAD_REQUEST);
-		} else {
-			lancamentoFiltro.setUsuario(usuario.get());
-		}
-		List<Lancamento> lancamentos = service.buscarLancamentos(lancamentoFiltro);
-		return new ResponseEntity(lancamentos, HttpStatus.OK);
-	}
-
-	public Lancamento converter(LancamentoDTO dto) {
-
-		Lancamento lancamento = new Lancamento();
-		lancamento.setId(dto.getId());
-		lancamento.setDescricao(dto.getDescricao());
-		lancamento.setMes(dto.getMes());
-		lancamento.setAno(dto.getAno());
-		lancamento.setValor(dto.getValor());
-
-		Usuario usuario = usuarioService.buscarPorId(dto.getUsuario())
-				.orElseThrow(() -> new RegraNegocioException("Usuário não encontrado com o Id informado."));
-		lancamento.setUsuario(usuario);
-
-		if (dto.getTipo() != null) {
-			lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
-		}
-		if (dto.getStatus() != null) {
-			lancamento.setStatus(StatusLancamento.valueOf(dto.getStatus()));
-		}
-
-		return lancamento;
-	}
-}
+package br.com.estudo.fullstack.api.resource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.estudo.fullstack.api.dto.AtualizaStatusDTO;
+import br.com.estudo.fullstack.api.dto.AtualizaStatusLoteDTO;
+import br.com.estudo.fullstack.api.dto.LancamentoDTO;
+import br.com.estudo.fullstack.api.dto.ListagemLancamentoDTO;
+import br.com.estudo.fullstack.api.dto.PaginaLancamentoDTO;
+import br.com.estudo.fullstack.api.idempotencia.RespostasIdempotentes;
+import br.com.estudo.fullstack.exception.ConflitoVersaoException;
+import br.com.estudo.fullstack.exception.IngestaoSobrecarregadaException;
+import br.com.estudo.fullstack.exception.RegraNegocioException;
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import br.com.estudo.fullstack.service.LancamentoService;
+import br.com.estudo.fullstack.service.UsuarioService;
+import br.com.estudo.fullstack.service.impl.IngestaoLancamentos;
+
+@RestController
+@RequestMapping("/api/lancamentos")
+public class LancamentoResource {
+
+	private LancamentoService service;
+
+	private UsuarioService usuarioService;
+
+	private ObjectMapper objectMapper;
+
+	private RespostasIdempotentes respostasIdempotentes;
+
+	private IngestaoLancamentos ingestao;
+
+	private LancamentoResource(LancamentoService service, UsuarioService usuarioService, ObjectMapper objectMapper,
+			RespostasIdempotentes respostasIdempotentes, IngestaoLancamentos ingestao) {
+		this.service = service;
+		this.usuarioService = usuarioService;
+		this.objectMapper = objectMapper;
+		this.respostasIdempotentes = respostasIdempotentes;
+		this.ingestao = ingestao;
+	}
+
+	@PostMapping
+	public ResponseEntity salvar(@RequestBody LancamentoDTO dto,
+			@RequestHeader(value = RespostasIdempotentes.CABECALHO, required = false) String chave) {
+		return respostasIdempotentes.executar("salvar", chave, dto, () -> {
+			try {
+				Lancamento entidade = converter(dto);
+				entidade = service.salvarLancamento(entidade);
+				return new ResponseEntity(entidade, HttpStatus.CREATED);
+			} catch (RegraNegocioException e) {
+				return ResponseEntity.badRequest().body(e.getMessage());
+			}
+		});
+	}
+
+	/**
+	 * Salva o lançamento junto com outros recebidos ao mesmo tempo, numa transação só; responde quando o lançamento
+	 * está gravado. Com a fila de ingestão cheia responde 503 para o cliente tentar de novo.
+	 */
+	@PostMapping("/ingestao")
+	public CompletableFuture<ResponseEntity> ingerir(@RequestBody LancamentoDTO dto) {
+		try {
+			return ingestao.enfileirar(converter(dto)).handle((salvo, erro) -> {
+				if (erro == null) {
+					return new ResponseEntity(salvo, HttpStatus.CREATED);
+				}
+				Throwable causa = erro instanceof CompletionException ? erro.getCause() : erro;
+				if (causa instanceof IngestaoSobrecarregadaException) {
+					return sobrecarga((IngestaoSobrecarregadaException) causa);
+				}
+				if (causa instanceof RegraNegocioException) {
+					return ResponseEntity.badRequest().body(causa.getMessage());
+				}
+				throw erro instanceof CompletionException ? (CompletionException) erro : new CompletionException(erro);
+			});
+		} catch (IngestaoSobrecarregadaException e) {
+			return CompletableFuture.completedFuture(sobrecarga(e));
+		} catch (RegraNegocioException e) {
+			return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(e.getMessage()));
+		}
+	}
+
+	private ResponseEntity sobrecarga(IngestaoSobrecarregadaException e) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
+	}
+
+	@PostMapping(value = "/importar", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity importar(@RequestBody List<LancamentoDTO> dtos,
+			@RequestHeader(value = RespostasIdempotentes.CABECALHO, required = false) String chave) {
+		return respostasIdempotentes.executar("importar", chave, dtos, () -> importarLancamentos(dtos));
+	}
+
+	@PostMapping(value = "/importar", consumes = "text/csv")
+	public ResponseEntity importarCsv(@RequestBody String csv,
+			@RequestHeader(value = RespostasIdempotentes.CABECALHO, required = false) String chave) {
+		return respostasIdempotentes.executar("importar", chave, csv, () -> {
+			List<LancamentoDTO> dtos;
+			try {
+				dtos = lerCsv(csv);
+			} catch (IllegalArgumentException e) {
+				return ResponseEntity.badRequest().body("Arquivo CSV inválido: " + e.getMessage());
+			}
+			return importarLancamentos(dtos);
+		});
+	}
+
+	private ResponseEntity importarLancamentos(List<LancamentoDTO> dtos) {
+		try {
+			Map<Long, Usuario> usuarios = new HashMap<>();
+			List<Lancamento> lancamentos = new ArrayList<>(dtos.size());
+			for (int i = 0; i < dtos.size(); i++) {
+				Lancamento lancamento;
+				try {
+					lancamento = converter(dtos.get(i), usuarios);
+				} catch (RegraNegocioException e) {
+					throw new RegraNegocioException("Lançamento " + (i + 1) + ": " + e.getMessage());
+				}
+				// importação só cria lançamentos: id e versão enviados não apontam para linhas existentes
+				lancamento.setId(null);
+				lancamento.setVersao(null);
+				lancamentos.add(lancamento);
+			}
+			List<Lancamento> salvos = service.importarLancamentos(lancamentos);
+			return new ResponseEntity(salvos.stream().map(Lancamento::getId).collect(Collectors.toList()), HttpStatus.CREATED);
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
+	@PutMapping("{id}")
+	public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO dto) {
+		try {
+			Lancamento lancamento = converter(dto);
+			return service.atualizarLancamento(id, lancamento)
+					.map(atualizado -> new ResponseEntity(atualizado, HttpStatus.OK))
+					.orElseGet(() -> new ResponseEntity("Lançamento não encontrado na Base de Dados.", HttpStatus.BAD_REQUEST));
+		} catch (ConflitoVersaoException e) {
+			return conflito(e);
+		} catch (RegraNegocioException e) {
+			return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+		}
+	}
+
+	@PutMapping("{id}/atualiza-status")
+	public ResponseEntity atualizarStatus(@PathVariable("id") Long id,@RequestBody AtualizaStatusDTO dto) {
+		StatusLancamento statusSelecionado;
+		try {
+			statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
+		} catch (IllegalArgumentException | NullPointerException e) {
+			return new ResponseEntity("Não foi possível atualizar o status do lançamento, envie um status válido", HttpStatus.BAD_REQUEST);
+		}
+		
+		try {
+			return service.atualizarStatus(id, statusSelecionado, dto.getVersao())
+					.map(atualizado -> new ResponseEntity(atualizado, HttpStatus.OK))
+					.orElseGet(() -> new ResponseEntity("Lançamento não encontrado na Base de Dados.", HttpStatus.BAD_REQUEST));
+		} catch (ConflitoVersaoException e) {
+			return conflito(e);
+		} catch (RegraNegocioException e) {
+			return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+		}
+	}
+
+	@PutMapping("/atualiza-status")
+	public ResponseEntity atualizarStatusEmLote(@RequestBody AtualizaStatusLoteDTO dto,
+			@RequestHeader(value = RespostasIdempotentes.CABECALHO, required = false) String chave) {
+		return respostasIdempotentes.executar("atualiza-status", chave, dto, () -> atualizarStatusEmLote(dto));
+	}
+
+	private ResponseEntity atualizarStatusEmLote(AtualizaStatusLoteDTO dto) {
+		StatusLancamento statusSelecionado;
+		StatusLancamento statusAtual;
+		try {
+			statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
+			statusAtual = dto.getStatusAtual() == null ? null : StatusLancamento.valueOf(dto.getStatusAtual());
+		} catch (IllegalArgumentException | NullPointerException e) {
+			return new ResponseEntity("Não foi possível atualizar o status dos lançamentos, envie um status válido", HttpStatus.BAD_REQUEST);
+		}
+		
+		try {
+			if (dto.getIds() != null && !dto.getIds().isEmpty()) {
+				return new ResponseEntity(service.atualizarStatusEmLote(dto.getIds(), statusSelecionado), HttpStatus.OK);
+			}
+			if (dto.getUsuario() == null || dto.getAno() == null || dto.getMes() == null || statusAtual == null) {
+				return new ResponseEntity("Informe os ids dos lançamentos ou o usuário, ano, mês e status atual.", HttpStatus.BAD_REQUEST);
+			}
+			int atualizados = service.atualizarStatusEmLote(dto.getUsuario(), dto.getAno(), dto.getMes(), statusAtual, statusSelecionado);
+			return new ResponseEntity(atualizados, HttpStatus.OK);
+		} catch (ConflitoVersaoException e) {
+			return conflito(e);
+		}
+	}
+
+	@DeleteMapping("{id}")
+	public ResponseEntity deletar(@PathVariable("id") Long id) {
+		try {
+			if (!service.deletarLancamento(id)) {
+				return new ResponseEntity("Lançamento não encontrado na Base de Dados.", HttpStatus.BAD_REQUEST);
+			}
+			return new ResponseEntity(HttpStatus.NO_CONTENT);
+		} catch (ConflitoVersaoException e) {
+			return conflito(e);
+		} catch (RegraNegocioException e) {
+			return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+		}
+	}
+
+	/**
+	 * Conflito de versão: o cliente deve recarregar o lançamento e repetir a alteração sobre a versão atual.
+	 */
+	private ResponseEntity conflito(ConflitoVersaoException e) {
+		return ResponseEntity.status(HttpStatus.CONFLICT).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
+	}
+
+	@GetMapping
+	public ResponseEntity buscar(@RequestParam(value = "descricao", required = false) String descricao,
+			@RequestParam(value = "mes", required = false) Integer mes,
+			@RequestParam(value = "ano", required = false) Integer ano,
+			@RequestParam(value = "usuario", required = false) Long idUsuario,
+			@RequestParam(value = "tipo", required = false) String tipo,
+			@RequestParam(value = "status", required = false) String status,
+			WebRequest requisicao) {
+		Lancamento lancamentoFiltro;
+		try {
+			lancamentoFiltro = criarFiltro(descricao, mes, ano, tipo, status);
+		} catch (IllegalArgumentException e) {
+			return new ResponseEntity("Tipo ou status de lançamento inválido.", HttpStatus.BAD_REQUEST);
+		}
+
+		Optional<Usuario> usuario = usuarioService.buscarPorId(idUsuario);
+		if (!usuario.isPresent()) {
+			return new ResponseEntity("Usuário não encontrado com o Id informado.", HttpStatus.BAD_REQUEST);
+		} else {
+			lancamentoFiltro.setUsuario(usuario.get());
+		}
+		
+		// a versão é lida antes da consulta, então a resposta nunca é mais antiga que a ETag enviada
+		String versao = service.obterVersaoDados(idUsuario);
+		if (requisicao.checkNotModified(versao)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(versao).cacheControl(CacheControl.noCache()).build();
+		}
+		List<Lancamento> lancamentos = service.buscarLancamentos(lancamentoFiltro);
+		return ResponseEntity.ok().eTag(versao).cacheControl(CacheControl.noCache()).body(lancamentos);
+	}
+
+	@GetMapping("/listagem")
+	public ResponseEntity listar(@RequestParam(value = "descricao", required = false) String descricao,
+			@RequestParam(value = "mes", required = false) Integer mes,
+			@RequestParam(value = "ano", required = false) Integer ano,
+			@RequestParam(value = "usuario") Long idUsuario,
+			@RequestParam(value = "tipo", required = false) String tipo,
+			@RequestParam(value = "status", required = false) String status) {
+		Lancamento lancamentoFiltro;
+		try {
+			lancamentoFiltro = criarFiltro(descricao, mes, ano, tipo, status);
+		} catch (IllegalArgumentException e) {
+			return new ResponseEntity("Tipo ou status de lançamento inválido.", HttpStatus.BAD_REQUEST);
+		}
+
+		Optional<Usuario> usuario = usuarioService.buscarPorId(idUsuario);
+		if (!usuario.isPresent()) {
+			return new ResponseEntity("Usuário não encontrado com o Id informado.", HttpStatus.BAD_REQUEST);
+		}
+		lancamentoFiltro.setUsuario(usuario.get());
+		
+		return new ResponseEntity(ListagemLancamentoDTO.builder()
+				.usuario(idUsuario)
+				.lancamentos(service.listarLancamentos(lancamentoFiltro)).build(), HttpStatus.OK);
+	}
+
+	private Lancamento criarFiltro(String descricao, Integer mes, Integer ano, String tipo, String status) {
+		Lancamento lancamentoFiltro = new Lancamento();
+		lancamentoFiltro.setDescricao(descricao);
+		lancamentoFiltro.setMes(mes);
+		lancamentoFiltro.setAno(ano);
+		if (tipo != null) {
+			lancamentoFiltro.setTipo(TipoLancamento.valueOf(tipo));
+		}
+		if (status != null) {
+			lancamentoFiltro.setStatus(StatusLancamento.valueOf(status));
+		}
+		return lancamentoFiltro;
+	}
+
+	@GetMapping("/alteracoes")
+	public ResponseEntity buscarAlteracoes(@RequestParam(value = "usuario") Long idUsuario,
+			@RequestParam(value = "versao", defaultValue = "0") long versao) {
+		return new ResponseEntity(service.buscarAlteracoes(idUsuario, versao), HttpStatus.OK);
+	}
+
+	@GetMapping("/sugestoes")
+	public ResponseEntity sugerirDescricoes(@RequestParam(value = "usuario") Long idUsuario,
+			@RequestParam(value = "termo") String termo,
+			@RequestParam(value = "limite", defaultValue = "10") int limite) {
+		List<String> sugestoes = service.sugerirDescricoes(idUsuario, termo, limite);
+		return new ResponseEntity(sugestoes, HttpStatus.OK);
+	}
+
+	@GetMapping("/pagina")
+	public ResponseEntity buscarPagina(@RequestParam(value = "usuario") Long idUsuario,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "tamanho", defaultValue = "50") int tamanho) {
+		Lancamento ultimo;
+		try {
+			ultimo = cursor == null ? null : decodificarCursor(cursor);
+		} catch (IllegalArgumentException e) {
+			return new ResponseEntity("Cursor de paginação inválido.", HttpStatus.BAD_REQUEST);
+		}
+		
+		tamanho = Math.max(1, Math.min(tamanho, LancamentoService.TAMANHO_PAGINA_MAXIMO));
+		List<Lancamento> lancamentos = service.buscarPagina(idUsuario, ultimo, tamanho);
+		String proximoCursor = lancamentos.size() < tamanho ? null : codificarCursor(lancamentos.get(lancamentos.size() - 1));
+		
+		return new ResponseEntity(PaginaLancamentoDTO.builder()
+				.lancamentos(lancamentos)
+				.proximoCursor(proximoCursor).build(), HttpStatus.OK);
+	}
+
+	@GetMapping("/exportar")
+	public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(value = "usuario") Long idUsuario,
+			@RequestParam(value = "formato", defaultValue = "ndjson") String formato) {
+		boolean csv = "csv".equalsIgnoreCase(formato);
+		
+		StreamingResponseBody corpo = saida -> {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+			if (csv) {
+				writer.write("id,descricao,ano,mes,valor,usuario,tipo,status\n");
+			}
+			service.exportarLancamentos(idUsuario, lancamento -> {
+				try {
+					writer.write(csv ? linhaCsv(lancamento) : linhaNdjson(lancamento));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			writer.flush();
+		};
+		
+		return ResponseEntity.ok()
+				.contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : new MediaType("application", "x-ndjson"))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=lancamentos." + (csv ? "csv" : "ndjson"))
+				.body(corpo);
+	}
+
+	private String linhaNdjson(Lancamento lancamento) throws IOException {
+		return objectMapper.writeValueAsString(converter(lancamento)) + "\n";
+	}
+
+	private String linhaCsv(Lancamento lancamento) {
+		LancamentoDTO dto = converter(lancamento);
+		return dto.getId() + "," + campoCsv(dto.getDescricao()) + "," + dto.getAno() + "," + dto.getMes() + "," 
+				+ dto.getValor() + "," + dto.getUsuario() + "," + dto.getTipo() + "," + dto.getStatus() + "\n";
+	}
+
+	private String campoCsv(String valor) {
+		if (valor == null) {
+			return "";
+		}
+		if (valor.contains(",") || valor.contains("\"") || valor.contains("\n") || valor.contains("\r")) {
+			return "\"" + valor.replace("\"", "\"\"") + "\"";
+		}
+		return valor;
+	}
+
+	private List<LancamentoDTO> lerCsv(String csv) {
+		List<List<String>> linhas = separarCsv(csv);
+		if (linhas.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		Map<String, Integer> colunas = new HashMap<>();
+		List<String> cabecalho = linhas.get(0);
+		for (int i = 0; i < cabecalho.size(); i++) {
+			colunas.put(cabecalho.get(i).trim().toLowerCase(), i);
+		}
+		for (String coluna : new String[] { "descricao", "ano", "mes", "valor", "usuario", "tipo" }) {
+			if (!colunas.containsKey(coluna)) {
+				throw new IllegalArgumentException("coluna " + coluna + " ausente");
+			}
+		}
+		
+		List<LancamentoDTO> dtos = new ArrayList<>(linhas.size() - 1);
+		for (List<String> linha : linhas.subList(1, linhas.size())) {
+			if (linha.size() != cabecalho.size()) {
+				throw new IllegalArgumentException("linha " + (dtos.size() + 2) + " com quantidade de colunas incorreta");
+			}
+			LancamentoDTO dto = new LancamentoDTO();
+			dto.setDescricao(linha.get(colunas.get("descricao")));
+			dto.setAno(Integer.valueOf(linha.get(colunas.get("ano")).trim()));
+			dto.setMes(Integer.valueOf(linha.get(colunas.get("mes")).trim()));
+			dto.setValor(new BigDecimal(linha.get(colunas.get("valor")).trim()));
+			dto.setUsuario(Long.valueOf(linha.get(colunas.get("usuario")).trim()));
+			dto.setTipo(linha.get(colunas.get("tipo")).trim());
+			dtos.add(dto);
+		}
+		return dtos;
+	}
+
+	private List<List<String>> separarCsv(String csv) {
+		List<List<String>> linhas = new ArrayList<>();
+		List<String> linha = new ArrayList<>();
+		StringBuilder campo = new StringBuilder();
+		boolean entreAspas = false;
+		
+		for (int i = 0; i < csv.length(); i++) {
+			char c = csv.charAt(i);
+			if (entreAspas) {
+				if (c == '"' && i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+					campo.append('"');
+					i++;
+				} else if (c == '"') {
+					entreAspas = false;
+				} else {
+					campo.append(c);
+				}
+			} else if (c == '"') {
+				entreAspas = true;
+			} else if (c == ',') {
+				linha.add(campo.toString());
+				campo.setLength(0);
+			} else if (c == '\n' || c == '\r') {
+				if (c == '\r' && i + 1 < csv.length() && csv.charAt(i + 1) == '\n') {
+					i++;
+				}
+				linha.add(campo.toString());
+				campo.setLength(0);
+				if (linha.size() > 1 || !linha.get(0).isEmpty()) {
+					linhas.add(linha);
+				}
+				linha = new ArrayList<>();
+			} else {
+				campo.append(c);
+			}
+		}
+		if (entreAspas) {
+			throw new IllegalArgumentException("aspas não fechadas");
+		}
+		linha.add(campo.toString());
+		if (linha.size() > 1 || !linha.get(0).isEmpty()) {
+			linhas.add(linha);
+		}
+		return linhas;
+	}
+
+	private String codificarCursor(Lancamento lancamento) {
+		String chave = lancamento.getAno() + ":" + lancamento.getMes() + ":" + lancamento.getId();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(chave.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private Lancamento decodificarCursor(String cursor) {
+		String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+		if (partes.length != 3) {
+			throw new IllegalArgumentException(cursor);
+		}
+		Lancamento lancamento = new Lancamento();
+		lancamento.setAno(Integer.valueOf(partes[0]));
+		lancamento.setMes(Integer.valueOf(partes[1]));
+		lancamento.setId(Long.valueOf(partes[2]));
+		return lancamento;
+	}
+
+	public LancamentoDTO converter(Lancamento lancamento) {
+		
+		LancamentoDTO dto = new LancamentoDTO();
+		dto.setId(lancamento.getId());
+		dto.setDescricao(lancamento.getDescricao());
+		dto.setMes(lancamento.getMes());
+		dto.setAno(lancamento.getAno());
+		dto.setValor(lancamento.getValor());
+		
+		if (lancamento.getUsuario() != null) {
+			dto.setUsuario(lancamento.getUsuario().getId());
+		}
+		if (lancamento.getTipo() != null) {
+			dto.setTipo(lancamento.getTipo().name());
+		}
+		if (lancamento.getStatus() != null) {
+			dto.setStatus(lancamento.getStatus().name());
+		}
+		dto.setVersao(lancamento.getVersao());
+		
+		return dto;
+	}
+
+	public Lancamento converter(LancamentoDTO dto) {
+		return converter(dto, null);
+	}
+
+	private Lancamento converter(LancamentoDTO dto, Map<Long, Usuario> usuariosConhecidos) {
+
+		Lancamento lancamento = new Lancamento();
+		lancamento.setId(dto.getId());
+		lancamento.setDescricao(dto.getDescricao());
+		lancamento.setMes(dto.getMes());
+		lancamento.setAno(dto.getAno());
+		lancamento.setValor(dto.getValor());
+		lancamento.setVersao(dto.getVersao());
+
+		Usuario usuario = usuariosConhecidos == null ? null : usuariosConhecidos.get(dto.getUsuario());
+		if (usuario == null) {
+			usuario = usuarioService.buscarPorId(dto.getUsuario())
+					.orElseThrow(() -> new RegraNegocioException("Usuário não encontrado com o Id informado."));
+			if (usuariosConhecidos != null) {
+				usuariosConhecidos.put(usuario.getId(), usuario);
+			}
+		}
+		lancamento.setUsuario(usuario);
+
+		try {
+			if (dto.getTipo() != null) {
+				lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
+			}
+			if (dto.getStatus() != null) {
+				lancamento.setStatus(StatusLancamento.valueOf(dto.getStatus()));
+			}
+		} catch (IllegalArgumentException e) {
+			throw new RegraNegocioException("Tipo ou status de lançamento inválido.");
+		}
+
+		return lancamento;
+	}
+}
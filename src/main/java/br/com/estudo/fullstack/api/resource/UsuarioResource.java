@@ -1,70 +1,148 @@
-package br.com.estudo.fullstack.api.resource;
-
-import java.math.BigDecimal;
-import java.util.Optional;
-
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
-
-import br.com.estudo.fullstack.api.dto.UsuarioDTO;
-import br.com.estudo.fullstack.exception.ErroAutenticacaoException;
-import br.com.estudo.fullstack.model.entity.Usuario;
-import br.com.estudo.fullstack.service.LancamentoService;
-import br.com.estudo.fullstack.service.UsuarioService;
-
-@RestController
-@RequestMapping("/api/usuarios")
-public class UsuarioResource {
-
-	private UsuarioService service;
-	private LancamentoService lancamentoService;
-	
-	private UsuarioResource(UsuarioService service, LancamentoService lancamentoService) {
-		this.service = service;
-		this.lancamentoService = lancamentoService;
-	}
-	@PostMapping("/autenticar")
-	public ResponseEntity autenticar(@RequestBody UsuarioDTO dto) {
-		try {
-			Usuario usuarioAutenticado = service.autenticar(dto.getEmail(), dto.getSenha());
-			return ResponseEntity.ok(usuarioAutenticado);
-		} catch (ErroAutenticacaoException e) {
-			return ResponseEntity.badRequest().body(e.getMessage());
-		}
-	}
-	
-	@PostMapping
-	public ResponseEntity salvar(@RequestBody UsuarioDTO dto) {
-		
-		Usuario usuario = Usuario.builder()
-					.nome(dto.getNome())
-					.email(dto.getEmail())
-					.senha(dto.getSenha()).build();
-		
-		try {
-			Usuario usuarioSalvo = service.salvarUsuario(usuario);
-			return new ResponseEntity(usuarioSalvo, HttpStatus.CREATED);
-		} catch (Exception e) {
-			return ResponseEntity.badRequest().body(e.getMessage());
-		}
-	}
-	
-	@GetMapping("{id}/saldo")
-	public ResponseEntity obterSaldo(@PathVariable Long id) {
-		Optional<Usuario> usuario = service.buscarPorId(id);
-		
-		if(!usuario.isPresent()) {
-			return new ResponseEntity(HttpStatus.NOT_FOUND);
-		}
-		
-		BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
-		
-		return new ResponseEntity(saldo, HttpStatus.OK);
-	}
-}
+package br.com.estudo.fullstack.api.resource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import br.com.estudo.fullstack.api.dto.ResumoMensalDTO;
+import br.com.estudo.fullstack.api.dto.UsuarioDTO;
+import br.com.estudo.fullstack.api.notificacao.CanalNotificacoesUsuario;
+import br.com.estudo.fullstack.exception.ErroAutenticacaoException;
+import br.com.estudo.fullstack.model.entity.ResumoMensal;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import br.com.estudo.fullstack.service.LancamentoService;
+import br.com.estudo.fullstack.service.UsuarioService;
+
+@RestController
+@RequestMapping("/api/usuarios")
+public class UsuarioResource {
+
+	private UsuarioService service;
+	private LancamentoService lancamentoService;
+	private CanalNotificacoesUsuario notificacoes;
+	
+	private UsuarioResource(UsuarioService service, LancamentoService lancamentoService, 
+			CanalNotificacoesUsuario notificacoes) {
+		this.service = service;
+		this.lancamentoService = lancamentoService;
+		this.notificacoes = notificacoes;
+	}
+	@PostMapping("/autenticar")
+	public ResponseEntity autenticar(@RequestBody UsuarioDTO dto) {
+		try {
+			Usuario usuarioAutenticado = service.autenticar(dto.getEmail(), dto.getSenha());
+			return ResponseEntity.ok(usuarioAutenticado);
+		} catch (ErroAutenticacaoException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+	
+	@PostMapping
+	public ResponseEntity salvar(@RequestBody UsuarioDTO dto) {
+		
+		Usuario usuario = Usuario.builder()
+					.nome(dto.getNome())
+					.email(dto.getEmail())
+					.senha(dto.getSenha()).build();
+		
+		try {
+			Usuario usuarioSalvo = service.salvarUsuario(usuario);
+			return new ResponseEntity(usuarioSalvo, HttpStatus.CREATED);
+		} catch (Exception e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+	
+	@GetMapping("{id}/saldo")
+	public ResponseEntity obterSaldo(@PathVariable Long id, WebRequest requisicao) {
+		Optional<Usuario> usuario = service.buscarPorId(id);
+		
+		if(!usuario.isPresent()) {
+			return new ResponseEntity(HttpStatus.NOT_FOUND);
+		}
+		
+		String versao = lancamentoService.obterVersaoDados(id);
+		if(requisicao.checkNotModified(versao)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(versao).cacheControl(CacheControl.noCache()).build();
+		}
+		
+		BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
+		
+		return ResponseEntity.ok().eTag(versao).cacheControl(CacheControl.noCache()).body(saldo);
+	}
+	
+	@GetMapping(value = "{id}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public void assinarEventos(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+		Optional<Usuario> usuario = service.buscarPorId(id);
+		
+		if(!usuario.isPresent()) {
+			response.sendError(HttpStatus.NOT_FOUND.value());
+			return;
+		}
+		
+		notificacoes.assinar(id, request, response);
+	}
+	
+	@GetMapping("{id}/resumo")
+	public ResponseEntity obterResumo(@PathVariable Long id,
+			@RequestParam(value = "ano", required = false) Integer ano,
+			@RequestParam(value = "status", required = false) String status) {
+		Optional<Usuario> usuario = service.buscarPorId(id);
+		
+		if(!usuario.isPresent()) {
+			return new ResponseEntity(HttpStatus.NOT_FOUND);
+		}
+		
+		StatusLancamento statusSelecionado;
+		try {
+			statusSelecionado = status == null ? StatusLancamento.EFETIVADO : StatusLancamento.valueOf(status);
+		} catch (IllegalArgumentException e) {
+			return new ResponseEntity("Não foi possível obter o resumo, envie um status válido", HttpStatus.BAD_REQUEST);
+		}
+		List<ResumoMensal> resumos = lancamentoService.obterResumoMensal(id, ano, statusSelecionado);
+		
+		return new ResponseEntity(converter(resumos), HttpStatus.OK);
+	}
+	
+	private List<ResumoMensalDTO> converter(List<ResumoMensal> resumos) {
+		Map<Integer, ResumoMensalDTO> meses = new TreeMap<>();
+		for (ResumoMensal resumo : resumos) {
+			ResumoMensalDTO dto = meses.computeIfAbsent(resumo.getAno() * 100 + resumo.getMes(), chave ->
+					ResumoMensalDTO.builder()
+						.ano(resumo.getAno())
+						.mes(resumo.getMes())
+						.receitas(BigDecimal.ZERO)
+						.despesas(BigDecimal.ZERO).build());
+			if(resumo.getTipo() == TipoLancamento.RECEITA) {
+				dto.setReceitas(dto.getReceitas().add(resumo.getTotal()));
+			} else {
+				dto.setDespesas(dto.getDespesas().add(resumo.getTotal()));
+			}
+		}
+		meses.values().forEach(dto -> dto.setSaldo(dto.getReceitas().subtract(dto.getDespesas())));
+		return new ArrayList<>(meses.values());
+	}
+}
@@ -0,0 +1,34 @@
+package br.com.estudo.fullstack.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import br.com.estudo.fullstack.metricas.ContadorConsultas;
+import br.com.estudo.fullstack.metricas.MetricasRequisicao;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Registra no Hibernate o contador de comandos e entidades por requisição e o filtro que publica essa contagem. Os
+ * tempos de serviços e repositório vêm de {@link br.com.estudo.fullstack.metricas.MetricasChamadas}; pool do Hikari,
+ * estatísticas do Hibernate e http.server.requests são publicados pelo próprio Spring Boot e expostos em
+ * /actuator/prometheus.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricasConfig {
+
+	@Bean
+	public HibernatePropertiesCustomizer contadorConsultasHibernate() {
+		ContadorConsultas contador = new ContadorConsultas();
+		return propriedades -> {
+			propriedades.put(AvailableSettings.STATEMENT_INSPECTOR, contador);
+			propriedades.put(AvailableSettings.INTERCEPTOR, contador);
+		};
+	}
+
+	@Bean
+	public MetricasRequisicao metricasRequisicao(MeterRegistry registry) {
+		return new MetricasRequisicao(registry);
+	}
+}
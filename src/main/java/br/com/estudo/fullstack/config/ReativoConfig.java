@@ -0,0 +1,53 @@
+package br.com.estudo.fullstack.config;
+
+import java.time.Duration;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+/**
+ * Conexões R2DBC da API de leitura reativa. O pool é próprio e separado do Hikari: as leituras reativas não disputam
+ * conexões com as escritas bloqueantes. O pool não é exposto como bean: um {@code ConnectionFactory} no contexto
+ * desligaria a configuração automática do DataSource, e as transações continuam todas no JPA (por isso a configuração
+ * automática de R2DBC fica desligada em {@code FullstackApplication}).
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "financas.reativo.habilitado", havingValue = "true")
+public class ReativoConfig {
+
+	private ConnectionPool pool;
+
+	@Bean
+	public DatabaseClient databaseClientReativo(
+			@Value("${financas.reativo.url:r2dbc:postgresql://localhost:5432/minhasfinancas}") String url,
+			@Value("${financas.reativo.usuario:${spring.datasource.username}}") String usuario,
+			@Value("${financas.reativo.senha:${spring.datasource.password}}") String senha,
+			@Value("${financas.reativo.maximo-conexoes:10}") int maximoConexoes) {
+		ConnectionFactoryOptions opcoes = ConnectionFactoryOptions.parse(url).mutate()
+				.option(ConnectionFactoryOptions.USER, usuario)
+				.option(ConnectionFactoryOptions.PASSWORD, senha)
+				.build();
+		pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(opcoes))
+				.maxSize(maximoConexoes)
+				.maxAcquireTime(Duration.ofSeconds(5))
+				.build());
+		return DatabaseClient.create(pool);
+	}
+
+	@PreDestroy
+	public void encerrar() {
+		if (pool != null) {
+			pool.dispose();
+		}
+	}
+}
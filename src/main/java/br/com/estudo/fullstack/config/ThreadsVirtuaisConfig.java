@@ -0,0 +1,34 @@
+package br.com.estudo.fullstack.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Atende as requisições em threads virtuais: cada requisição ganha uma thread própria e, enquanto espera o banco, não
+ * ocupa uma thread do sistema. O limite de concorrência passa a ser o pool de conexões
+ * ({@code spring.datasource.hikari.maximum-pool-size}), e quem não consegue conexão espera até o
+ * {@code connection-timeout} do pool. Respostas assíncronas (exportação e ingestão) usam o mesmo tipo de executor.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "financas.threads-virtuais.habilitadas", havingValue = "true")
+public class ThreadsVirtuaisConfig {
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> executorTomcatThreadsVirtuais() {
+		ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-virtual-", 0).factory());
+		return protocolHandler -> protocolHandler.setExecutor(executor);
+	}
+
+	@Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+	public AsyncTaskExecutor applicationTaskExecutor() {
+		return new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("async-virtual-", 0).factory()));
+	}
+}
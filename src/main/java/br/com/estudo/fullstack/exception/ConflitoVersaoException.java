@@ -0,0 +1,15 @@
+package br.com.estudo.fullstack.exception;
+
+public class ConflitoVersaoException extends RuntimeException{
+
+	private final Long versaoAtual;
+
+	public ConflitoVersaoException(String msg, Long versaoAtual) {
+		super(msg);
+		this.versaoAtual = versaoAtual;
+	}
+
+	public Long getVersaoAtual() {
+		return versaoAtual;
+	}
+}
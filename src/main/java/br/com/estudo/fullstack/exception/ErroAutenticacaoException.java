@@ -1,9 +1,9 @@
-package br.com.estudo.fullstack.exception;
-
-public class ErroAutenticacaoException extends RuntimeException {
-
-	public ErroAutenticacaoException(String msg) {
-		super(msg);
-	}
-
-}
+package br.com.estudo.fullstack.exception;
+
+public class ErroAutenticacaoException extends RuntimeException {
+
+	public ErroAutenticacaoException(String msg) {
+		super(msg);
+	}
+
+}
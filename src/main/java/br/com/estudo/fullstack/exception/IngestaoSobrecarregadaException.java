@@ -0,0 +1,8 @@
+package br.com.estudo.fullstack.exception;
+
+public class IngestaoSobrecarregadaException extends RuntimeException{
+
+	public IngestaoSobrecarregadaException(String msg) {
+		super(msg);
+	}
+}
@@ -1,8 +1,8 @@
-package br.com.estudo.fullstack.exception;
-
-public class RegraNegocioException extends RuntimeException{
-
-	public RegraNegocioException(String msg) {
-		super(msg);
-	}
-}
+package br.com.estudo.fullstack.exception;
+
+public class RegraNegocioException extends RuntimeException{
+
+	public RegraNegocioException(String msg) {
+		super(msg);
+	}
+}
@@ -0,0 +1,61 @@
+package br.com.estudo.fullstack.metricas;
+
+import java.io.Serializable;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+/**
+ * Conta os comandos SQL preparados e as entidades carregadas pelo Hibernate na thread corrente enquanto uma contagem
+ * está aberta. As estatísticas do Hibernate são globais; esta contagem separa o que cada requisição fez.
+ */
+public class ContadorConsultas extends EmptyInterceptor implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final ThreadLocal<Contagem> CONTAGEM = new ThreadLocal<>();
+
+	public static Contagem iniciar() {
+		Contagem contagem = new Contagem();
+		CONTAGEM.set(contagem);
+		return contagem;
+	}
+
+	public static void encerrar() {
+		CONTAGEM.remove();
+	}
+
+	@Override
+	public String inspect(String sql) {
+		Contagem contagem = CONTAGEM.get();
+		if (contagem != null) {
+			contagem.consultas++;
+		}
+		return sql;
+	}
+
+	@Override
+	public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		Contagem contagem = CONTAGEM.get();
+		if (contagem != null) {
+			contagem.entidadesCarregadas++;
+		}
+		return false;
+	}
+
+	public static final class Contagem {
+
+		private long consultas;
+
+		private long entidadesCarregadas;
+
+		public long getConsultas() {
+			return consultas;
+		}
+
+		public long getEntidadesCarregadas() {
+			return entidadesCarregadas;
+		}
+	}
+}
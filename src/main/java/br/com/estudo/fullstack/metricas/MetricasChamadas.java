@@ -0,0 +1,88 @@
+package br.com.estudo.fullstack.metricas;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Tempo e quantidade de chamadas de cada método dos serviços e do repositório de lançamentos, por resultado: sucesso
+ * ou o nome da exceção lançada (RegraNegocioException, ConflitoVersaoException...). Fica por fora da transação, então
+ * o tempo inclui o commit e uma falha no commit aparece como resultado. Métodos de serviço que devolvem coleções
+ * também registram o tamanho do resultado.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricasChamadas {
+
+	static final String SUCESSO = "sucesso";
+
+	private final MeterRegistry registry;
+
+	private final Map<Method, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+
+	private final Map<Method, DistributionSummary> resultados = new ConcurrentHashMap<>();
+
+	public MetricasChamadas(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Around("execution(public * br.com.estudo.fullstack.service.LancamentoService+.*(..))")
+	public Object medirLancamentoService(ProceedingJoinPoint chamada) throws Throwable {
+		return medir("financas.servico", "servico", "LancamentoService", chamada);
+	}
+
+	@Around("execution(public * br.com.estudo.fullstack.service.UsuarioService+.*(..))")
+	public Object medirUsuarioService(ProceedingJoinPoint chamada) throws Throwable {
+		return medir("financas.servico", "servico", "UsuarioService", chamada);
+	}
+
+	@Around("execution(public * br.com.estudo.fullstack.model.repository.LancamentoRepository+.*(..))")
+	public Object medirLancamentoRepository(ProceedingJoinPoint chamada) throws Throwable {
+		return medir("financas.repositorio", "repositorio", "LancamentoRepository", chamada);
+	}
+
+	private Object medir(String nome, String tipo, String componente, ProceedingJoinPoint chamada) throws Throwable {
+		Method metodo = ((MethodSignature) chamada.getSignature()).getMethod();
+		long inicio = registry.config().clock().monotonicTime();
+		String resultado = SUCESSO;
+		try {
+			Object retorno = chamada.proceed();
+			if (retorno instanceof Collection && nome.equals("financas.servico")) {
+				resultados.computeIfAbsent(metodo, m -> DistributionSummary.builder("financas.servico.resultados")
+						.description("Quantidade de itens devolvidos pelos métodos de serviço que devolvem listas")
+						.tag(tipo, componente).tag("metodo", m.getName())
+						.register(registry)).record(((Collection<?>) retorno).size());
+			}
+			return retorno;
+		} catch (Throwable e) {
+			resultado = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			timer(nome, tipo, componente, metodo, resultado)
+					.record(registry.config().clock().monotonicTime() - inicio, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private Timer timer(String nome, String tipo, String componente, Method metodo, String resultado) {
+		return timers.computeIfAbsent(metodo, m -> new ConcurrentHashMap<>())
+				.computeIfAbsent(resultado, r -> Timer.builder(nome)
+						.description("Chamadas por método e resultado")
+						.tag(tipo, componente).tag("metodo", metodo.getName()).tag("resultado", r)
+						.register(registry));
+	}
+}
@@ -0,0 +1,48 @@
+package br.com.estudo.fullstack.metricas;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Comandos SQL e entidades carregadas por requisição, com as mesmas tags de método e uri do http.server.requests. Só
+ * conta o que roda na thread da requisição; o trabalho das respostas assíncronas fica de fora.
+ */
+public class MetricasRequisicao extends OncePerRequestFilter {
+
+	private final MeterRegistry registry;
+
+	public MetricasRequisicao(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		ContadorConsultas.Contagem contagem = ContadorConsultas.iniciar();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			ContadorConsultas.encerrar();
+			Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			String uri = padrao == null ? "UNKNOWN" : padrao.toString();
+			DistributionSummary.builder("financas.http.consultas")
+					.description("Comandos SQL executados por requisição")
+					.tag("method", request.getMethod()).tag("uri", uri)
+					.register(registry).record(contagem.getConsultas());
+			DistributionSummary.builder("financas.http.entidades.carregadas")
+					.description("Entidades carregadas pelo Hibernate por requisição")
+					.tag("method", request.getMethod()).tag("uri", uri)
+					.register(registry).record(contagem.getEntidadesCarregadas());
+		}
+	}
+}
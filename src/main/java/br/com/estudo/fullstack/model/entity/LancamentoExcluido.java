@@ -0,0 +1,42 @@
+package br.com.estudo.fullstack.model.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Registro de um lançamento que deixou de pertencer ao usuário, por exclusão ou troca de usuário, para que clientes
+ * sincronizados a partir de uma versão anterior removam a cópia local.
+ */
+@Entity
+@Table(name = "lancamento_excluido", schema = "financas", indexes = {
+		@Index(name = "idx_lancamento_excluido_usuario_versao", columnList = "id_usuario, versao_alteracao") })
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LancamentoExcluido {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "id")
+	private Long id;
+
+	@Column(name = "id_lancamento")
+	private Long idLancamento;
+
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+
+	@Column(name = "versao_alteracao")
+	private Long versaoAlteracao;
+}
@@ -0,0 +1,60 @@
+package br.com.estudo.fullstack.model.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.springframework.data.domain.Persistable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resposta de uma requisição enviada com Idempotency-Key, guardada para que a repetição da mesma requisição devolva
+ * a resposta original em vez de gravar de novo. Guarda só o resumo da requisição, o status e o corpo em JSON.
+ */
+@Entity
+@Table(name = "resposta_idempotente", schema = "financas", indexes = {
+		@Index(name = "idx_resposta_idempotente_criacao", columnList = "criacao") })
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RespostaIdempotente implements Persistable<String> {
+
+	@Id
+	@Column(name = "chave")
+	private String chave;
+
+	@Column(name = "resumo_requisicao")
+	private String resumoRequisicao;
+
+	@Column(name = "status")
+	private Integer status;
+
+	@Column(name = "corpo", columnDefinition = "text")
+	private String corpo;
+
+	@Column(name = "criacao")
+	private LocalDateTime criacao;
+
+	@Override
+	public String getId() {
+		return chave;
+	}
+
+	/**
+	 * Respostas só são inseridas, nunca alteradas: o save sempre faz insert, e uma chave já gravada por outra
+	 * requisição resulta em violação da chave primária em vez de sobrescrever a resposta original.
+	 */
+	@Override
+	public boolean isNew() {
+		return true;
+	}
+}
@@ -0,0 +1,63 @@
+package br.com.estudo.fullstack.model.entity;
+
+import java.math.BigDecimal;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "resumo_mensal", schema = "financas", uniqueConstraints = 
+		@UniqueConstraint(name = "uk_resumo_mensal", columnNames = { "id_usuario", "ano", "mes", "tipo", "status" }))
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoMensal {
+
+	@Id
+	@Column(name = "id")
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+
+	@Column(name = "ano")
+	private Integer ano;
+
+	@Column(name = "mes")
+	private Integer mes;
+
+	@Column(name = "tipo")
+	@Enumerated(value = EnumType.STRING)
+	private TipoLancamento tipo;
+
+	@Column(name = "status")
+	@Enumerated(value = EnumType.STRING)
+	private StatusLancamento status;
+
+	@Column(name = "total")
+	private BigDecimal total;
+
+	@Column(name = "quantidade")
+	private Long quantidade;
+
+	public ResumoMensal(Long idUsuario, Integer ano, Integer mes, TipoLancamento tipo, StatusLancamento status,
+			BigDecimal total, Long quantidade) {
+		this(null, idUsuario, ano, mes, tipo, status, total, quantidade);
+	}
+}
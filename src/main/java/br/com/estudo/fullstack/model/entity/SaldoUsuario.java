@@ -0,0 +1,33 @@
+package br.com.estudo.fullstack.model.entity;
+
+import java.math.BigDecimal;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Saldo efetivado de cada usuário, mantido incrementalmente pelas operações de escrita de
+ * lançamentos para que a consulta de saldo seja uma leitura por chave primária.
+ */
+@Entity
+@Table(name = "saldo_usuario", schema = "financas")
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoUsuario {
+
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+
+	@Column(name = "saldo")
+	private BigDecimal saldo;
+}
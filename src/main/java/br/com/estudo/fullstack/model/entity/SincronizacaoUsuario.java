@@ -0,0 +1,47 @@
+package br.com.estudo.fullstack.model.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.springframework.data.domain.Persistable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Última versão de alteração atribuída aos lançamentos de cada usuário. A linha fica travada da reserva da versão
+ * até o commit, então as versões de um usuário se tornam visíveis na mesma ordem em que foram atribuídas.
+ */
+@Entity
+@Table(name = "sincronizacao_usuario", schema = "financas")
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SincronizacaoUsuario implements Persistable<Long> {
+
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+
+	@Column(name = "versao")
+	private Long versao;
+
+	@Override
+	public Long getId() {
+		return idUsuario;
+	}
+
+	/**
+	 * A versão só muda pelo incremento no repositório: o save sempre faz insert, e uma linha criada por outra escrita
+	 * resulta em violação da chave primária em vez de voltar a versão dela para o valor inicial.
+	 */
+	@Override
+	public boolean isNew() {
+		return true;
+	}
+}
@@ -1,8 +1,8 @@
-package br.com.estudo.fullstack.model.enums;
-
-public enum StatusLancamento {
-	
-	PENDENTE,
-	CANCELADO,
-	EFETIVADO
-}
+package br.com.estudo.fullstack.model.enums;
+
+public enum StatusLancamento {
+	
+	PENDENTE,
+	CANCELADO,
+	EFETIVADO
+}
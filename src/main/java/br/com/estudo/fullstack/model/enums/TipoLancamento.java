@@ -1,7 +1,7 @@
-package br.com.estudo.fullstack.model.enums;
-
-public enum TipoLancamento {
-
-	RECEITA,
-	DESPESA
-}
+package br.com.estudo.fullstack.model.enums;
+
+public enum TipoLancamento {
+
+	RECEITA,
+	DESPESA
+}
@@ -0,0 +1,53 @@
+package br.com.estudo.fullstack.model.repository;
+
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+
+/**
+ * Regra única de comparação das buscas por descrição: sem diferenciar maiúsculas nem acentos. O índice em memória
+ * compara os textos já normalizados; as consultas SQL aplicam à coluna a mesma troca com translate, que cobre as
+ * letras acentuadas do português e está disponível no H2 e no PostgreSQL.
+ */
+public final class BuscaDescricao {
+
+	private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+	private static final String COM_ACENTO = "áàâãäéèêëíìîïóòôõöúùûüçñ";
+
+	private static final String SEM_ACENTO = "aaaaaeeeeiiiiooooouuuucn";
+
+	/**
+	 * Descrição normalizada para uso direto em SQL; compare com um termo passado por {@link #normalizar(String)}.
+	 */
+	public static final String COLUNA_SQL = "translate(lower(descricao), '" + COM_ACENTO + "', '" + SEM_ACENTO + "')";
+
+	private BuscaDescricao() {
+	}
+
+	public static String normalizar(String texto) {
+		if (texto == null) {
+			return "";
+		}
+		String semAcentos = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+		return semAcentos.toLowerCase().trim();
+	}
+
+	/**
+	 * Padrão de like que encontra o termo em qualquer posição, com \ como escape: % e _ digitados são literais.
+	 */
+	public static String padrao(String termo) {
+		return "%" + escaparCuringas(normalizar(termo)) + "%";
+	}
+
+	public static Expression<String> normalizar(CriteriaBuilder cb, Expression<String> descricao) {
+		return cb.function("translate", String.class, cb.lower(descricao), cb.literal(COM_ACENTO),
+				cb.literal(SEM_ACENTO));
+	}
+
+	private static String escaparCuringas(String valor) {
+		return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+}
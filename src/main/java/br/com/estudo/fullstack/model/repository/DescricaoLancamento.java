@@ -0,0 +1,8 @@
+package br.com.estudo.fullstack.model.repository;
+
+public interface DescricaoLancamento {
+
+	Long getId();
+
+	String getDescricao();
+}
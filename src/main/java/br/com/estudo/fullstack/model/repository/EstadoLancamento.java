@@ -0,0 +1,29 @@
+package br.com.estudo.fullstack.model.repository;
+
+import java.math.BigDecimal;
+
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+
+public interface EstadoLancamento {
+
+	Long getId();
+
+	Long getIdUsuario();
+
+	String getDescricao();
+
+	Integer getAno();
+
+	Integer getMes();
+
+	BigDecimal getValor();
+
+	TipoLancamento getTipo();
+
+	StatusLancamento getStatus();
+
+	Long getVersaoAlteracao();
+
+	Long getVersao();
+}
@@ -0,0 +1,19 @@
+package br.com.estudo.fullstack.model.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.com.estudo.fullstack.model.entity.LancamentoExcluido;
+
+public interface LancamentoExcluidoRepository extends JpaRepository<LancamentoExcluido, Long> {
+
+	@Query( value = 
+			  " select e.idLancamento from LancamentoExcluido e "
+			+ " where e.idUsuario = :idUsuario and e.versaoAlteracao > :versao order by e.versaoAlteracao " )
+	List<Long> buscarIdsExcluidosDesde(
+			@Param("idUsuario") Long idUsuario,
+			@Param("versao") Long versao);
+}
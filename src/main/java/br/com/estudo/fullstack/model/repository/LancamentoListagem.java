@@ -0,0 +1,24 @@
+package br.com.estudo.fullstack.model.repository;
+
+import java.math.BigDecimal;
+
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Colunas exibidas na listagem de lançamentos. Não é entidade gerenciada e não carrega o usuário.
+ */
+@Getter
+@AllArgsConstructor
+public class LancamentoListagem {
+
+	private final Long id;
+	private final String descricao;
+	private final Integer ano;
+	private final Integer mes;
+	private final BigDecimal valor;
+	private final TipoLancamento tipo;
+	private final StatusLancamento status;
+}
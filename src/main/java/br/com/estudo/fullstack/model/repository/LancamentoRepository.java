@@ -1,22 +1,149 @@
-package br.com.estudo.fullstack.model.repository;
-
-import java.math.BigDecimal;
-
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
-
-import br.com.estudo.fullstack.model.entity.Lancamento;
-import br.com.estudo.fullstack.model.enums.StatusLancamento;
-import br.com.estudo.fullstack.model.enums.TipoLancamento;
-
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
-
-	@Query( value = 
-			  " select sum(l.valor) from Lancamento l join l.usuario u "
-			+ " where u.id = :idUsuario and l.tipo =:tipo and l.status = :status group by u " )
-	BigDecimal obterSaldoPorTipoLancamentoEUsuarioEStatus(
-			@Param("idUsuario") Long idUsuario, 
-			@Param("tipo") TipoLancamento tipo,
-			@Param("status") StatusLancamento status);
-}
+package br.com.estudo.fullstack.model.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.ResumoMensal;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, JpaSpecificationExecutor<Lancamento>,
+		LancamentoRepositoryCustom {
+
+	@Query( value = 
+			  " select sum(l.valor) from Lancamento l join l.usuario u "
+			+ " where u.id = :idUsuario and l.tipo =:tipo and l.status = :status group by u " )
+	BigDecimal obterSaldoPorTipoLancamentoEUsuarioEStatus(
+			@Param("idUsuario") Long idUsuario, 
+			@Param("tipo") TipoLancamento tipo,
+			@Param("status") StatusLancamento status);
+
+	@Query( value = 
+			  " select coalesce(sum(case when l.tipo = :receita then l.valor else -l.valor end), 0) "
+			+ " from Lancamento l where l.usuario.id = :idUsuario and l.status = :status " )
+	BigDecimal obterSaldoPorUsuarioEStatus(
+			@Param("idUsuario") Long idUsuario,
+			@Param("receita") TipoLancamento receita,
+			@Param("status") StatusLancamento status);
+
+	@Query( value = 
+			  " select coalesce(sum(l.valor), 0) as total, count(l) as quantidade from Lancamento l "
+			+ " where l.usuario.id = :idUsuario and l.ano = :ano and l.mes = :mes and l.tipo = :tipo and l.status = :status " )
+	TotalLancamentos obterTotalPorUsuarioEMes(
+			@Param("idUsuario") Long idUsuario,
+			@Param("ano") Integer ano,
+			@Param("mes") Integer mes,
+			@Param("tipo") TipoLancamento tipo,
+			@Param("status") StatusLancamento status);
+
+	@Query( value = 
+			  " select new br.com.estudo.fullstack.model.entity.ResumoMensal(l.usuario.id, l.ano, l.mes, l.tipo, l.status, sum(l.valor), count(l)) "
+			+ " from Lancamento l where l.usuario.id = :idUsuario group by l.usuario.id, l.ano, l.mes, l.tipo, l.status " )
+	List<ResumoMensal> calcularResumoMensalPorUsuario(@Param("idUsuario") Long idUsuario);
+
+	/**
+	 * Lançamentos do usuário após a posição (ano, mes, id). A subconsulta só lê o índice (id_usuario, ano, mes, id) a
+	 * partir da posição: no PostgreSQL a comparação de linha é o início da faixa lida; o H2 não usa comparação de linha
+	 * no índice, e para ele o prefixo ano >= :ano evita percorrer os anos anteriores. As linhas completas são lidas
+	 * depois, pela chave, só para os ids da página.
+	 */
+	String PAGINA_POR_USUARIO = 
+			  " select l.* from financas.lancamento l where l.id in ( "
+			+ "   select p.id from financas.lancamento p where p.id_usuario = :idUsuario "
+			+ "   and p.ano >= :ano and (p.ano, p.mes, p.id) > (:ano, :mes, :id) "
+			+ "   order by p.ano, p.mes, p.id limit :tamanho ) "
+			+ " order by l.ano, l.mes, l.id ";
+
+	@Query( value = PAGINA_POR_USUARIO, nativeQuery = true )
+	List<Lancamento> buscarPaginaPorUsuario(
+			@Param("idUsuario") Long idUsuario,
+			@Param("ano") Integer ano,
+			@Param("mes") Integer mes,
+			@Param("id") Long id,
+			@Param("tamanho") int tamanho);
+
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true") })
+	@Query( value = " select l from Lancamento l where l.usuario.id = :idUsuario order by l.ano, l.mes, l.id " )
+	Stream<Lancamento> buscarTodosPorUsuario(@Param("idUsuario") Long idUsuario);
+
+	@Query( value = 
+			  " select l.id from Lancamento l "
+			+ " where l.usuario.id = :idUsuario and l.ano = :ano and l.mes = :mes and l.status = :status " )
+	List<Long> buscarIdsPorUsuarioEMesEStatus(
+			@Param("idUsuario") Long idUsuario,
+			@Param("ano") Integer ano,
+			@Param("mes") Integer mes,
+			@Param("status") StatusLancamento status);
+
+	@Query( value = " select distinct l.usuario.id from Lancamento l where l.id in :ids " )
+	List<Long> buscarUsuariosPorIds(@Param("ids") List<Long> ids);
+
+	@Query( value = 
+			  " select new br.com.estudo.fullstack.model.entity.ResumoMensal(l.usuario.id, l.ano, l.mes, l.tipo, l.status, sum(l.valor), count(l)) "
+			+ " from Lancamento l where l.id in :ids and l.status <> :status group by l.usuario.id, l.ano, l.mes, l.tipo, l.status " )
+	List<ResumoMensal> calcularResumoPorIdsComStatusDiferente(
+			@Param("ids") List<Long> ids,
+			@Param("status") StatusLancamento status);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query( value = 
+			  " update Lancamento l set l.status = :status, l.versaoAlteracao = :versao, l.versao = coalesce(l.versao, 0) + 1 "
+			+ " where l.id in :ids and l.usuario.id = :idUsuario and l.status <> :status " )
+	int atualizarStatusPorIdsEUsuario(
+			@Param("ids") List<Long> ids,
+			@Param("idUsuario") Long idUsuario,
+			@Param("status") StatusLancamento status,
+			@Param("versao") Long versao);
+
+	@Query( value = 
+			  " select l.id as id, l.usuario.id as idUsuario, l.descricao as descricao, l.ano as ano, l.mes as mes, "
+			+ " l.valor as valor, l.tipo as tipo, l.status as status, l.versaoAlteracao as versaoAlteracao, l.versao as versao "
+			+ " from Lancamento l where l.id = :id " )
+	Optional<EstadoLancamento> buscarEstadoPorId(@Param("id") Long id);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query( value = 
+			  " update Lancamento l set l.descricao = :#{#lancamento.descricao}, l.ano = :#{#lancamento.ano}, "
+			+ " l.mes = :#{#lancamento.mes}, l.valor = :#{#lancamento.valor}, l.usuario = :#{#lancamento.usuario}, "
+			+ " l.tipo = :#{#lancamento.tipo}, l.status = :#{#lancamento.status}, "
+			+ " l.versaoAlteracao = :#{#lancamento.versaoAlteracao}, l.versao = :#{#lancamento.versao} "
+			+ " where l.id = :#{#lancamento.id} and coalesce(l.versao, 0L) = :versaoLida " )
+	int atualizarPorIdEVersao(
+			@Param("lancamento") Lancamento lancamento,
+			@Param("versaoLida") Long versaoLida);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query( value = " delete from Lancamento l where l.id = :id and coalesce(l.versao, 0L) = :versaoLida " )
+	int deletarPorIdEVersao(
+			@Param("id") Long id,
+			@Param("versaoLida") Long versaoLida);
+
+	@Query( value = " select l.id from Lancamento l where l.id in :ids and l.usuario.id = :idUsuario " )
+	List<Long> buscarIdsPorIdsEUsuario(
+			@Param("ids") List<Long> ids,
+			@Param("idUsuario") Long idUsuario);
+
+	@Query( value = 
+			  " select new br.com.estudo.fullstack.model.repository.LancamentoListagem(l.id, l.descricao, l.ano, l.mes, l.valor, l.tipo, l.status) "
+			+ " from Lancamento l where l.usuario.id = :idUsuario and l.versaoAlteracao > :versao order by l.versaoAlteracao, l.id " )
+	List<LancamentoListagem> buscarAlteradosDesde(
+			@Param("idUsuario") Long idUsuario,
+			@Param("versao") Long versao);
+
+	@Query( value = " select l.id as id, l.descricao as descricao from Lancamento l where l.usuario.id = :idUsuario " )
+	List<DescricaoLancamento> buscarDescricoesPorUsuario(@Param("idUsuario") Long idUsuario);
+}
@@ -0,0 +1,13 @@
+package br.com.estudo.fullstack.model.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+
+public interface LancamentoRepositoryCustom {
+
+	List<LancamentoListagem> listar(Specification<Lancamento> especificacao, Sort ordenacao);
+}
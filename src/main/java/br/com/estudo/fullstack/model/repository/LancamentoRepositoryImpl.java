@@ -0,0 +1,38 @@
+package br.com.estudo.fullstack.model.repository;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+
+public class LancamentoRepositoryImpl implements LancamentoRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Seleciona somente as colunas da listagem, sem instanciar entidades nem buscar o usuário associado.
+	 */
+	@Override
+	public List<LancamentoListagem> listar(Specification<Lancamento> especificacao, Sort ordenacao) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<LancamentoListagem> query = cb.createQuery(LancamentoListagem.class);
+		Root<Lancamento> root = query.from(Lancamento.class);
+		
+		query.select(cb.construct(LancamentoListagem.class, root.get("id"), root.get("descricao"), root.get("ano"), 
+				root.get("mes"), root.get("valor"), root.get("tipo"), root.get("status")));
+		query.where(especificacao.toPredicate(root, query, cb));
+		query.orderBy(QueryUtils.toOrders(ordenacao, root, cb));
+		
+		return entityManager.createQuery(query).getResultList();
+	}
+}
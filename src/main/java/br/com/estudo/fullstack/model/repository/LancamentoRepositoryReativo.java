@@ -0,0 +1,114 @@
+package br.com.estudo.fullstack.model.repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Consultas de leitura sobre R2DBC, com os mesmos filtros, ordem e regra de saldo das consultas JPA. As linhas são
+ * buscadas do banco em blocos de {@link #LINHAS_POR_BUSCA} conforme o assinante pede, então um cliente lento segura o
+ * cursor em vez de acumular a listagem em memória.
+ */
+@Repository
+@ConditionalOnProperty(name = "financas.reativo.habilitado", havingValue = "true")
+public class LancamentoRepositoryReativo {
+
+	static final int LINHAS_POR_BUSCA = 250;
+
+	private final DatabaseClient databaseClient;
+
+	public LancamentoRepositoryReativo(DatabaseClient databaseClientReativo) {
+		this.databaseClient = databaseClientReativo;
+	}
+
+	/**
+	 * Lista os lançamentos do usuário do filtro, aplicando só os campos preenchidos.
+	 */
+	public Flux<LancamentoListagem> listar(Lancamento filtro) {
+		StringBuilder sql = new StringBuilder(
+				" select id, descricao, ano, mes, valor, tipo, status from financas.lancamento where id_usuario = :usuario ");
+		if (filtro.getAno() != null) {
+			sql.append(" and ano = :ano ");
+		}
+		if (filtro.getMes() != null) {
+			sql.append(" and mes = :mes ");
+		}
+		if (filtro.getTipo() != null) {
+			sql.append(" and tipo = :tipo ");
+		}
+		if (filtro.getStatus() != null) {
+			sql.append(" and status = :status ");
+		}
+		boolean porDescricao = filtro.getDescricao() != null && !filtro.getDescricao().trim().isEmpty();
+		if (porDescricao) {
+			sql.append(" and ").append(BuscaDescricao.COLUNA_SQL).append(" like :descricao escape '\\' ");
+		}
+		sql.append(" order by ano, mes, id ");
+
+		GenericExecuteSpec consulta = databaseClient.sql(sql.toString())
+				.filter((statement, execucao) -> execucao.execute(statement.fetchSize(LINHAS_POR_BUSCA)))
+				.bind("usuario", filtro.getUsuario().getId());
+		if (filtro.getAno() != null) {
+			consulta = consulta.bind("ano", filtro.getAno());
+		}
+		if (filtro.getMes() != null) {
+			consulta = consulta.bind("mes", filtro.getMes());
+		}
+		if (filtro.getTipo() != null) {
+			consulta = consulta.bind("tipo", filtro.getTipo().name());
+		}
+		if (filtro.getStatus() != null) {
+			consulta = consulta.bind("status", filtro.getStatus().name());
+		}
+		if (porDescricao) {
+			consulta = consulta.bind("descricao", BuscaDescricao.padrao(filtro.getDescricao()));
+		}
+		return consulta.map((linha, metadados) -> listagem(linha)).all();
+	}
+
+	/**
+	 * Saldo mantido do usuário; sem saldo mantido, soma os lançamentos efetivados. Vazio se o usuário não existe.
+	 */
+	public Mono<BigDecimal> obterSaldo(Long idUsuario) {
+		return databaseClient.sql(
+				  " select s.saldo from financas.usuario u left join financas.saldo_usuario s on s.id_usuario = u.id "
+				+ " where u.id = :usuario ")
+				.bind("usuario", idUsuario)
+				.map((linha, metadados) -> Optional.ofNullable(linha.get("saldo", BigDecimal.class)))
+				.first()
+				.flatMap(saldo -> saldo.map(Mono::just).orElseGet(() -> somarEfetivados(idUsuario)));
+	}
+
+	private Mono<BigDecimal> somarEfetivados(Long idUsuario) {
+		return databaseClient.sql(
+				  " select coalesce(sum(case when tipo = :receita then valor else -valor end), 0) as saldo "
+				+ " from financas.lancamento where id_usuario = :usuario and status = :status ")
+				.bind("receita", TipoLancamento.RECEITA.name())
+				.bind("usuario", idUsuario)
+				.bind("status", StatusLancamento.EFETIVADO.name())
+				.map((linha, metadados) -> linha.get("saldo", BigDecimal.class))
+				.first();
+	}
+
+	private static LancamentoListagem listagem(Row linha) {
+		return new LancamentoListagem(
+				linha.get("id", Long.class),
+				linha.get("descricao", String.class),
+				linha.get("ano", Integer.class),
+				linha.get("mes", Integer.class),
+				linha.get("valor", BigDecimal.class),
+				TipoLancamento.valueOf(linha.get("tipo", String.class)),
+				StatusLancamento.valueOf(linha.get("status", String.class)));
+	}
+}
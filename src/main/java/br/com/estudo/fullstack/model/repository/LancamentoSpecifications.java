@@ -0,0 +1,60 @@
+package br.com.estudo.fullstack.model.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.criteria.Predicate;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+
+public final class LancamentoSpecifications {
+
+	private LancamentoSpecifications() {
+	}
+
+	/**
+	 * Monta apenas os predicados dos campos preenchidos no filtro. Usuário, ano, mês, tipo e status viram
+	 * comparações de igualdade atendidas pelos índices de lançamento; a descrição, quando informada, é o único
+	 * filtro por conteúdo e é avaliada sobre as linhas já restringidas pelos demais.
+	 */
+	public static Specification<Lancamento> filtro(Lancamento filtro) {
+		return filtro(filtro, null);
+	}
+
+	/**
+	 * Variante em que a busca por descrição já foi resolvida para um conjunto de ids, substituindo o filtro por
+	 * conteúdo por uma restrição na chave primária.
+	 */
+	public static Specification<Lancamento> filtro(Lancamento filtro, Collection<Long> idsPorDescricao) {
+		return (root, query, cb) -> {
+			List<Predicate> predicados = new ArrayList<>();
+			
+			if (filtro.getUsuario() != null && filtro.getUsuario().getId() != null) {
+				predicados.add(cb.equal(root.get("usuario").get("id"), filtro.getUsuario().getId()));
+			}
+			if (filtro.getAno() != null) {
+				predicados.add(cb.equal(root.get("ano"), filtro.getAno()));
+			}
+			if (filtro.getMes() != null) {
+				predicados.add(cb.equal(root.get("mes"), filtro.getMes()));
+			}
+			if (filtro.getTipo() != null) {
+				predicados.add(cb.equal(root.get("tipo"), filtro.getTipo()));
+			}
+			if (filtro.getStatus() != null) {
+				predicados.add(cb.equal(root.get("status"), filtro.getStatus()));
+			}
+			if (idsPorDescricao != null) {
+				predicados.add(root.get("id").in(idsPorDescricao));
+			} else if (filtro.getDescricao() != null && !filtro.getDescricao().trim().isEmpty()) {
+				predicados.add(cb.like(BuscaDescricao.normalizar(cb, root.get("descricao")),
+						BuscaDescricao.padrao(filtro.getDescricao()), '\\'));
+			}
+			
+			return cb.and(predicados.toArray(new Predicate[0]));
+		};
+	}
+}
@@ -0,0 +1,17 @@
+package br.com.estudo.fullstack.model.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.com.estudo.fullstack.model.entity.RespostaIdempotente;
+
+public interface RespostaIdempotenteRepository extends JpaRepository<RespostaIdempotente, String> {
+
+	@Modifying
+	@Query( value = " delete from RespostaIdempotente r where r.criacao < :limite " )
+	int deletarCriadasAntesDe(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,37 @@
+package br.com.estudo.fullstack.model.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.com.estudo.fullstack.model.entity.ResumoMensal;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+
+public interface ResumoMensalRepository extends JpaRepository<ResumoMensal, Long> {
+
+	@Modifying(flushAutomatically = true)
+	@Query( value = 
+			  " update ResumoMensal r set r.total = r.total + :valor, r.quantidade = r.quantidade + :quantidade "
+			+ " where r.idUsuario = :idUsuario and r.ano = :ano and r.mes = :mes and r.tipo = :tipo and r.status = :status " )
+	int adicionarAoResumo(
+			@Param("idUsuario") Long idUsuario,
+			@Param("ano") Integer ano,
+			@Param("mes") Integer mes,
+			@Param("tipo") TipoLancamento tipo,
+			@Param("status") StatusLancamento status,
+			@Param("valor") BigDecimal valor,
+			@Param("quantidade") Long quantidade);
+
+	List<ResumoMensal> findByIdUsuarioAndStatusOrderByAnoAscMesAsc(Long idUsuario, StatusLancamento status);
+
+	List<ResumoMensal> findByIdUsuarioAndAnoAndStatusOrderByMesAsc(Long idUsuario, Integer ano, StatusLancamento status);
+
+	@Modifying(flushAutomatically = true)
+	@Query( value = " delete from ResumoMensal r where r.idUsuario = :idUsuario " )
+	int deletarPorUsuario(@Param("idUsuario") Long idUsuario);
+}
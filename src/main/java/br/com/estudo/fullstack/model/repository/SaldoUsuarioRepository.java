@@ -0,0 +1,19 @@
+package br.com.estudo.fullstack.model.repository;
+
+import java.math.BigDecimal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.com.estudo.fullstack.model.entity.SaldoUsuario;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long> {
+
+	@Modifying(flushAutomatically = true)
+	@Query( value = " update SaldoUsuario s set s.saldo = s.saldo + :delta where s.idUsuario = :idUsuario " )
+	int adicionarAoSaldo(
+			@Param("idUsuario") Long idUsuario,
+			@Param("delta") BigDecimal delta);
+}
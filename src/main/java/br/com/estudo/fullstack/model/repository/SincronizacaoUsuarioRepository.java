@@ -0,0 +1,18 @@
+package br.com.estudo.fullstack.model.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.com.estudo.fullstack.model.entity.SincronizacaoUsuario;
+
+public interface SincronizacaoUsuarioRepository extends JpaRepository<SincronizacaoUsuario, Long> {
+
+	@Modifying(flushAutomatically = true)
+	@Query( value = " update SincronizacaoUsuario s set s.versao = s.versao + 1 where s.idUsuario = :idUsuario " )
+	int incrementarVersao(@Param("idUsuario") Long idUsuario);
+
+	@Query( value = " select s.versao from SincronizacaoUsuario s where s.idUsuario = :idUsuario " )
+	Long obterVersao(@Param("idUsuario") Long idUsuario);
+}
@@ -0,0 +1,10 @@
+package br.com.estudo.fullstack.model.repository;
+
+import java.math.BigDecimal;
+
+public interface TotalLancamentos {
+
+	BigDecimal getTotal();
+
+	Long getQuantidade();
+}
@@ -1,14 +1,14 @@
-package br.com.estudo.fullstack.model.repository;
-
-import java.util.Optional;
-
-import org.springframework.data.jpa.repository.JpaRepository;
-
-import br.com.estudo.fullstack.model.entity.Usuario;
-
-public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
-
-	boolean existsByEmail(String email);
-	Usuario findByEmail(String email);
-	
-}
+package br.com.estudo.fullstack.model.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import br.com.estudo.fullstack.model.entity.Usuario;
+
+public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+
+	boolean existsByEmail(String email);
+	Usuario findByEmail(String email);
+	
+}
@@ -0,0 +1,21 @@
+package br.com.estudo.fullstack.service;
+
+import java.util.List;
+
+import br.com.estudo.fullstack.model.repository.LancamentoListagem;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Alterações dos lançamentos de um usuário a partir de uma versão. Quando {@code completa} é verdadeiro a lista traz
+ * todos os lançamentos e substitui o que o cliente tiver guardado.
+ */
+@Getter
+@AllArgsConstructor
+public class AlteracoesLancamentos {
+
+	private final long versao;
+	private final boolean completa;
+	private final List<LancamentoListagem> alterados;
+	private final List<Long> excluidos;
+}
@@ -1,27 +1,77 @@
-package br.com.estudo.fullstack.service;
-
-import java.math.BigDecimal;
-import java.util.List;
-import java.util.Optional;
-
-import br.com.estudo.fullstack.model.entity.Lancamento;
-import br.com.estudo.fullstack.model.enums.StatusLancamento;
-
-public interface LancamentoService {
-	
-	Lancamento salvarLancamento(Lancamento lancamento);
-	
-	Lancamento atualizarLancamento(Lancamento lancamento);
-	
-	void deletarLancamento(Lancamento lancamento);
-	
-	List<Lancamento> buscarLancamentos(Lancamento lancamentoFiltro);
-	
-	void atualizarStatus(Lancamento lancamento, StatusLancamento status);
-	
-	void validarLancamento(Lancamento lancamento);
-
-	Optional<Lancamento> buscarPorId(Long id);
-	
-	BigDecimal obterSaldoPorUsuario(Long id);
-}
+package br.com.estudo.fullstack.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.ResumoMensal;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.repository.LancamentoListagem;
+
+public interface LancamentoService {
+	
+	int TAMANHO_PAGINA_PADRAO = 50;
+	
+	int TAMANHO_PAGINA_MAXIMO = 500;
+	
+	Lancamento salvarLancamento(Lancamento lancamento);
+	
+	List<Lancamento> importarLancamentos(List<Lancamento> lancamentos);
+	
+	Lancamento atualizarLancamento(Lancamento lancamento);
+	
+	void deletarLancamento(Lancamento lancamento);
+	
+	/**
+	 * Atualiza direto pelo id, sem carregar a entidade; vazio quando o lançamento não existe. Com a versão preenchida
+	 * a alteração só é aplicada se o lançamento ainda estiver nela.
+	 */
+	Optional<Lancamento> atualizarLancamento(Long id, Lancamento lancamento);
+	
+	Optional<Lancamento> atualizarStatus(Long id, StatusLancamento status, Long versaoEsperada);
+	
+	/**
+	 * Exclui direto pelo id; falso quando o lançamento não existe.
+	 */
+	boolean deletarLancamento(Long id);
+	
+	List<Lancamento> buscarLancamentos(Lancamento lancamentoFiltro);
+	
+	List<LancamentoListagem> listarLancamentos(Lancamento lancamentoFiltro);
+	
+	List<String> sugerirDescricoes(Long idUsuario, String termo, int limite);
+	
+	void exportarLancamentos(Long idUsuario, Consumer<Lancamento> consumidor);
+	
+	List<Lancamento> buscarPagina(Long idUsuario, Lancamento ultimoDaPaginaAnterior, int tamanho);
+	
+	void atualizarStatus(Lancamento lancamento, StatusLancamento status);
+	
+	int atualizarStatusEmLote(List<Long> ids, StatusLancamento status);
+	
+	int atualizarStatusEmLote(Long idUsuario, Integer ano, Integer mes, StatusLancamento statusAtual, StatusLancamento status);
+	
+	void validarLancamento(Lancamento lancamento);
+
+	Optional<Lancamento> buscarPorId(Long id);
+	
+	BigDecimal obterSaldoPorUsuario(Long id);
+	
+	/**
+	 * Lançamentos criados, alterados ou excluídos depois da versão informada; versão 0 pede a lista completa.
+	 */
+	AlteracoesLancamentos buscarAlteracoes(Long idUsuario, long versao);
+	
+	/**
+	 * Identifica o estado atual dos lançamentos do usuário; muda a cada escrita confirmada.
+	 */
+	String obterVersaoDados(Long idUsuario);
+	
+	boolean reconciliarSaldo(Long id);
+	
+	List<ResumoMensal> obterResumoMensal(Long idUsuario, Integer ano, StatusLancamento status);
+	
+	void reconstruirResumoMensal(Long idUsuario);
+}
@@ -0,0 +1,26 @@
+package br.com.estudo.fullstack.service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Publicado a cada escrita em lançamentos com os ids alterados de cada usuário afetado. Ouvintes transacionais só o
+ * recebem após o commit.
+ */
+public class LancamentosAlteradosEvent {
+
+	private final Map<Long, Set<Long>> lancamentosPorUsuario;
+
+	public LancamentosAlteradosEvent(Map<Long, Set<Long>> lancamentosPorUsuario) {
+		this.lancamentosPorUsuario = Collections.unmodifiableMap(lancamentosPorUsuario);
+	}
+
+	public Set<Long> getUsuarios() {
+		return lancamentosPorUsuario.keySet();
+	}
+
+	public Set<Long> getLancamentos(Long idUsuario) {
+		return lancamentosPorUsuario.getOrDefault(idUsuario, Collections.emptySet());
+	}
+}
@@ -0,0 +1,180 @@
+package br.com.estudo.fullstack.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Resultados de buscas de lançamentos por usuário. A chave inclui a versão dos dados do usuário, então uma escrita
+ * invalida as buscas dele sem percorrer o cache; as entradas antigas saem pelo limite de tamanho. O cache guarda
+ * cópias imutáveis e cada chamada recebe entidades novas: o que um chamador altera não chega aos demais.
+ */
+@Component
+public class CacheBuscaLancamentos implements MeterBinder {
+
+	private final VersaoDadosUsuario versaoDados;
+
+	private final ExecucaoUnica execucaoUnica;
+
+	private final Cache<ChaveBusca, List<LancamentoGuardado>> resultados;
+
+	public CacheBuscaLancamentos(VersaoDadosUsuario versaoDados, ExecucaoUnica execucaoUnica,
+			@Value("${financas.cache-busca.maximo-lancamentos:200000}") long maximoLancamentos) {
+		this.versaoDados = versaoDados;
+		this.execucaoUnica = execucaoUnica;
+		this.resultados = Caffeine.newBuilder()
+				.maximumWeight(maximoLancamentos)
+				.weigher((ChaveBusca chave, List<LancamentoGuardado> lancamentos) -> lancamentos.size() + 1)
+				.recordStats()
+				.build();
+	}
+
+	/**
+	 * Devolve o resultado guardado para o filtro ou executa a busca. Filtros sem usuário não são guardados. A versão
+	 * é lida antes da busca: se uma escrita for confirmada durante a consulta, o resultado fica sob a versão anterior,
+	 * que não será mais procurada. Buscas iguais que chegam enquanto a consulta roda aguardam o mesmo resultado.
+	 */
+	public List<Lancamento> obter(Lancamento filtro, Supplier<List<Lancamento>> busca) {
+		if (filtro.getUsuario() == null || filtro.getUsuario().getId() == null) {
+			return busca.get();
+		}
+		ChaveBusca chave = new ChaveBusca(filtro, versaoDados.versao(filtro.getUsuario().getId()));
+		List<LancamentoGuardado> guardados = resultados.getIfPresent(chave);
+		if (guardados == null) {
+			guardados = execucaoUnica.executar("busca", chave, () -> {
+				List<LancamentoGuardado> encontrados = guardar(busca.get());
+				resultados.put(chave, encontrados);
+				return encontrados;
+			});
+		}
+		return restaurar(guardados);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, resultados, "lancamentos-busca");
+	}
+
+	private static List<LancamentoGuardado> guardar(List<Lancamento> lancamentos) {
+		List<LancamentoGuardado> guardados = new ArrayList<>(lancamentos.size());
+		for (Lancamento lancamento : lancamentos) {
+			guardados.add(new LancamentoGuardado(lancamento));
+		}
+		return Collections.unmodifiableList(guardados);
+	}
+
+	private static List<Lancamento> restaurar(List<LancamentoGuardado> guardados) {
+		Map<Long, Usuario> usuarios = new HashMap<>();
+		List<Lancamento> lancamentos = new ArrayList<>(guardados.size());
+		for (LancamentoGuardado guardado : guardados) {
+			lancamentos.add(guardado.restaurar(usuarios));
+		}
+		return Collections.unmodifiableList(lancamentos);
+	}
+
+	/**
+	 * Colunas de um lançamento encontrado e os dados públicos do usuário dele; a senha não fica no cache.
+	 */
+	private static final class LancamentoGuardado {
+
+		private final Long id;
+		private final String descricao;
+		private final Integer ano;
+		private final Integer mes;
+		private final BigDecimal valor;
+		private final Long idUsuario;
+		private final String nomeUsuario;
+		private final String emailUsuario;
+		private final LocalDate dataCadastro;
+		private final TipoLancamento tipo;
+		private final StatusLancamento status;
+		private final Long versaoAlteracao;
+		private final Long versao;
+
+		private LancamentoGuardado(Lancamento lancamento) {
+			Usuario usuario = lancamento.getUsuario();
+			this.id = lancamento.getId();
+			this.descricao = lancamento.getDescricao();
+			this.ano = lancamento.getAno();
+			this.mes = lancamento.getMes();
+			this.valor = lancamento.getValor();
+			this.idUsuario = usuario == null ? null : usuario.getId();
+			this.nomeUsuario = usuario == null ? null : usuario.getNome();
+			this.emailUsuario = usuario == null ? null : usuario.getEmail();
+			this.dataCadastro = lancamento.getDataCadastro();
+			this.tipo = lancamento.getTipo();
+			this.status = lancamento.getStatus();
+			this.versaoAlteracao = lancamento.getVersaoAlteracao();
+			this.versao = lancamento.getVersao();
+		}
+
+		private Lancamento restaurar(Map<Long, Usuario> usuarios) {
+			Usuario usuario = idUsuario == null ? null : usuarios.computeIfAbsent(idUsuario,
+					id -> Usuario.builder().id(id).nome(nomeUsuario).email(emailUsuario).build());
+			Lancamento lancamento = new Lancamento(descricao, ano, mes, valor, usuario, dataCadastro, tipo, status);
+			lancamento.setId(id);
+			lancamento.setVersaoAlteracao(versaoAlteracao);
+			lancamento.setVersao(versao);
+			return lancamento;
+		}
+	}
+
+	private static final class ChaveBusca {
+
+		private final Long idUsuario;
+		private final long versao;
+		private final Integer ano;
+		private final Integer mes;
+		private final TipoLancamento tipo;
+		private final StatusLancamento status;
+		private final String descricao;
+
+		private ChaveBusca(Lancamento filtro, long versao) {
+			this.idUsuario = filtro.getUsuario().getId();
+			this.versao = versao;
+			this.ano = filtro.getAno();
+			this.mes = filtro.getMes();
+			this.tipo = filtro.getTipo();
+			this.status = filtro.getStatus();
+			String descricao = filtro.getDescricao() == null ? "" : filtro.getDescricao().trim().toLowerCase();
+			this.descricao = descricao.isEmpty() ? null : descricao;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(idUsuario, versao, ano, mes, tipo, status, descricao);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof ChaveBusca))
+				return false;
+			ChaveBusca other = (ChaveBusca) obj;
+			return versao == other.versao && Objects.equals(idUsuario, other.idUsuario) && Objects.equals(ano, other.ano)
+					&& Objects.equals(mes, other.mes) && tipo == other.tipo && status == other.status
+					&& Objects.equals(descricao, other.descricao);
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package br.com.estudo.fullstack.service.impl;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Agrupa chamadas concorrentes iguais: enquanto um cálculo para a chave está em andamento, quem pedir a mesma chave
+ * espera por ele e recebe o mesmo resultado em vez de repetir a consulta. Nada é guardado depois que o cálculo
+ * termina; a chave deve incluir a versão dos dados para que uma chamada feita depois de uma escrita não aproveite um
+ * cálculo iniciado antes dela.
+ */
+@Component
+public class ExecucaoUnica implements MeterBinder {
+
+	private static final String DESCRICAO_METRICA = "Chamadas que executaram o cálculo ou aguardaram um igual em andamento";
+
+	private final Map<Map.Entry<String, Object>, CompletableFuture<Object>> emAndamento = new ConcurrentHashMap<>();
+
+	private final Map<String, Contadores> contadores = new ConcurrentHashMap<>();
+
+	private MeterRegistry registry;
+
+	/**
+	 * Executa o cálculo ou aguarda o que já está em andamento para a mesma operação e chave. Dentro de uma transação o
+	 * cálculo nunca é compartilhado, porque o chamador precisa enxergar as próprias escritas ainda não confirmadas.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T executar(String operacao, Object chave, Supplier<T> calculo) {
+		Contadores doTipo = contadores.computeIfAbsent(operacao, this::criarContadores);
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			doTipo.executadas.increment();
+			return calculo.get();
+		}
+
+		Map.Entry<String, Object> chamada = new SimpleImmutableEntry<>(operacao, chave);
+		CompletableFuture<Object> novo = new CompletableFuture<>();
+		CompletableFuture<Object> existente = emAndamento.putIfAbsent(chamada, novo);
+		if (existente != null) {
+			doTipo.compartilhadas.increment();
+			return (T) aguardar(existente);
+		}
+
+		doTipo.executadas.increment();
+		try {
+			T resultado = calculo.get();
+			novo.complete(resultado);
+			return resultado;
+		} catch (RuntimeException | Error e) {
+			novo.completeExceptionally(e);
+			throw e;
+		} finally {
+			emAndamento.remove(chamada, novo);
+		}
+	}
+
+	@Override
+	public synchronized void bindTo(MeterRegistry registry) {
+		this.registry = registry;
+		contadores.values().forEach(this::registrar);
+	}
+
+	private Contadores criarContadores(String operacao) {
+		Contadores novos = new Contadores(operacao);
+		synchronized (this) {
+			if (registry != null) {
+				registrar(novos);
+			}
+		}
+		return novos;
+	}
+
+	private void registrar(Contadores doTipo) {
+		FunctionCounter.builder("financas.execucao.unica", doTipo.executadas, LongAdder::sum)
+				.description(DESCRICAO_METRICA)
+				.tag("operacao", doTipo.operacao).tag("resultado", "executada")
+				.register(registry);
+		FunctionCounter.builder("financas.execucao.unica", doTipo.compartilhadas, LongAdder::sum)
+				.description(DESCRICAO_METRICA)
+				.tag("operacao", doTipo.operacao).tag("resultado", "compartilhada")
+				.register(registry);
+	}
+
+	private static Object aguardar(CompletableFuture<Object> calculo) {
+		try {
+			return calculo.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	private static final class Contadores {
+
+		private final String operacao;
+
+		private final LongAdder executadas = new LongAdder();
+
+		private final LongAdder compartilhadas = new LongAdder();
+
+		private Contadores(String operacao) {
+			this.operacao = operacao;
+		}
+	}
+}
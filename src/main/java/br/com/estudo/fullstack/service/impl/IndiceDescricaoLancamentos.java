@@ -0,0 +1,252 @@
+package br.com.estudo.fullstack.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import br.com.estudo.fullstack.model.repository.BuscaDescricao;
+import br.com.estudo.fullstack.model.repository.DescricaoLancamento;
+import br.com.estudo.fullstack.model.repository.LancamentoRepository;
+
+/**
+ * Índice invertido de trigramas das descrições de lançamentos, mantido em memória por usuário. O índice de um
+ * usuário é montado no primeiro acesso e descartado quando o usuário fica inativo, por uma limpeza periódica, ou
+ * quando o limite de usuários indexados é atingido.
+ */
+@Component
+public class IndiceDescricaoLancamentos {
+
+	private static final int FAIXAS_ALTERACAO = 64;
+
+	private final LancamentoRepository repository;
+
+	private final int maximoUsuarios;
+
+	private final long inatividadeNanos;
+
+	private final Map<Long, IndiceUsuario> indices = new ConcurrentHashMap<>();
+
+	private final AtomicLongArray alteracoes = new AtomicLongArray(FAIXAS_ALTERACAO);
+
+	public IndiceDescricaoLancamentos(LancamentoRepository repository,
+			@Value("${financas.indice-descricao.maximo-usuarios:1000}") int maximoUsuarios,
+			@Value("${financas.indice-descricao.inatividade-minutos:30}") long inatividadeMinutos) {
+		this.repository = repository;
+		this.maximoUsuarios = maximoUsuarios;
+		this.inatividadeNanos = TimeUnit.MINUTES.toNanos(inatividadeMinutos);
+	}
+
+	public Set<Long> buscar(Long idUsuario, String termo) {
+		return obterIndice(idUsuario).buscar(BuscaDescricao.normalizar(termo));
+	}
+
+	public List<String> sugerir(Long idUsuario, String termo, int limite) {
+		return obterIndice(idUsuario).sugerir(BuscaDescricao.normalizar(termo), limite);
+	}
+
+	public void adicionar(Long idUsuario, Long id, String descricao) {
+		alteracoes.incrementAndGet(faixa(idUsuario));
+		IndiceUsuario indice = indices.get(idUsuario);
+		if (indice != null) {
+			indice.adicionar(id, descricao);
+		}
+	}
+
+	public void remover(Long idUsuario, Long id) {
+		alteracoes.incrementAndGet(faixa(idUsuario));
+		IndiceUsuario indice = indices.get(idUsuario);
+		if (indice != null) {
+			indice.remover(id);
+		}
+	}
+
+	public boolean carregado(Long idUsuario) {
+		return indices.containsKey(idUsuario);
+	}
+
+	@Scheduled(initialDelayString = "${financas.indice-descricao.limpeza-ms:60000}",
+			fixedDelayString = "${financas.indice-descricao.limpeza-ms:60000}")
+	public void removerInativos() {
+		long agora = System.nanoTime();
+		indices.entrySet().removeIf(entrada -> agora - entrada.getValue().ultimoAcesso > inatividadeNanos);
+	}
+
+	private IndiceUsuario obterIndice(Long idUsuario) {
+		IndiceUsuario indice = indices.get(idUsuario);
+		if (indice != null) {
+			indice.ultimoAcesso = System.nanoTime();
+			return indice;
+		}
+
+		// Monta fora de qualquer trava; se houver escrita concorrente para o usuário o índice não é guardado
+		long versao = alteracoes.get(faixa(idUsuario));
+		IndiceUsuario novo = new IndiceUsuario();
+		for (DescricaoLancamento descricao : repository.buscarDescricoesPorUsuario(idUsuario)) {
+			novo.adicionar(descricao.getId(), descricao.getDescricao());
+		}
+
+		if (alteracoes.get(faixa(idUsuario)) != versao) {
+			return novo;
+		}
+		liberarEspaco();
+		IndiceUsuario existente = indices.putIfAbsent(idUsuario, novo);
+		if (existente != null) {
+			return existente;
+		}
+		if (alteracoes.get(faixa(idUsuario)) != versao) {
+			indices.remove(idUsuario, novo);
+		}
+		return novo;
+	}
+
+	private void liberarEspaco() {
+		removerInativos();
+		while (!indices.isEmpty() && indices.size() >= maximoUsuarios) {
+			indices.entrySet().stream()
+				.min(Comparator.comparingLong(entrada -> entrada.getValue().ultimoAcesso))
+				.ifPresent(entrada -> indices.remove(entrada.getKey(), entrada.getValue()));
+		}
+	}
+
+	private int faixa(Long idUsuario) {
+		return (int) Math.floorMod(idUsuario, (long) FAIXAS_ALTERACAO);
+	}
+
+	private static Set<String> trigramas(String texto) {
+		Set<String> trigramas = new HashSet<>();
+		for (int i = 0; i + 3 <= texto.length(); i++) {
+			trigramas.add(texto.substring(i, i + 3));
+		}
+		return trigramas;
+	}
+
+	private static final class IndiceUsuario {
+
+		private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+		private final Map<Long, String> descricoes = new HashMap<>();
+
+		private final Map<Long, String> normalizadas = new HashMap<>();
+
+		private final Map<String, Set<Long>> porTrigrama = new HashMap<>();
+
+		private volatile long ultimoAcesso = System.nanoTime();
+
+		private void adicionar(Long id, String descricao) {
+			trava.writeLock().lock();
+			try {
+				removerSemTrava(id);
+				if (descricao == null) {
+					return;
+				}
+				String normalizada = BuscaDescricao.normalizar(descricao);
+				descricoes.put(id, descricao);
+				normalizadas.put(id, normalizada);
+				for (String trigrama : trigramas(normalizada)) {
+					porTrigrama.computeIfAbsent(trigrama, chave -> new HashSet<>()).add(id);
+				}
+			} finally {
+				trava.writeLock().unlock();
+			}
+		}
+
+		private void remover(Long id) {
+			trava.writeLock().lock();
+			try {
+				removerSemTrava(id);
+			} finally {
+				trava.writeLock().unlock();
+			}
+		}
+
+		private void removerSemTrava(Long id) {
+			String normalizada = normalizadas.remove(id);
+			descricoes.remove(id);
+			if (normalizada == null) {
+				return;
+			}
+			for (String trigrama : trigramas(normalizada)) {
+				Set<Long> ids = porTrigrama.get(trigrama);
+				if (ids != null && ids.remove(id) && ids.isEmpty()) {
+					porTrigrama.remove(trigrama);
+				}
+			}
+		}
+
+		private Set<Long> buscar(String termo) {
+			trava.readLock().lock();
+			try {
+				Set<Long> encontrados = new HashSet<>();
+				for (Long id : candidatos(termo)) {
+					if (normalizadas.get(id).contains(termo)) {
+						encontrados.add(id);
+					}
+				}
+				return encontrados;
+			} finally {
+				trava.readLock().unlock();
+			}
+		}
+
+		private List<String> sugerir(String termo, int limite) {
+			trava.readLock().lock();
+			try {
+				Map<String, Integer> frequencias = new HashMap<>();
+				for (Long id : candidatos(termo)) {
+					if (iniciaPalavra(normalizadas.get(id), termo)) {
+						frequencias.merge(descricoes.get(id), 1, Integer::sum);
+					}
+				}
+				List<String> sugestoes = new ArrayList<>(frequencias.keySet());
+				sugestoes.sort(Comparator.comparing((String descricao) -> frequencias.get(descricao)).reversed()
+						.thenComparing(Comparator.naturalOrder()));
+				return sugestoes.size() > limite ? new ArrayList<>(sugestoes.subList(0, limite)) : sugestoes;
+			} finally {
+				trava.readLock().unlock();
+			}
+		}
+
+		/**
+		 * Verifica todas as ocorrências: em "supermercado mercado" o termo "merc" só inicia palavra na segunda.
+		 */
+		private static boolean iniciaPalavra(String texto, String termo) {
+			for (int posicao = texto.indexOf(termo); posicao >= 0; posicao = texto.indexOf(termo, posicao + 1)) {
+				if (posicao == 0 || !Character.isLetterOrDigit(texto.charAt(posicao - 1))) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private Set<Long> candidatos(String termo) {
+			if (termo.length() < 3) {
+				return descricoes.keySet();
+			}
+			Set<Long> menor = null;
+			for (String trigrama : trigramas(termo)) {
+				Set<Long> ids = porTrigrama.get(trigrama);
+				if (ids == null) {
+					return Collections.emptySet();
+				}
+				if (menor == null || ids.size() < menor.size()) {
+					menor = ids;
+				}
+			}
+			return menor;
+		}
+	}
+}
@@ -0,0 +1,206 @@
+package br.com.estudo.fullstack.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.com.estudo.fullstack.exception.IngestaoSobrecarregadaException;
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.service.LancamentoService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Ingestão de lançamentos em grupo: quem envia valida o lançamento, coloca na fila e recebe um future que completa
+ * quando a linha está confirmada no banco. Uma única thread grava a fila em lotes de até {@code tamanho-lote}
+ * lançamentos, esperando no máximo {@code intervalo-ms} para completar um lote, então muitos envios simultâneos
+ * dividem o custo de um commit. Com a fila cheia o envio espera pouco e é recusado, e o cliente deve tentar de novo.
+ * Desabilitada, cada lançamento é salvo na própria transação.
+ */
+@Component
+public class IngestaoLancamentos implements MeterBinder {
+
+	private static final Logger LOG = LoggerFactory.getLogger(IngestaoLancamentos.class);
+
+	private final LancamentoService service;
+
+	private final boolean habilitada;
+
+	private final int tamanhoLote;
+
+	private final long intervaloMillis;
+
+	private final long esperaFilaCheiaMillis;
+
+	private final BlockingQueue<Pendente> fila;
+
+	private final Thread gravador;
+
+	private volatile boolean ativa = true;
+
+	public IngestaoLancamentos(LancamentoService service,
+			@Value("${financas.ingestao.habilitada:false}") boolean habilitada,
+			@Value("${financas.ingestao.tamanho-lote:500}") int tamanhoLote,
+			@Value("${financas.ingestao.intervalo-ms:10}") long intervaloMillis,
+			@Value("${financas.ingestao.capacidade-fila:10000}") int capacidadeFila,
+			@Value("${financas.ingestao.espera-fila-cheia-ms:100}") long esperaFilaCheiaMillis) {
+		this.service = service;
+		this.habilitada = habilitada;
+		this.tamanhoLote = tamanhoLote;
+		this.intervaloMillis = intervaloMillis;
+		this.esperaFilaCheiaMillis = esperaFilaCheiaMillis;
+		this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+		this.gravador = new Thread(this::gravar, "ingestao-lancamentos");
+		this.gravador.setDaemon(true);
+	}
+
+	@PostConstruct
+	public void iniciar() {
+		if (habilitada) {
+			gravador.start();
+		}
+	}
+
+	/**
+	 * Grava o que ainda está na fila antes de encerrar.
+	 */
+	@PreDestroy
+	public void encerrar() throws InterruptedException {
+		ativa = false;
+		if (habilitada) {
+			gravador.join(TimeUnit.SECONDS.toMillis(30));
+		}
+	}
+
+	/**
+	 * Valida e enfileira o lançamento. Regras de negócio são verificadas aqui, antes de ocupar a fila; o future falha
+	 * só se a gravação falhar.
+	 */
+	public CompletableFuture<Lancamento> enfileirar(Lancamento lancamento) {
+		if (!habilitada) {
+			return CompletableFuture.completedFuture(service.salvarLancamento(lancamento));
+		}
+		service.validarLancamento(lancamento);
+		Pendente pendente = new Pendente(lancamento);
+		boolean aceito;
+		try {
+			aceito = ativa && fila.offer(pendente, esperaFilaCheiaMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			aceito = false;
+		}
+		if (!aceito) {
+			throw new IngestaoSobrecarregadaException("Fila de ingestão cheia, tente novamente em instantes.");
+		}
+		return pendente.resultado;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("financas.ingestao.fila", fila, BlockingQueue::size)
+				.description("Lançamentos aguardando gravação em lote")
+				.register(registry);
+	}
+
+	private void gravar() {
+		List<Pendente> lote = new ArrayList<>(tamanhoLote);
+		while (ativa || !fila.isEmpty()) {
+			try {
+				Pendente primeiro = fila.poll(intervaloMillis, TimeUnit.MILLISECONDS);
+				if (primeiro == null) {
+					continue;
+				}
+				lote.add(primeiro);
+				completarLote(lote);
+				gravarLote(lote);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				gravarLote(lote);
+				break;
+			} catch (RuntimeException e) {
+				LOG.error("Falha inesperada na ingestão de lançamentos.", e);
+			} finally {
+				lote.clear();
+			}
+		}
+		List<Pendente> restantes = new ArrayList<>();
+		fila.drainTo(restantes);
+		restantes.forEach(pendente -> pendente.resultado
+				.completeExceptionally(new IngestaoSobrecarregadaException("Ingestão encerrada, tente novamente.")));
+	}
+
+	/**
+	 * Junta ao lote o que já está na fila e espera pelo restante até o intervalo configurado, contado a partir do
+	 * primeiro lançamento do lote.
+	 */
+	private void completarLote(List<Pendente> lote) throws InterruptedException {
+		long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervaloMillis);
+		while (lote.size() < tamanhoLote) {
+			fila.drainTo(lote, tamanhoLote - lote.size());
+			long restante = limite - System.nanoTime();
+			if (lote.size() >= tamanhoLote || restante <= 0) {
+				return;
+			}
+			Pendente proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+			if (proximo == null) {
+				return;
+			}
+			lote.add(proximo);
+		}
+	}
+
+	/**
+	 * Grava o lote numa transação. Se o lote falhar, grava cada lançamento na sua transação para que um lançamento
+	 * com problema não impeça os demais.
+	 */
+	private void gravarLote(List<Pendente> lote) {
+		if (lote.isEmpty()) {
+			return;
+		}
+		try {
+			List<Lancamento> salvos = service.importarLancamentos(lote.stream()
+					.map(pendente -> pendente.lancamento).collect(Collectors.toList()));
+			for (int i = 0; i < lote.size(); i++) {
+				lote.get(i).resultado.complete(salvos.get(i));
+			}
+		} catch (RuntimeException e) {
+			LOG.warn("Falha ao gravar lote de {} lançamentos; gravando um a um.", lote.size(), e);
+			lote.forEach(this::gravarIndividualmente);
+		}
+	}
+
+	private void gravarIndividualmente(Pendente pendente) {
+		// o lote desfeito já tinha atribuído id e versão; sem eles o lançamento volta a ser novo
+		pendente.lancamento.setId(null);
+		pendente.lancamento.setVersao(null);
+		try {
+			pendente.resultado.complete(service.salvarLancamento(pendente.lancamento));
+		} catch (RuntimeException e) {
+			pendente.resultado.completeExceptionally(e);
+		}
+	}
+
+	private static final class Pendente {
+
+		private final Lancamento lancamento;
+
+		private final CompletableFuture<Lancamento> resultado = new CompletableFuture<>();
+
+		private Pendente(Lancamento lancamento) {
+			this.lancamento = lancamento;
+		}
+	}
+}
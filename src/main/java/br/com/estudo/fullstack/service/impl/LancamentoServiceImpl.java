@@ -1,122 +1,690 @@
-package br.com.estudo.fullstack.service.impl;
-
-
-import java.math.BigDecimal;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
-
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
-import org.springframework.data.domain.ExampleMatcher.StringMatcher;
-import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import br.com.estudo.fullstack.exception.RegraNegocioException;
-import br.com.estudo.fullstack.model.entity.Lancamento;
-import br.com.estudo.fullstack.model.enums.StatusLancamento;
-import br.com.estudo.fullstack.model.enums.TipoLancamento;
-import br.com.estudo.fullstack.model.repository.LancamentoRepository;
-import br.com.estudo.fullstack.service.LancamentoService;
-
-@Service
-public class LancamentoServiceImpl implements LancamentoService {
-
-	private LancamentoRepository repository;
-
-	public LancamentoServiceImpl(LancamentoRepository repository) {
-		super();
-		this.repository = repository;
-	}
-
-	@Override
-	@Transactional
-	public Lancamento salvarLancamento(Lancamento lancamento) {
-		validarLancamento(lancamento);
-		lancamento.setStatus(StatusLancamento.PENDENTE);
-		return repository.save(lancamento);
-	}
-
-	@Override
-	@Transactional
-	public Lancamento atualizarLancamento(Lancamento lancamento) {
-		Objects.requireNonNull(lancamento.getId());
-		validarLancamento(lancamento);
-		return repository.save(lancamento);
-	}
-
-	@Override
-	public void deletarLancamento(Lancamento lancamento) {
-		Objects.requireNonNull(lancamento.getId());
-		repository.delete(lancamento);
-	}
-
-	@Override
-	public List<Lancamento> buscarLancamentos(Lancamento lancamentoFiltro) {
-		
-		Example	example = Example.of(lancamentoFiltro, 
-				ExampleMatcher.matching().withIgnoreCase().withStringMatcher(StringMatcher.CONTAINING));
-		
-		return repository.findAll(example);
-	}
-
-	@Override
-	public void atualizarStatus(Lancamento lancamento, StatusLancamento status) {
-		lancamento.setStatus(status);
-		atualizarLancamento(lancamento);
-	}
-
-	@Override
-	public void validarLancamento(Lancamento lancamento) {
-		
-		if(lancamento.getDescricao() == null || lancamento.getDescricao().trim().equals("")) {
-			throw new RegraNegocioException("Informe uma Descrição válida!");
-		}
-		
-		if(lancamento.getMes() == null || lancamento.getMes() < 1 || lancamento.getMes() > 12) {
-			throw new RegraNegocioException("Informe um Mês válido!");
-		}
-		
-		if(lancamento.getAno() == null || lancamento.getAno().toString().length() != 4) {
-			throw new RegraNegocioException("Informe um Ano válido!");
-		}
-		
-		if(lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null) {
-			throw new RegraNegocioException("Informe um Usuário válido!");
-		}
-		
-		if(lancamento.getValor() == null || lancamento.getValor().compareTo(BigDecimal.ZERO) < 1) {
-			throw new RegraNegocioException("Informe um Valor válido!");
-		}
-		
-		if(lancamento.getTipo() == null) {
-			throw new RegraNegocioException("Informe um Tipo de Lançamento!");
-		}
-		
-	}
-
-	@Override
-	public Optional<Lancamento> buscarPorId(Long id) {
-		return repository.findById(id);
-	}
-
-	@Override
-	@Transactional(readOnly = true)
-	public BigDecimal obterSaldoPorUsuario(Long id) {
-		BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
-		BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
-
-		if(receitas == null) {
-			receitas = BigDecimal.ZERO;
-		}
-		if(despesas == null) {
-			despesas = BigDecimal.ZERO;
-		}
-		
-		return receitas.subtract(despesas);
-	}
-
-	
-	
-	
-}
+package br.com.estudo.fullstack.service.impl;
+
+
+import java.math.BigDecimal;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.com.estudo.fullstack.exception.ConflitoVersaoException;
+import br.com.estudo.fullstack.exception.RegraNegocioException;
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.ResumoMensal;
+import br.com.estudo.fullstack.model.entity.SaldoUsuario;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import br.com.estudo.fullstack.model.repository.EstadoLancamento;
+import br.com.estudo.fullstack.model.repository.LancamentoListagem;
+import br.com.estudo.fullstack.model.repository.LancamentoRepository;
+import br.com.estudo.fullstack.model.repository.LancamentoSpecifications;
+import br.com.estudo.fullstack.model.repository.ResumoMensalRepository;
+import br.com.estudo.fullstack.model.repository.SaldoUsuarioRepository;
+import br.com.estudo.fullstack.model.repository.TotalLancamentos;
+import br.com.estudo.fullstack.service.AlteracoesLancamentos;
+import br.com.estudo.fullstack.service.LancamentoService;
+import br.com.estudo.fullstack.service.LancamentosAlteradosEvent;
+
+@Service
+public class LancamentoServiceImpl implements LancamentoService {
+
+	private static final int TAMANHO_LOTE_IMPORTACAO = 50;
+
+	private static final int TAMANHO_LOTE_ATUALIZACAO = 500;
+
+	private static final Sort ORDENACAO_BUSCA = Sort.by("ano", "mes", "id");
+
+	private static final int MAXIMO_IDS_POR_DESCRICAO = 1000;
+
+	private static final int MAXIMO_SUGESTOES = 50;
+
+	private static final int TENTATIVAS_ESCRITA_POR_ID = 3;
+
+	private LancamentoRepository repository;
+
+	private SaldoUsuarioRepository saldoRepository;
+
+	private ResumoMensalRepository resumoRepository;
+
+	private EntityManager entityManager;
+
+	private IndiceDescricaoLancamentos indiceDescricao;
+
+	private CacheBuscaLancamentos cacheBusca;
+
+	private VersaoDadosUsuario versaoDados;
+
+	private SincronizacaoLancamentos sincronizacao;
+
+	private ExecucaoUnica execucaoUnica;
+
+	private ApplicationEventPublisher eventPublisher;
+
+	public LancamentoServiceImpl(LancamentoRepository repository, SaldoUsuarioRepository saldoRepository,
+			ResumoMensalRepository resumoRepository, EntityManager entityManager, 
+			IndiceDescricaoLancamentos indiceDescricao, CacheBuscaLancamentos cacheBusca, 
+			VersaoDadosUsuario versaoDados, SincronizacaoLancamentos sincronizacao, 
+			ExecucaoUnica execucaoUnica, ApplicationEventPublisher eventPublisher) {
+		super();
+		this.repository = repository;
+		this.saldoRepository = saldoRepository;
+		this.resumoRepository = resumoRepository;
+		this.entityManager = entityManager;
+		this.indiceDescricao = indiceDescricao;
+		this.cacheBusca = cacheBusca;
+		this.versaoDados = versaoDados;
+		this.sincronizacao = sincronizacao;
+		this.execucaoUnica = execucaoUnica;
+		this.eventPublisher = eventPublisher;
+	}
+
+	@Override
+	@Transactional
+	public Lancamento salvarLancamento(Lancamento lancamento) {
+		validarLancamento(lancamento);
+		lancamento.setStatus(StatusLancamento.PENDENTE);
+		lancamento.setVersaoAlteracao(reservarVersoes(lancamento).get(idUsuario(lancamento)));
+		Lancamento salvo = repository.save(lancamento);
+		registrarAlteracao(null, salvo);
+		atualizarIndiceAposCommit(Collections.emptyList(), Collections.singletonList(salvo));
+		return salvo;
+	}
+
+	@Override
+	@Transactional
+	public List<Lancamento> importarLancamentos(List<Lancamento> lancamentos) {
+		for (int i = 0; i < lancamentos.size(); i++) {
+			try {
+				validarLancamento(lancamentos.get(i));
+			} catch (RegraNegocioException e) {
+				throw new RegraNegocioException("Lançamento " + (i + 1) + ": " + e.getMessage());
+			}
+		}
+		
+		Map<Long, Long> versoes = reservarVersoes(lancamentos.toArray(new Lancamento[0]));
+		lancamentos.forEach(lancamento -> lancamento.setVersaoAlteracao(versoes.get(idUsuario(lancamento))));
+		
+		List<Lancamento> salvos = new ArrayList<>(lancamentos.size());
+		for (int inicio = 0; inicio < lancamentos.size(); inicio += TAMANHO_LOTE_IMPORTACAO) {
+			List<Lancamento> lote = lancamentos.subList(inicio, Math.min(inicio + TAMANHO_LOTE_IMPORTACAO, lancamentos.size()));
+			lote.forEach(lancamento -> lancamento.setStatus(StatusLancamento.PENDENTE));
+			salvos.addAll(repository.saveAll(lote));
+			entityManager.flush();
+			entityManager.clear();
+		}
+		registrarAlteracoes(Collections.emptyList(), agrupar(salvos), lancamentosPorUsuario(salvos));
+		atualizarIndiceAposCommit(Collections.emptyList(), salvos);
+		return salvos;
+	}
+
+	@Override
+	@Transactional
+	public Lancamento atualizarLancamento(Lancamento lancamento) {
+		Objects.requireNonNull(lancamento.getId());
+		validarLancamento(lancamento);
+		Optional<Lancamento> encontrado = repository.findById(lancamento.getId());
+		if(lancamento.getVersao() == null) {
+			encontrado.map(Lancamento::getVersao).ifPresent(lancamento::setVersao);
+		}
+		Lancamento anterior = encontrado.map(this::copiar).orElse(null);
+		
+		Map<Long, Long> versoes = reservarVersoes(lancamento, anterior);
+		lancamento.setVersaoAlteracao(versoes.get(idUsuario(lancamento)));
+		Long idUsuarioAnterior = anterior == null ? null : idUsuario(anterior);
+		if(idUsuarioAnterior != null && !idUsuarioAnterior.equals(idUsuario(lancamento))) {
+			sincronizacao.registrarExclusao(lancamento.getId(), idUsuarioAnterior, versoes.get(idUsuarioAnterior));
+		}
+		Lancamento atualizado = repository.save(lancamento);
+		registrarAlteracao(anterior, atualizado);
+		atualizarIndiceAposCommit(Collections.singletonList(anterior), Collections.singletonList(atualizado));
+		return atualizado;
+	}
+
+	@Override
+	@Transactional
+	public void deletarLancamento(Lancamento lancamento) {
+		Objects.requireNonNull(lancamento.getId());
+		Long versao = reservarVersoes(lancamento).get(idUsuario(lancamento));
+		if(versao != null) {
+			sincronizacao.registrarExclusao(lancamento.getId(), idUsuario(lancamento), versao);
+		}
+		repository.delete(lancamento);
+		registrarAlteracao(lancamento, null);
+		atualizarIndiceAposCommit(Collections.singletonList(lancamento), Collections.emptyList());
+	}
+
+	@Override
+	@Transactional
+	public Optional<Lancamento> atualizarLancamento(Long id, Lancamento lancamento) {
+		lancamento.setId(id);
+		validarLancamento(lancamento);
+		return escreverPorId(id, lancamento.getVersao(), anterior -> {
+			if(lancamento.getStatus() == null) {
+				lancamento.setStatus(anterior.getStatus());
+			}
+			return lancamento;
+		});
+	}
+
+	@Override
+	@Transactional
+	public Optional<Lancamento> atualizarStatus(Long id, StatusLancamento status, Long versaoEsperada) {
+		Objects.requireNonNull(status);
+		return escreverPorId(id, versaoEsperada, anterior -> {
+			anterior.setStatus(status);
+			return anterior;
+		});
+	}
+
+	@Override
+	@Transactional
+	public boolean deletarLancamento(Long id) {
+		return escreverPorId(id, null, anterior -> null).isPresent();
+	}
+
+	/**
+	 * Escreve um lançamento pelo id sem carregar a entidade: lê só as colunas que saldo, resumo e sincronização
+	 * precisam e aplica um UPDATE ou DELETE condicionado à versão lida. A leitura não trava o lançamento; a escrita
+	 * espera a trava do usuário em sincronizacao_usuario, como toda escrita. Se outra escrita for confirmada entre a
+	 * leitura e a escrita nenhuma linha é afetada e a leitura é refeita; quando o chamador informa a versão esperada,
+	 * encontrar outra versão é conflito.
+	 */
+	private Optional<Lancamento> escreverPorId(Long id, Long versaoEsperada, UnaryOperator<Lancamento> novoEstado) {
+		long versaoLida = 0l;
+		for(int tentativa = 0; tentativa < TENTATIVAS_ESCRITA_POR_ID; tentativa++) {
+			Optional<EstadoLancamento> estado = repository.buscarEstadoPorId(id);
+			if(!estado.isPresent()) {
+				return Optional.empty();
+			}
+			versaoLida = estado.get().getVersao() == null ? 0l : estado.get().getVersao();
+			if(versaoEsperada != null && versaoEsperada.longValue() != versaoLida) {
+				throw new ConflitoVersaoException("Lançamento alterado por outra operação; carregue a versão " 
+						+ versaoLida + " e repita a alteração.", versaoLida);
+			}
+			Lancamento anterior = copiar(estado.get());
+			Lancamento atual = novoEstado.apply(copiar(estado.get()));
+			
+			Map<Long, Long> versoes = reservarVersoes(anterior, atual);
+			int afetados;
+			if(atual == null) {
+				afetados = repository.deletarPorIdEVersao(id, versaoLida);
+			} else {
+				atual.setVersaoAlteracao(versoes.get(idUsuario(atual)));
+				atual.setVersao(versaoLida + 1);
+				afetados = repository.atualizarPorIdEVersao(atual, versaoLida);
+			}
+			if(afetados == 0) {
+				continue;
+			}
+			
+			Long idUsuarioAnterior = idUsuario(anterior);
+			if(idUsuarioAnterior != null && (atual == null || !idUsuarioAnterior.equals(idUsuario(atual)))) {
+				sincronizacao.registrarExclusao(id, idUsuarioAnterior, versoes.get(idUsuarioAnterior));
+			}
+			registrarAlteracao(anterior, atual);
+			atualizarIndiceAposCommit(Collections.singletonList(anterior), 
+					atual == null ? Collections.emptyList() : Collections.singletonList(atual));
+			return Optional.of(atual == null ? anterior : atual);
+		}
+		throw new ConflitoVersaoException("Lançamento alterado por outra operação, tente novamente.", versaoLida);
+	}
+
+	/**
+	 * Sem transação própria para que um acerto no cache não ocupe conexão; a consulta roda na transação somente
+	 * leitura do repositório.
+	 */
+	@Override
+	public List<Lancamento> buscarLancamentos(Lancamento lancamentoFiltro) {
+		return cacheBusca.obter(lancamentoFiltro, () -> especificacaoBusca(lancamentoFiltro)
+				.map(especificacao -> repository.findAll(especificacao, ORDENACAO_BUSCA))
+				.orElseGet(ArrayList::new));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoListagem> listarLancamentos(Lancamento lancamentoFiltro) {
+		return especificacaoBusca(lancamentoFiltro)
+				.map(especificacao -> repository.listar(especificacao, ORDENACAO_BUSCA))
+				.orElseGet(ArrayList::new);
+	}
+
+	/**
+	 * Resolve o filtro por descrição pelo índice em memória; vazio quando o índice já sabe que nada atende.
+	 */
+	private Optional<Specification<Lancamento>> especificacaoBusca(Lancamento lancamentoFiltro) {
+		boolean buscaPorDescricao = lancamentoFiltro.getDescricao() != null && !lancamentoFiltro.getDescricao().trim().isEmpty()
+				&& lancamentoFiltro.getUsuario() != null && lancamentoFiltro.getUsuario().getId() != null;
+		
+		if(buscaPorDescricao) {
+			Set<Long> ids = indiceDescricao.buscar(lancamentoFiltro.getUsuario().getId(), lancamentoFiltro.getDescricao());
+			if(ids.isEmpty()) {
+				return Optional.empty();
+			}
+			if(ids.size() <= MAXIMO_IDS_POR_DESCRICAO) {
+				return Optional.of(LancamentoSpecifications.filtro(lancamentoFiltro, ids));
+			}
+		}
+		return Optional.of(LancamentoSpecifications.filtro(lancamentoFiltro));
+	}
+
+	@Override
+	public List<String> sugerirDescricoes(Long idUsuario, String termo, int limite) {
+		return indiceDescricao.sugerir(idUsuario, termo, Math.max(1, Math.min(limite, MAXIMO_SUGESTOES)));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void exportarLancamentos(Long idUsuario, Consumer<Lancamento> consumidor) {
+		try (Stream<Lancamento> lancamentos = repository.buscarTodosPorUsuario(idUsuario)) {
+			lancamentos.forEach(lancamento -> {
+				consumidor.accept(lancamento);
+				entityManager.detach(lancamento);
+			});
+		}
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Lancamento> buscarPagina(Long idUsuario, Lancamento ultimoDaPaginaAnterior, int tamanho) {
+		if(tamanho < 1) {
+			tamanho = TAMANHO_PAGINA_PADRAO;
+		}
+		tamanho = Math.min(tamanho, TAMANHO_PAGINA_MAXIMO);
+		
+		if(ultimoDaPaginaAnterior == null) {
+			return repository.buscarPaginaPorUsuario(idUsuario, Integer.MIN_VALUE, Integer.MIN_VALUE, Long.MIN_VALUE,
+					tamanho);
+		}
+		return repository.buscarPaginaPorUsuario(idUsuario, ultimoDaPaginaAnterior.getAno(), 
+				ultimoDaPaginaAnterior.getMes(), ultimoDaPaginaAnterior.getId(), tamanho);
+	}
+
+	@Override
+	@Transactional
+	public int atualizarStatusEmLote(List<Long> ids, StatusLancamento status) {
+		Objects.requireNonNull(status);
+		List<Long> distintos = new ArrayList<>(new LinkedHashSet<>(ids));
+		List<List<Long>> lotes = new ArrayList<>();
+		Set<Long> usuarios = new HashSet<>();
+		for (int inicio = 0; inicio < distintos.size(); inicio += TAMANHO_LOTE_ATUALIZACAO) {
+			List<Long> lote = distintos.subList(inicio, Math.min(inicio + TAMANHO_LOTE_ATUALIZACAO, distintos.size()));
+			usuarios.addAll(repository.buscarUsuariosPorIds(lote));
+			lotes.add(lote);
+		}
+		// todos os usuários são travados antes de ler o que vai mudar, na ordem que evita deadlock: uma alteração
+		// confirmada por outra transação antes da trava já aparece no resumo, e nenhuma outra entra até o commit
+		Map<Long, Long> versoes = sincronizacao.reservarVersoes(usuarios);
+		List<List<ResumoMensal>> alteradosPorLote = new ArrayList<>(lotes.size());
+		for (List<Long> lote : lotes) {
+			alteradosPorLote.add(repository.calcularResumoPorIdsComStatusDiferente(lote, status));
+		}
+		// um lançamento pode ter mudado de usuário entre a busca dos usuários e a trava: o novo dono não foi travado
+		// nem tem versão reservada, e travá-lo agora fugiria da ordem que evita deadlock, então o cliente repete
+		for (List<ResumoMensal> alterados : alteradosPorLote) {
+			for (ResumoMensal grupo : alterados) {
+				if (!versoes.containsKey(grupo.getIdUsuario())) {
+					throw new ConflitoVersaoException("Lançamentos alterados por outra operação, tente novamente.", null);
+				}
+			}
+		}
+		
+		int atualizados = 0;
+		for (int i = 0; i < lotes.size(); i++) {
+			List<Long> lote = lotes.get(i);
+			List<ResumoMensal> alterados = alteradosPorLote.get(i);
+			Set<Long> usuariosDoLote = new TreeSet<>();
+			alterados.forEach(grupo -> usuariosDoLote.add(grupo.getIdUsuario()));
+			Map<Long, Set<Long>> lancamentosPorUsuario = new HashMap<>();
+			for (Long idUsuario : usuariosDoLote) {
+				atualizados += repository.atualizarStatusPorIdsEUsuario(lote, idUsuario, status, versoes.get(idUsuario));
+				lancamentosPorUsuario.put(idUsuario, new HashSet<>(repository.buscarIdsPorIdsEUsuario(lote, idUsuario)));
+			}
+			
+			List<ResumoMensal> comNovoStatus = new ArrayList<>(alterados.size());
+			for (ResumoMensal grupo : alterados) {
+				comNovoStatus.add(new ResumoMensal(grupo.getIdUsuario(), grupo.getAno(), grupo.getMes(), grupo.getTipo(),
+						status, grupo.getTotal(), grupo.getQuantidade()));
+			}
+			registrarAlteracoes(alterados, comNovoStatus, lancamentosPorUsuario);
+		}
+		return atualizados;
+	}
+
+	@Override
+	@Transactional
+	public int atualizarStatusEmLote(Long idUsuario, Integer ano, Integer mes, StatusLancamento statusAtual,
+			StatusLancamento status) {
+		return atualizarStatusEmLote(repository.buscarIdsPorUsuarioEMesEStatus(idUsuario, ano, mes, statusAtual), status);
+	}
+
+	@Override
+	@Transactional
+	public void atualizarStatus(Lancamento lancamento, StatusLancamento status) {
+		lancamento.setStatus(status);
+		atualizarLancamento(lancamento);
+	}
+
+	@Override
+	public void validarLancamento(Lancamento lancamento) {
+		
+		if(lancamento.getDescricao() == null || lancamento.getDescricao().trim().equals("")) {
+			throw new RegraNegocioException("Informe uma Descrição válida!");
+		}
+		
+		if(lancamento.getMes() == null || lancamento.getMes() < 1 || lancamento.getMes() > 12) {
+			throw new RegraNegocioException("Informe um Mês válido!");
+		}
+		
+		if(lancamento.getAno() == null || lancamento.getAno().toString().length() != 4) {
+			throw new RegraNegocioException("Informe um Ano válido!");
+		}
+		
+		if(lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null) {
+			throw new RegraNegocioException("Informe um Usuário válido!");
+		}
+		
+		if(lancamento.getValor() == null || lancamento.getValor().compareTo(BigDecimal.ZERO) < 1) {
+			throw new RegraNegocioException("Informe um Valor válido!");
+		}
+		
+		if(lancamento.getTipo() == null) {
+			throw new RegraNegocioException("Informe um Tipo de Lançamento!");
+		}
+		
+	}
+
+	@Override
+	public Optional<Lancamento> buscarPorId(Long id) {
+		return repository.findById(id);
+	}
+
+	@Override
+	public BigDecimal obterSaldoPorUsuario(Long id) {
+		// sem transação própria: quem aguarda um saldo em andamento não deve segurar uma conexão enquanto espera
+		return execucaoUnica.executar("saldo", new SimpleImmutableEntry<>(id, versaoDados.versao(id)), 
+				() -> saldoRepository.findById(id)
+					.map(SaldoUsuario::getSaldo)
+					.orElseGet(() -> recalcularSaldo(id)));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public AlteracoesLancamentos buscarAlteracoes(Long idUsuario, long versao) {
+		// a versão é lida primeiro: linhas confirmadas depois dela podem vir agora e de novo na próxima sincronização
+		long versaoAtual = sincronizacao.obterVersao(idUsuario);
+		if(versao <= 0 || versao > versaoAtual) {
+			Lancamento filtro = new Lancamento();
+			filtro.setUsuario(Usuario.builder().id(idUsuario).build());
+			return new AlteracoesLancamentos(versaoAtual, true, 
+					repository.listar(LancamentoSpecifications.filtro(filtro), ORDENACAO_BUSCA), Collections.emptyList());
+		}
+		List<LancamentoListagem> alterados = repository.buscarAlteradosDesde(idUsuario, versao);
+		// um lançamento que saiu do usuário e voltou tem marca de exclusão anterior à alteração que o trouxe de volta
+		Set<Long> idsAlterados = new HashSet<>();
+		alterados.forEach(lancamento -> idsAlterados.add(lancamento.getId()));
+		List<Long> excluidos = new ArrayList<>();
+		for (Long id : sincronizacao.buscarExcluidosDesde(idUsuario, versao)) {
+			if (idsAlterados.add(id)) {
+				excluidos.add(id);
+			}
+		}
+		return new AlteracoesLancamentos(versaoAtual, false, alterados, excluidos);
+	}
+
+	@Override
+	public String obterVersaoDados(Long idUsuario) {
+		return versaoDados.identificador(idUsuario);
+	}
+
+	@Override
+	@Transactional
+	public boolean reconciliarSaldo(Long id) {
+		BigDecimal saldoRecalculado = recalcularSaldo(id);
+		Optional<SaldoUsuario> saldoMantido = saldoRepository.findById(id);
+
+		if(saldoMantido.isPresent() && saldoMantido.get().getSaldo().compareTo(saldoRecalculado) == 0) {
+			return true;
+		}
+		
+		saldoRepository.save(new SaldoUsuario(id, saldoRecalculado));
+		return !saldoMantido.isPresent();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<ResumoMensal> obterResumoMensal(Long idUsuario, Integer ano, StatusLancamento status) {
+		if(ano == null) {
+			return resumoRepository.findByIdUsuarioAndStatusOrderByAnoAscMesAsc(idUsuario, status);
+		}
+		return resumoRepository.findByIdUsuarioAndAnoAndStatusOrderByMesAsc(idUsuario, ano, status);
+	}
+
+	@Override
+	@Transactional
+	public void reconstruirResumoMensal(Long idUsuario) {
+		resumoRepository.deletarPorUsuario(idUsuario);
+		resumoRepository.saveAll(repository.calcularResumoMensalPorUsuario(idUsuario));
+	}
+
+	private BigDecimal recalcularSaldo(Long idUsuario) {
+		BigDecimal saldo = repository.obterSaldoPorUsuarioEStatus(idUsuario, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
+
+		if(saldo == null) {
+			saldo = BigDecimal.ZERO;
+		}
+		
+		return saldo;
+	}
+
+	private Map<Long, Long> reservarVersoes(Lancamento... lancamentos) {
+		Set<Long> usuarios = new HashSet<>();
+		for (Lancamento lancamento : lancamentos) {
+			if(lancamento != null && idUsuario(lancamento) != null) {
+				usuarios.add(idUsuario(lancamento));
+			}
+		}
+		return usuarios.isEmpty() ? Collections.emptyMap() : sincronizacao.reservarVersoes(usuarios);
+	}
+
+	private Long idUsuario(Lancamento lancamento) {
+		return lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId();
+	}
+
+	private void registrarAlteracao(Lancamento anterior, Lancamento atual) {
+		registrarAlteracoes(agrupar(Collections.singletonList(anterior)), agrupar(Collections.singletonList(atual)),
+				lancamentosPorUsuario(Arrays.asList(anterior, atual)));
+	}
+
+	/**
+	 * Aplica ao saldo e ao resumo mensal a troca de um conjunto de grupos de lançamentos por outro.
+	 * Cada grupo é representado por um {@link ResumoMensal} com o total e a quantidade de lançamentos.
+	 */
+	private void registrarAlteracoes(Collection<ResumoMensal> removidos, Collection<ResumoMensal> adicionados,
+			Map<Long, Set<Long>> lancamentosPorUsuario) {
+		Map<Long, BigDecimal> deltasSaldo = new HashMap<>();
+		Map<ChaveResumo, BigDecimal[]> deltasResumo = new HashMap<>();
+		
+		removidos.forEach(grupo -> acumular(deltasSaldo, deltasResumo, grupo, -1));
+		adicionados.forEach(grupo -> acumular(deltasSaldo, deltasResumo, grupo, 1));
+		
+		deltasSaldo.forEach(this::aplicarDeltaSaldo);
+		deltasResumo.forEach(this::aplicarDeltaResumo);
+		
+		if(!lancamentosPorUsuario.isEmpty()) {
+			eventPublisher.publishEvent(new LancamentosAlteradosEvent(lancamentosPorUsuario));
+		}
+	}
+
+	private Map<Long, Set<Long>> lancamentosPorUsuario(Collection<Lancamento> lancamentos) {
+		Map<Long, Set<Long>> lancamentosPorUsuario = new HashMap<>();
+		for (Lancamento lancamento : lancamentos) {
+			if(lancamento != null && idUsuario(lancamento) != null) {
+				lancamentosPorUsuario.computeIfAbsent(idUsuario(lancamento), id -> new HashSet<>()).add(lancamento.getId());
+			}
+		}
+		return lancamentosPorUsuario;
+	}
+
+	private List<ResumoMensal> agrupar(Collection<Lancamento> lancamentos) {
+		List<ResumoMensal> grupos = new ArrayList<>(lancamentos.size());
+		for (Lancamento lancamento : lancamentos) {
+			if(lancamento != null && lancamento.getUsuario() != null && lancamento.getUsuario().getId() != null
+					&& lancamento.getValor() != null) {
+				grupos.add(new ResumoMensal(lancamento.getUsuario().getId(), lancamento.getAno(), lancamento.getMes(),
+						lancamento.getTipo(), lancamento.getStatus(), lancamento.getValor(), 1l));
+			}
+		}
+		return grupos;
+	}
+
+	private void acumular(Map<Long, BigDecimal> deltasSaldo, Map<ChaveResumo, BigDecimal[]> deltasResumo,
+			ResumoMensal grupo, int sinal) {
+		BigDecimal fator = BigDecimal.valueOf(sinal);
+		deltasSaldo.merge(grupo.getIdUsuario(), contribuicaoNoSaldo(grupo).multiply(fator), BigDecimal::add);
+		
+		BigDecimal[] delta = deltasResumo.computeIfAbsent(new ChaveResumo(grupo),
+				chave -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+		delta[0] = delta[0].add(grupo.getTotal().multiply(fator));
+		delta[1] = delta[1].add(BigDecimal.valueOf(grupo.getQuantidade()).multiply(fator));
+	}
+
+	private BigDecimal contribuicaoNoSaldo(ResumoMensal grupo) {
+		if(grupo.getStatus() != StatusLancamento.EFETIVADO) {
+			return BigDecimal.ZERO;
+		}
+		return grupo.getTipo() == TipoLancamento.RECEITA ? grupo.getTotal() : grupo.getTotal().negate();
+	}
+
+	private void aplicarDeltaSaldo(Long idUsuario, BigDecimal delta) {
+		if(delta.signum() == 0) {
+			return;
+		}
+		// Usuário ainda sem linha na tabela de saldo: o recálculo já enxerga esta escrita
+		if(saldoRepository.adicionarAoSaldo(idUsuario, delta) == 0) {
+			saldoRepository.save(new SaldoUsuario(idUsuario, recalcularSaldo(idUsuario)));
+		}
+	}
+
+	private void aplicarDeltaResumo(ChaveResumo chave, BigDecimal[] delta) {
+		if(delta[0].signum() == 0 && delta[1].signum() == 0) {
+			return;
+		}
+		int atualizados = resumoRepository.adicionarAoResumo(chave.idUsuario, chave.ano, chave.mes, chave.tipo,
+				chave.status, delta[0], delta[1].longValue());
+		if(atualizados == 0) {
+			TotalLancamentos total = repository.obterTotalPorUsuarioEMes(chave.idUsuario, chave.ano, chave.mes,
+					chave.tipo, chave.status);
+			if(total != null && total.getQuantidade() > 0) {
+				resumoRepository.save(new ResumoMensal(chave.idUsuario, chave.ano, chave.mes, chave.tipo, 
+						chave.status, total.getTotal(), total.getQuantidade()));
+			}
+		}
+	}
+
+	private void atualizarIndiceAposCommit(Collection<Lancamento> removidos, Collection<Lancamento> adicionados) {
+		List<Object[]> remocoes = new ArrayList<>();
+		List<Object[]> adicoes = new ArrayList<>();
+		for (Lancamento lancamento : removidos) {
+			if(lancamento != null && lancamento.getUsuario() != null) {
+				remocoes.add(new Object[] { lancamento.getUsuario().getId(), lancamento.getId() });
+			}
+		}
+		for (Lancamento lancamento : adicionados) {
+			if(lancamento != null && lancamento.getUsuario() != null) {
+				adicoes.add(new Object[] { lancamento.getUsuario().getId(), lancamento.getId(), lancamento.getDescricao() });
+			}
+		}
+		aposCommit(() -> {
+			remocoes.forEach(remocao -> indiceDescricao.remover((Long) remocao[0], (Long) remocao[1]));
+			adicoes.forEach(adicao -> indiceDescricao.adicionar((Long) adicao[0], (Long) adicao[1], (String) adicao[2]));
+		});
+	}
+
+	private void aposCommit(Runnable acao) {
+		if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+			acao.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				acao.run();
+			}
+		});
+	}
+
+	private Lancamento copiar(EstadoLancamento estado) {
+		Lancamento copia = new Lancamento(estado.getDescricao(), estado.getAno(), estado.getMes(), estado.getValor(),
+				estado.getIdUsuario() == null ? null : Usuario.builder().id(estado.getIdUsuario()).build(), null,
+				estado.getTipo(), estado.getStatus());
+		copia.setId(estado.getId());
+		copia.setVersaoAlteracao(estado.getVersaoAlteracao());
+		copia.setVersao(estado.getVersao());
+		return copia;
+	}
+
+	private Lancamento copiar(Lancamento lancamento) {
+		Lancamento copia = new Lancamento(lancamento.getDescricao(), lancamento.getAno(), lancamento.getMes(),
+				lancamento.getValor(), lancamento.getUsuario(), lancamento.getDataCadastro(),
+				lancamento.getTipo(), lancamento.getStatus());
+		copia.setId(lancamento.getId());
+		return copia;
+	}
+
+	private static final class ChaveResumo {
+
+		private final Long idUsuario;
+		private final Integer ano;
+		private final Integer mes;
+		private final TipoLancamento tipo;
+		private final StatusLancamento status;
+
+		private ChaveResumo(ResumoMensal grupo) {
+			this.idUsuario = grupo.getIdUsuario();
+			this.ano = grupo.getAno();
+			this.mes = grupo.getMes();
+			this.tipo = grupo.getTipo();
+			this.status = grupo.getStatus();
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(idUsuario, ano, mes, tipo, status);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof ChaveResumo))
+				return false;
+			ChaveResumo other = (ChaveResumo) obj;
+			return Objects.equals(idUsuario, other.idUsuario) && Objects.equals(ano, other.ano)
+					&& Objects.equals(mes, other.mes) && tipo == other.tipo && status == other.status;
+		}
+	}
+}
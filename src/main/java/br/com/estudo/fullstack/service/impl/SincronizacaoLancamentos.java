@@ -0,0 +1,85 @@
+package br.com.estudo.fullstack.service.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.estudo.fullstack.model.entity.LancamentoExcluido;
+import br.com.estudo.fullstack.model.entity.SincronizacaoUsuario;
+import br.com.estudo.fullstack.model.repository.LancamentoExcluidoRepository;
+import br.com.estudo.fullstack.model.repository.SincronizacaoUsuarioRepository;
+
+/**
+ * Atribui as versões de alteração usadas na sincronização incremental e registra as exclusões.
+ */
+@Component
+public class SincronizacaoLancamentos {
+
+	private SincronizacaoUsuarioRepository repository;
+
+	private LancamentoExcluidoRepository excluidoRepository;
+
+	private TransactionTemplate novaTransacao;
+
+	public SincronizacaoLancamentos(SincronizacaoUsuarioRepository repository,
+			LancamentoExcluidoRepository excluidoRepository, PlatformTransactionManager transactionManager) {
+		this.repository = repository;
+		this.excluidoRepository = excluidoRepository;
+		this.novaTransacao = new TransactionTemplate(transactionManager);
+		this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/**
+	 * Reserva a próxima versão de cada usuário na transação corrente. A trava na linha do usuário dura até o commit
+	 * e os usuários são travados sempre em ordem crescente de id, evitando deadlock entre escritas de vários usuários.
+	 * Na primeira escrita do usuário a linha é criada antes, fora da transação corrente, para que toda escrita passe
+	 * pela mesma trava, inclusive as que criam as linhas de saldo e resumo.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public Map<Long, Long> reservarVersoes(Collection<Long> usuarios) {
+		Map<Long, Long> versoes = new TreeMap<>();
+		for (Long idUsuario : new TreeSet<>(usuarios)) {
+			if (repository.incrementarVersao(idUsuario) == 0) {
+				criarVersao(idUsuario);
+				repository.incrementarVersao(idUsuario);
+			}
+			versoes.put(idUsuario, repository.obterVersao(idUsuario));
+		}
+		return versoes;
+	}
+
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registrarExclusao(Long idLancamento, Long idUsuario, Long versao) {
+		excluidoRepository.save(LancamentoExcluido.builder()
+				.idLancamento(idLancamento)
+				.idUsuario(idUsuario)
+				.versaoAlteracao(versao).build());
+	}
+
+	public long obterVersao(Long idUsuario) {
+		Long versao = repository.obterVersao(idUsuario);
+		return versao == null ? 0l : versao;
+	}
+
+	public List<Long> buscarExcluidosDesde(Long idUsuario, long versao) {
+		return excluidoRepository.buscarIdsExcluidosDesde(idUsuario, versao);
+	}
+
+	private void criarVersao(Long idUsuario) {
+		try {
+			novaTransacao.executeWithoutResult(status -> repository.saveAndFlush(new SincronizacaoUsuario(idUsuario, 0l)));
+		} catch (DataIntegrityViolationException e) {
+			// outra escrita criou a linha primeiro; o incremento seguinte aguarda a trava dela
+		}
+	}
+}
@@ -1,59 +1,69 @@
-package br.com.estudo.fullstack.service.impl;
-
-
-import java.util.Optional;
-
-import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import br.com.estudo.fullstack.exception.ErroAutenticacaoException;
-import br.com.estudo.fullstack.exception.RegraNegocioException;
-import br.com.estudo.fullstack.model.entity.Usuario;
-import br.com.estudo.fullstack.model.repository.UsuarioRepository;
-import br.com.estudo.fullstack.service.UsuarioService;
-
-@Service
-public class UsuarioServiceImpl implements UsuarioService {
-
-	private UsuarioRepository repository;
-
-	public UsuarioServiceImpl(UsuarioRepository repository) {
-		super();
-		this.repository = repository;
-	}
-
-	@Override
-	public Usuario autenticar(String email, String senha) {
-		Usuario usuario = repository.findByEmail(email);
-		if(usuario == null) {
-			throw new ErroAutenticacaoException("Não existe um usuário cadastrado com este e-mail!");
-		}
-		if(!usuario.getSenha().equals(senha)) {
-			throw new ErroAutenticacaoException("Senha incorreta!");
-		}
-		return usuario;
-	}
-
-	@Override
-	@Transactional
-	public Usuario salvarUsuario(Usuario usuario) {
-
-		validarEmail(usuario.getEmail());
-		return repository.save(usuario);
-	}
-
-	@Override
-	public void validarEmail(String email) {
-		if(repository.existsByEmail(email)) {
-			throw new RegraNegocioException("Já existe um usuário cadastrado com este e-mail!");
-		};
-		
-	}
-
-	@Override
-	public Optional<Usuario> buscarPorId(Long id) {
-		return repository.findById(id);
-	}
-	
-	
-}
+package br.com.estudo.fullstack.service.impl;
+
+
+import java.util.Optional;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.estudo.fullstack.exception.ErroAutenticacaoException;
+import br.com.estudo.fullstack.exception.RegraNegocioException;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.repository.UsuarioRepository;
+import br.com.estudo.fullstack.service.UsuarioService;
+
+@Service
+public class UsuarioServiceImpl implements UsuarioService {
+
+	public static final String CACHE_USUARIOS = "usuarios";
+
+	private UsuarioRepository repository;
+
+	public UsuarioServiceImpl(UsuarioRepository repository) {
+		super();
+		this.repository = repository;
+	}
+
+	@Override
+	public Usuario autenticar(String email, String senha) {
+		Usuario usuario = repository.findByEmail(email);
+		if(usuario == null) {
+			throw new ErroAutenticacaoException("Não existe um usuário cadastrado com este e-mail!");
+		}
+		if(!usuario.getSenha().equals(senha)) {
+			throw new ErroAutenticacaoException("Senha incorreta!");
+		}
+		return usuario;
+	}
+
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = CACHE_USUARIOS, key = "#usuario.id", condition = "#usuario.id != null")
+	public Usuario salvarUsuario(Usuario usuario) {
+
+		validarEmail(usuario.getEmail());
+		return repository.save(usuario);
+	}
+
+	@Override
+	public void validarEmail(String email) {
+		if(repository.existsByEmail(email)) {
+			throw new RegraNegocioException("Já existe um usuário cadastrado com este e-mail!");
+		};
+		
+	}
+
+	/**
+	 * Usuários mudam raramente e são consultados em toda operação de lançamento; a instância devolvida vem do cache,
+	 * desanexada e compartilhada, e não deve ser alterada por quem a recebe. Ids inexistentes não são guardados.
+	 */
+	@Override
+	@Cacheable(cacheNames = CACHE_USUARIOS, unless = "#result == null")
+	public Optional<Usuario> buscarPorId(Long id) {
+		return repository.findById(id);
+	}
+	
+	
+}
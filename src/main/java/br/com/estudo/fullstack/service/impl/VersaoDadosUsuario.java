@@ -0,0 +1,29 @@
+package br.com.estudo.fullstack.service.impl;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Versão dos lançamentos de cada usuário, lida da linha de sincronização do usuário no banco. Toda escrita confirmada
+ * incrementa essa linha, em qualquer instância, o que permite invalidar tudo que foi derivado dos dados do usuário
+ * apenas trocando a versão que compõe a chave, inclusive quando a escrita passou por outra instância.
+ */
+@Component
+public class VersaoDadosUsuario {
+
+	private final SincronizacaoLancamentos sincronizacao;
+
+	public VersaoDadosUsuario(SincronizacaoLancamentos sincronizacao) {
+		this.sincronizacao = sincronizacao;
+	}
+
+	public long versao(Long idUsuario) {
+		return sincronizacao.obterVersao(idUsuario);
+	}
+
+	/**
+	 * Versão própria para ser enviada a clientes, como ETag: é a mesma em todas as instâncias.
+	 */
+	public String identificador(Long idUsuario) {
+		return Long.toString(versao(idUsuario));
+	}
+}
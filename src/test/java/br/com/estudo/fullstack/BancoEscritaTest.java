@@ -0,0 +1,38 @@
+package br.com.estudo.fullstack;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.repository.LancamentoRepositoryTest;
+import br.com.estudo.fullstack.model.repository.UsuarioRepository;
+
+/**
+ * Base dos testes que confirmam escritas pelo serviço, sem transação de teste para desfazer: todos usam o mesmo H2
+ * e, com as mesmas propriedades, o mesmo contexto em cache. Cada teste cria o próprio usuário para não depender do
+ * que os outros gravaram.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:escrita;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas" })
+@ActiveProfiles("test")
+public abstract class BancoEscritaTest {
+
+	@Autowired
+	protected UsuarioRepository usuarioRepository;
+
+	protected Usuario criarUsuario() {
+		return usuarioRepository.save(Usuario.builder().nome("escrita")
+				.email("escrita" + System.nanoTime() + "@email.com").senha("senha").build());
+	}
+
+	protected static Lancamento novoLancamento(Usuario usuario) {
+		Lancamento novo = LancamentoRepositoryTest.criarLancamento();
+		novo.setUsuario(usuario);
+		return novo;
+	}
+}
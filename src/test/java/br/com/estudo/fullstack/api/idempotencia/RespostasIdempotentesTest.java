@@ -0,0 +1,219 @@
+package br.com.estudo.fullstack.api.idempotencia;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.estudo.fullstack.BancoEscritaTest;
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.RespostaIdempotente;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.repository.LancamentoRepository;
+import br.com.estudo.fullstack.model.repository.RespostaIdempotenteRepository;
+import br.com.estudo.fullstack.service.LancamentoService;
+import br.com.estudo.fullstack.service.impl.ExecucaoUnica;
+
+public class RespostasIdempotentesTest extends BancoEscritaTest {
+
+	@Autowired
+	RespostasIdempotentes respostas;
+
+	@Autowired
+	RespostaIdempotenteRepository repository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	ExecucaoUnica execucaoUnica;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+
+	@Test
+	public void repeticaoDevolveRespostaOriginalSemExecutarDeNovoTest() {
+		String chave = novaChave();
+		Usuario usuario = criarUsuario();
+		AtomicInteger execucoes = new AtomicInteger();
+
+		ResponseEntity primeira = respostas.executar("salvar", chave, "requisicao", () -> {
+			execucoes.incrementAndGet();
+			Lancamento novo = novoLancamento(usuario);
+			return new ResponseEntity(lancamentoService.salvarLancamento(novo), HttpStatus.CREATED);
+		});
+		ResponseEntity repetida = respostas.executar("salvar", chave, "requisicao", () -> {
+			execucoes.incrementAndGet();
+			return new ResponseEntity(HttpStatus.CREATED);
+		});
+
+		assertEquals(1, execucoes.get());
+		assertEquals(HttpStatus.CREATED, repetida.getStatusCode());
+		assertEquals("true", repetida.getHeaders().getFirst(RespostasIdempotentes.CABECALHO_REPETIDA));
+		Long id = ((Lancamento) primeira.getBody()).getId();
+		assertTrue(((String) repetida.getBody()).startsWith("{\"id\":" + id + ","));
+		assertEquals(1, lancamentoRepository.findAll().stream()
+				.filter(lancamento -> lancamento.getUsuario().getId().equals(usuario.getId())).count());
+	}
+
+	@Test
+	public void mesmaChaveComOutraRequisicaoEhRecusadaTest() {
+		String chave = novaChave();
+		respostas.executar("salvar", chave, "requisicao", () -> new ResponseEntity(HttpStatus.CREATED));
+
+		ResponseEntity outra = respostas.executar("salvar", chave, "outra requisicao", () -> new ResponseEntity(HttpStatus.CREATED));
+
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, outra.getStatusCode());
+	}
+
+	@Test
+	public void chaveValeSoParaAOperacaoTest() {
+		String chave = novaChave();
+		AtomicInteger execucoes = new AtomicInteger();
+
+		respostas.executar("salvar", chave, "requisicao", () -> new ResponseEntity(execucoes.incrementAndGet(), HttpStatus.OK));
+		respostas.executar("importar", chave, "requisicao", () -> new ResponseEntity(execucoes.incrementAndGet(), HttpStatus.OK));
+
+		assertEquals(2, execucoes.get());
+	}
+
+	@Test
+	public void respostaDeErroNaoEhGuardadaEDesfazEscritasTest() {
+		String chave = novaChave();
+		Usuario usuario = criarUsuario();
+
+		ResponseEntity recusada = respostas.executar("salvar", chave, "requisicao", () -> {
+			Lancamento novo = novoLancamento(usuario);
+			lancamentoService.salvarLancamento(novo);
+			return ResponseEntity.badRequest().body("Recusada.");
+		});
+		ResponseEntity aceita = respostas.executar("salvar", chave, "requisicao", () -> new ResponseEntity(HttpStatus.CREATED));
+
+		assertEquals(HttpStatus.BAD_REQUEST, recusada.getStatusCode());
+		assertEquals(HttpStatus.CREATED, aceita.getStatusCode());
+		assertNull(aceita.getHeaders().getFirst(RespostasIdempotentes.CABECALHO_REPETIDA));
+		assertEquals(0, lancamentoService.obterSaldoPorUsuario(usuario.getId()).signum());
+	}
+
+	@Test
+	public void outraInstanciaRepeteRespostaGuardadaNoBancoTest() {
+		String chave = novaChave();
+		respostas.executar("salvar", chave, "requisicao", () -> new ResponseEntity(Collections.singletonMap("id", 7), HttpStatus.CREATED));
+
+		ResponseEntity repetida = novaInstancia(execucaoUnica).executar("salvar", chave, "requisicao", () -> {
+			throw new AssertionError("A requisição não deveria ser executada de novo.");
+		});
+
+		assertEquals(HttpStatus.CREATED, repetida.getStatusCode());
+		assertEquals("{\"id\":7}", repetida.getBody());
+	}
+
+	@Test
+	public void chaveConfirmadaPorOutraInstanciaDesfazEstaExecucaoTest() throws Exception {
+		String chave = novaChave();
+		RespostasIdempotentes outraInstancia = novaInstancia(new ExecucaoUnica());
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			ResponseEntity resposta = respostas.executar("salvar", chave, "requisicao", () -> {
+				// a outra instância recebe a repetição e confirma antes desta terminar
+				Future<ResponseEntity> primeira = executor.submit(() -> outraInstancia.executar("salvar", chave, "requisicao",
+						() -> new ResponseEntity(Collections.singletonMap("instancia", "outra"), HttpStatus.CREATED)));
+				aguardar(primeira);
+				return new ResponseEntity(Collections.singletonMap("instancia", "esta"), HttpStatus.CREATED);
+			});
+
+			assertEquals("{\"instancia\":\"outra\"}", resposta.getBody());
+			assertEquals("true", resposta.getHeaders().getFirst(RespostasIdempotentes.CABECALHO_REPETIDA));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void repeticoesSimultaneasExecutamUmaVezTest() throws Exception {
+		String chave = novaChave();
+		AtomicInteger execucoes = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<ResponseEntity>> resultados = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				resultados.add(executor.submit(() -> respostas.executar("salvar", chave, "requisicao", () -> {
+					execucoes.incrementAndGet();
+					try {
+						Thread.sleep(50);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return new ResponseEntity(HttpStatus.CREATED);
+				})));
+			}
+			for (Future<ResponseEntity> resultado : resultados) {
+				assertEquals(HttpStatus.CREATED, resultado.get(10, TimeUnit.SECONDS).getStatusCode());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, execucoes.get());
+	}
+
+	@Test
+	public void removerExpiradasTest() {
+		String expirada = "salvar:" + novaChave();
+		repository.save(RespostaIdempotente.builder().chave(expirada).resumoRequisicao("resumo").status(201)
+				.criacao(LocalDateTime.now().minusDays(2)).build());
+		String recente = novaChave();
+		respostas.executar("salvar", recente, "requisicao", () -> new ResponseEntity(HttpStatus.CREATED));
+
+		respostas.removerExpiradas();
+
+		assertFalse(repository.findById(expirada).isPresent());
+		assertTrue(repository.findById("salvar:" + recente).isPresent());
+	}
+
+	@Test
+	public void semChaveExecutaSempreTest() {
+		AtomicInteger execucoes = new AtomicInteger();
+
+		respostas.executar("salvar", null, "requisicao", () -> new ResponseEntity(execucoes.incrementAndGet(), HttpStatus.OK));
+		respostas.executar("salvar", " ", "requisicao", () -> new ResponseEntity(execucoes.incrementAndGet(), HttpStatus.OK));
+
+		assertEquals(2, execucoes.get());
+	}
+
+	private RespostasIdempotentes novaInstancia(ExecucaoUnica execucaoUnica) {
+		return new RespostasIdempotentes(repository, transactionManager, execucaoUnica, objectMapper, 24, 100);
+	}
+
+	private static void aguardar(Future<ResponseEntity> resultado) {
+		try {
+			resultado.get(10, TimeUnit.SECONDS);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String novaChave() {
+		return "chave-" + System.nanoTime();
+	}
+}
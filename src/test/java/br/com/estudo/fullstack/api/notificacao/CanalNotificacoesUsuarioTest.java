@@ -0,0 +1,193 @@
+package br.com.estudo.fullstack.api.notificacao;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.repository.LancamentoRepositoryTest;
+import br.com.estudo.fullstack.model.repository.UsuarioRepository;
+import br.com.estudo.fullstack.service.LancamentoService;
+import br.com.estudo.fullstack.service.LancamentosAlteradosEvent;
+import br.com.estudo.fullstack.service.impl.VersaoDadosUsuario;
+
+/**
+ * O espião exige um contexto próprio, então o teste usa um banco próprio: o mesmo banco recriado por outro contexto
+ * reiniciaria as sequências usadas pelo contexto compartilhado.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:notificacao;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas" })
+@ActiveProfiles("test")
+public class CanalNotificacoesUsuarioTest {
+
+	@SpyBean
+	CanalNotificacoesUsuario canal;
+
+	@Autowired
+	VersaoDadosUsuario versaoDados;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Test
+	public void notificacaoEncontraVersaoDaEscritaConfirmadaTest() {
+		Usuario usuario = usuarioRepository.save(Usuario.builder().nome("notificacao")
+				.email("notificacao" + System.nanoTime() + "@email.com").senha("senha").build());
+		long versaoAnterior = versaoDados.versao(usuario.getId());
+		List<Long> versoesVistas = new ArrayList<>();
+		Mockito.doAnswer(chamada -> {
+			versoesVistas.add(versaoDados.versao(usuario.getId()));
+			return chamada.callRealMethod();
+		}).when(canal).aoAlterarLancamentos(Mockito.any(LancamentosAlteradosEvent.class));
+
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamentoService.salvarLancamento(lancamento);
+
+		assertEquals(1, versoesVistas.size());
+		assertTrue(versoesVistas.get(0) > versaoAnterior);
+	}
+
+	@Test
+	public void conexaoParadaNaoAtrasaAsDemaisEEncerradaPorTimeoutTest() throws Exception {
+		LancamentoService saldos = Mockito.mock(LancamentoService.class);
+		Mockito.when(saldos.obterSaldoPorUsuario(Mockito.anyLong())).thenReturn(BigDecimal.valueOf(700));
+		CanalNotificacoesUsuario canalIsolado = new CanalNotificacoesUsuario(saldos, new ObjectMapper(), 32, 10, 30, 1, 200);
+		try {
+			SaidaControlada parada = new SaidaControlada(false);
+			SaidaControlada ativa = new SaidaControlada(true);
+			MockHttpServletRequest requisicaoParada = assinar(canalIsolado, 1l, parada);
+			assinar(canalIsolado, 2l, ativa);
+			aguardar(() -> ativa.conteudo().endsWith("\n\n"));
+
+			canalIsolado.aoAlterarLancamentos(new LancamentosAlteradosEvent(Collections.singletonMap(2l, Collections.singleton(9l))));
+
+			aguardar(() -> ativa.conteudo().contains("\"lancamentos\":[9]"));
+			assertEquals("event:saldo\ndata:{\"usuario\":2,\"saldo\":700,\"lancamentos\":[]}\n\n"
+					+ "event:saldo\ndata:{\"usuario\":2,\"saldo\":700,\"lancamentos\":[9]}\n\n", ativa.conteudo());
+			aguardar(() -> canalIsolado.quantidadeAssinantes(1l) == 0);
+			assertEquals("", parada.conteudo());
+			assertFalse(requisicaoParada.isAsyncStarted());
+			assertEquals(1, canalIsolado.quantidadeAssinantes(2l));
+		} finally {
+			canalIsolado.encerrar();
+		}
+	}
+
+	@Test
+	public void alteracoesAcumuladasSaemNumEventoComSaldoMaisRecenteTest() throws Exception {
+		AtomicReference<BigDecimal> saldoAtual = new AtomicReference<>(BigDecimal.valueOf(700));
+		LancamentoService saldos = Mockito.mock(LancamentoService.class);
+		Mockito.when(saldos.obterSaldoPorUsuario(1l)).thenAnswer(chamada -> saldoAtual.get());
+		CanalNotificacoesUsuario canalIsolado = new CanalNotificacoesUsuario(saldos, new ObjectMapper(), 32, 10, 30, 1, 60_000);
+		try {
+			SaidaControlada saida = new SaidaControlada(false);
+			assinar(canalIsolado, 1l, saida);
+
+			saldoAtual.set(BigDecimal.valueOf(450));
+			canalIsolado.aoAlterarLancamentos(new LancamentosAlteradosEvent(Collections.singletonMap(1l, Collections.singleton(9l))));
+			saldoAtual.set(BigDecimal.valueOf(300));
+			canalIsolado.aoAlterarLancamentos(new LancamentosAlteradosEvent(Collections.singletonMap(1l, new HashSet<>(Arrays.asList(10l)))));
+			saida.liberar();
+
+			aguardar(() -> saida.conteudo().endsWith("\n\n"));
+			assertEquals("event:saldo\ndata:{\"usuario\":1,\"saldo\":300,\"lancamentos\":[9,10]}\n\n", saida.conteudo());
+		} finally {
+			canalIsolado.encerrar();
+		}
+	}
+
+	private static MockHttpServletRequest assinar(CanalNotificacoesUsuario canalIsolado, Long idUsuario,
+			SaidaControlada saida) throws Exception {
+		MockHttpServletRequest requisicao = new MockHttpServletRequest();
+		requisicao.setAsyncSupported(true);
+		canalIsolado.assinar(idUsuario, requisicao, new HttpServletResponseWrapper(new MockHttpServletResponse()) {
+			@Override
+			public ServletOutputStream getOutputStream() {
+				return saida;
+			}
+		});
+		// O servidor avisa que a conexão aceita escrita logo após o registro do ouvinte
+		saida.ouvinte.onWritePossible();
+		return requisicao;
+	}
+
+	private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+		long limite = System.currentTimeMillis() + 5000;
+		while (!condicao.getAsBoolean() && System.currentTimeMillis() < limite) {
+			Thread.sleep(20);
+		}
+	}
+
+	/**
+	 * Saída não bloqueante cujo espaço para escrita é controlado pelo teste, como um cliente que parou de ler.
+	 */
+	private static final class SaidaControlada extends ServletOutputStream {
+
+		private final ByteArrayOutputStream escrito = new ByteArrayOutputStream();
+
+		private volatile boolean pronta;
+
+		private volatile WriteListener ouvinte;
+
+		private SaidaControlada(boolean pronta) {
+			this.pronta = pronta;
+		}
+
+		private void liberar() throws IOException {
+			pronta = true;
+			ouvinte.onWritePossible();
+		}
+
+		private synchronized String conteudo() {
+			return new String(escrito.toByteArray(), StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public boolean isReady() {
+			return pronta;
+		}
+
+		@Override
+		public void setWriteListener(WriteListener ouvinte) {
+			this.ouvinte = ouvinte;
+		}
+
+		@Override
+		public synchronized void write(int b) {
+			escrito.write(b);
+		}
+	}
+}
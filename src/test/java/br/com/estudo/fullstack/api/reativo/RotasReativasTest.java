@@ -0,0 +1,154 @@
+package br.com.estudo.fullstack.api.reativo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.repository.LancamentoRepositoryTest;
+import br.com.estudo.fullstack.model.repository.UsuarioRepository;
+import br.com.estudo.fullstack.service.LancamentoService;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:reativo;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas",
+		"financas.reativo.habilitado=true",
+		"financas.reativo.url=r2dbc:h2:mem:///reativo?options=DB_CLOSE_DELAY=-1" })
+@ActiveProfiles("test")
+public class RotasReativasTest {
+
+	static final int CLIENTES = 1000;
+	static final int CLIENTES_LENTOS = 200;
+
+	@Autowired
+	ServidorReativo servidor;
+
+	@Autowired
+	LancamentoService service;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	WebTestClient cliente;
+
+	Usuario usuario;
+
+	@BeforeEach
+	public void setUp() {
+		cliente = WebTestClient.bindToServer().baseUrl(url()).build();
+		usuario = usuarioRepository.save(Usuario.builder().nome("rotas")
+				.email("rotas" + System.nanoTime() + "@email.com").senha("senha").build());
+	}
+
+	@Test
+	public void listarComoNdjsonTest() {
+		Lancamento lancamento = salvar();
+		salvar();
+
+		Flux<Map> lancamentos = cliente.get().uri("/api/lancamentos?usuario={id}&ano=2020", usuario.getId())
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.returnResult(Map.class).getResponseBody();
+
+		StepVerifier.create(lancamentos)
+			.expectNextMatches(linha -> lancamento.getId().equals(((Number) linha.get("id")).longValue())
+					&& "PENDENTE".equals(linha.get("status")) && !linha.containsKey("usuario"))
+			.expectNextCount(1)
+			.verifyComplete();
+	}
+
+	@Test
+	public void listarComFiltroInvalidoTest() {
+		cliente.get().uri("/api/lancamentos?usuario={id}&tipo=OUTRO", usuario.getId())
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(String.class).isEqualTo("Tipo ou status de lançamento inválido.");
+		cliente.get().uri("/api/lancamentos")
+			.exchange()
+			.expectStatus().isBadRequest();
+	}
+
+	@Test
+	public void obterSaldoTest() {
+		Lancamento lancamento = salvar();
+		service.atualizarStatus(lancamento.getId(), StatusLancamento.EFETIVADO, null);
+
+		cliente.get().uri("/api/usuarios/{id}/saldo", usuario.getId())
+			.exchange()
+			.expectStatus().isOk()
+			.expectBody(BigDecimal.class).value(saldo -> assertEquals(0, BigDecimal.valueOf(1000).compareTo(saldo)));
+		cliente.get().uri("/api/usuarios/-1/saldo")
+			.exchange()
+			.expectStatus().isNotFound();
+	}
+
+	@Test
+	public void muitosClientesSimultaneosComPoucasThreadsTest() {
+		for (int i = 0; i < 5; i++) {
+			salvar();
+		}
+		ConnectionProvider conexoes = ConnectionProvider.builder("rotas-reativas")
+				.maxConnections(CLIENTES + CLIENTES_LENTOS).pendingAcquireMaxCount(-1).build();
+		WebClient webClient = WebClient.builder().baseUrl(url())
+				.clientConnector(new ReactorClientHttpConnector(HttpClient.create(conexoes))).build();
+		try {
+			Flux<String> saldos = Flux.range(0, CLIENTES).flatMap(i -> webClient.get()
+					.uri("/api/usuarios/{id}/saldo", usuario.getId())
+					.retrieve().bodyToMono(String.class), CLIENTES);
+			// clientes lentos: consomem a listagem um lançamento por vez, com pausa entre eles
+			Flux<Long> lentos = Flux.range(0, CLIENTES_LENTOS).flatMap(i -> webClient.get()
+					.uri("/api/lancamentos?usuario={id}", usuario.getId())
+					.accept(MediaType.APPLICATION_NDJSON)
+					.retrieve().bodyToFlux(Map.class)
+					.limitRate(1)
+					.delayElements(Duration.ofMillis(20))
+					.count(), CLIENTES_LENTOS);
+
+			List<String> respostas = saldos.collectList().block(Duration.ofSeconds(60));
+			List<Long> recebidos = lentos.collectList().block(Duration.ofSeconds(60));
+
+			assertEquals(CLIENTES, respostas.size());
+			assertTrue(respostas.stream().allMatch(saldo -> new BigDecimal(saldo).signum() == 0));
+			assertTrue(recebidos.stream().allMatch(quantidade -> quantidade == 5));
+			long threadsHttp = Thread.getAllStackTraces().keySet().stream()
+					.filter(thread -> thread.getName().startsWith("reactor-http")).count();
+			assertTrue(threadsHttp <= Math.max(4, Runtime.getRuntime().availableProcessors()) + 1,
+					"threads http: " + threadsHttp);
+		} finally {
+			conexoes.disposeLater().block();
+		}
+	}
+
+	private String url() {
+		return "http://localhost:" + servidor.getPorta();
+	}
+
+	private Lancamento salvar() {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		return service.salvarLancamento(lancamento);
+	}
+}
@@ -0,0 +1,522 @@
+package br.com.estudo.fullstack.api.resource;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import br.com.estudo.fullstack.api.idempotencia.RespostasIdempotentes;
+import br.com.estudo.fullstack.exception.ConflitoVersaoException;
+import br.com.estudo.fullstack.exception.IngestaoSobrecarregadaException;
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import br.com.estudo.fullstack.model.repository.LancamentoListagem;
+import br.com.estudo.fullstack.model.repository.LancamentoRepositoryTest;
+import br.com.estudo.fullstack.service.AlteracoesLancamentos;
+import br.com.estudo.fullstack.service.LancamentoService;
+import br.com.estudo.fullstack.service.UsuarioService;
+import br.com.estudo.fullstack.service.impl.IngestaoLancamentos;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = LancamentoResource.class)
+@AutoConfigureMockMvc
+public class LancamentoResourceTest {
+
+	static final String API = "/api/lancamentos";
+	static final MediaType JSON = MediaType.APPLICATION_JSON;
+	
+	@Autowired
+	MockMvc mvc;
+	
+	@MockBean
+	LancamentoService service;
+	
+	@MockBean
+	UsuarioService usuarioService;
+	
+	@MockBean
+	RespostasIdempotentes respostasIdempotentes;
+	
+	@MockBean
+	IngestaoLancamentos ingestao;
+	
+	@BeforeEach
+	public void setUp() {
+		Mockito.when(respostasIdempotentes.executar(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any()))
+			.thenAnswer(invocacao -> ((Supplier<ResponseEntity>) invocacao.getArgument(3)).get());
+	}
+	
+	@Test
+	public void salvarRepassaIdempotencyKeyTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).build();
+		Mockito.when(usuarioService.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		Mockito.when(service.salvarLancamento(Mockito.any(Lancamento.class))).thenAnswer(invocacao -> invocacao.getArgument(0));
+		
+		mvc.perform(MockMvcRequestBuilders.post(API).contentType(JSON).header(RespostasIdempotentes.CABECALHO, "chave-1")
+				.content("{\"descricao\":\"Salário\",\"ano\":2020,\"mes\":1,\"valor\":5000,\"usuario\":1,\"tipo\":\"RECEITA\"}"))
+			.andExpect(MockMvcResultMatchers.status().isCreated())
+		;
+		Mockito.verify(respostasIdempotentes).executar(Mockito.eq("salvar"), Mockito.eq("chave-1"), Mockito.any(), Mockito.any());
+		Mockito.verify(service).salvarLancamento(Mockito.any(Lancamento.class));
+	}
+	
+	@Test
+	public void salvarRepetidoDevolveRespostaGuardadaTest() throws Exception {
+		Mockito.when(respostasIdempotentes.executar(Mockito.eq("salvar"), Mockito.eq("chave-1"), Mockito.any(), Mockito.any()))
+			.thenReturn(ResponseEntity.status(HttpStatus.CREATED).header(RespostasIdempotentes.CABECALHO_REPETIDA, "true")
+					.contentType(JSON).body("{\"id\":10}"));
+		
+		mvc.perform(MockMvcRequestBuilders.post(API).contentType(JSON).header(RespostasIdempotentes.CABECALHO, "chave-1")
+				.content("{\"descricao\":\"Salário\",\"usuario\":1}"))
+			.andExpect(MockMvcResultMatchers.status().isCreated())
+			.andExpect(MockMvcResultMatchers.header().string(RespostasIdempotentes.CABECALHO_REPETIDA, "true"))
+			.andExpect(MockMvcResultMatchers.jsonPath("id").value(10))
+		;
+		Mockito.verifyNoInteractions(service, usuarioService);
+	}
+	
+	@Test
+	public void buscarPaginaComProximoCursorTest() throws Exception {
+		Lancamento primeiro = LancamentoRepositoryTest.criarLancamento();
+		primeiro.setId(1l);
+		Lancamento segundo = LancamentoRepositoryTest.criarLancamento();
+		segundo.setId(7l);
+		
+		Mockito.when(service.buscarPagina(1l, null, 2)).thenReturn(Arrays.asList(primeiro, segundo));
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.get(API.concat("/pagina?usuario=1&tamanho=2"))
+													.accept(JSON);
+		
+		mvc.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("lancamentos.length()").value(2))
+			.andExpect(MockMvcResultMatchers.jsonPath("proximoCursor").value("MjAyMDoyOjc"))
+		;
+	}
+	
+	@Test
+	public void buscarPaginaAPartirDoCursorTest() throws Exception {
+		Mockito.when(service.buscarPagina(Mockito.eq(1l), Mockito.any(Lancamento.class), Mockito.eq(2)))
+			.thenReturn(Collections.emptyList());
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.get(API.concat("/pagina?usuario=1&tamanho=2&cursor=MjAyMDoyOjc"))
+													.accept(JSON);
+		
+		mvc.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("proximoCursor").doesNotExist())
+		;
+		Mockito.verify(service).buscarPagina(Mockito.eq(1l), Mockito.argThat(ultimo ->
+				ultimo.getAno() == 2020 && ultimo.getMes() == 2 && ultimo.getId() == 7l), Mockito.eq(2));
+	}
+	
+	@Test
+	public void buscarPaginaCursorInvalidoTest() throws Exception {
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.get(API.concat("/pagina?usuario=1&cursor=invalido"))
+													.accept(JSON);
+		
+		mvc.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		;
+	}
+	
+	@Test
+	public void buscarComEtagTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).nome("Amado").email("amado@.com").build();
+		Mockito.when(usuarioService.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		Mockito.when(service.obterVersaoDados(1l)).thenReturn("a1-3");
+		Mockito.when(service.buscarLancamentos(Mockito.any(Lancamento.class))).thenReturn(Collections.emptyList());
+		
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("?usuario=1&ano=2020")).accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.header().string("ETag", "\"a1-3\""))
+		;
+	}
+	
+	@Test
+	public void buscarNaoModificadoNaoConsultaTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).nome("Amado").email("amado@.com").build();
+		Mockito.when(usuarioService.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		Mockito.when(service.obterVersaoDados(1l)).thenReturn("a1-3");
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.get(API.concat("?usuario=1&ano=2020"))
+													.header("If-None-Match", "\"a1-2\", \"a1-3\"")
+													.accept(JSON);
+		
+		mvc.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isNotModified())
+			.andExpect(MockMvcResultMatchers.content().string(""))
+		;
+		Mockito.verify(service, Mockito.never()).buscarLancamentos(Mockito.any(Lancamento.class));
+	}
+	
+	@Test
+	public void listarLancamentosSemRepetirUsuarioTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).nome("Amado").email("amado@.com").build();
+		Mockito.when(usuarioService.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		Mockito.when(service.listarLancamentos(Mockito.any(Lancamento.class))).thenReturn(Arrays.asList(
+				new LancamentoListagem(1l, "Aluguel", 2020, 2, BigDecimal.valueOf(800), TipoLancamento.DESPESA, StatusLancamento.PENDENTE),
+				new LancamentoListagem(2l, "Salário", 2020, 2, BigDecimal.valueOf(3000), TipoLancamento.RECEITA, StatusLancamento.EFETIVADO)));
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.get(API.concat("/listagem?usuario=1&ano=2020&mes=2&tipo=DESPESA"))
+													.accept(JSON);
+		
+		mvc.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("usuario").value(1))
+			.andExpect(MockMvcResultMatchers.jsonPath("lancamentos.length()").value(2))
+			.andExpect(MockMvcResultMatchers.jsonPath("lancamentos[0].descricao").value("Aluguel"))
+			.andExpect(MockMvcResultMatchers.jsonPath("lancamentos[0].usuario").doesNotExist())
+		;
+		Mockito.verify(service).listarLancamentos(Mockito.argThat(filtro -> 
+				filtro.getUsuario() == usuario && filtro.getTipo() == TipoLancamento.DESPESA && filtro.getMes() == 2));
+	}
+	
+	@Test
+	public void buscarAlteracoesTest() throws Exception {
+		Mockito.when(service.buscarAlteracoes(1l, 10l)).thenReturn(new AlteracoesLancamentos(12l, false, Arrays.asList(
+				new LancamentoListagem(4l, "Aluguel", 2020, 2, BigDecimal.TEN, TipoLancamento.DESPESA, StatusLancamento.PENDENTE)),
+				Arrays.asList(2l, 3l)));
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.get(API.concat("/alteracoes?usuario=1&versao=10"))
+													.accept(JSON);
+		
+		mvc.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("versao").value(12))
+			.andExpect(MockMvcResultMatchers.jsonPath("completa").value(false))
+			.andExpect(MockMvcResultMatchers.jsonPath("alterados[0].id").value(4))
+			.andExpect(MockMvcResultMatchers.jsonPath("excluidos.length()").value(2))
+		;
+	}
+	
+	@Test
+	public void sugerirDescricoesTest() throws Exception {
+		Mockito.when(service.sugerirDescricoes(1l, "alu", 10)).thenReturn(Arrays.asList("Aluguel", "Aluguel garagem"));
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.get(API.concat("/sugestoes?usuario=1&termo=alu"))
+													.accept(JSON);
+		
+		mvc.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+			.andExpect(MockMvcResultMatchers.jsonPath("$[0]").value("Aluguel"))
+		;
+	}
+	
+	@Test
+	public void exportarCsvTest() throws Exception {
+		simularExportacao();
+		
+		MvcResult resultado = mvc.perform(MockMvcRequestBuilders.get(API.concat("/exportar?usuario=1&formato=csv")))
+			.andExpect(MockMvcResultMatchers.request().asyncStarted())
+			.andReturn();
+		
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.content().string(
+					"id,descricao,ano,mes,valor,usuario,tipo,status\n"
+					+ "1,\"Aluguel, \"\"casa\"\"\",2020,2,1000,1,RECEITA,PENDENTE\n"))
+		;
+	}
+	
+	@Test
+	public void exportarNdjsonTest() throws Exception {
+		simularExportacao();
+		
+		MvcResult resultado = mvc.perform(MockMvcRequestBuilders.get(API.concat("/exportar?usuario=1")))
+			.andExpect(MockMvcResultMatchers.request().asyncStarted())
+			.andReturn();
+		
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.content().string(
+					"{\"id\":1,\"descricao\":\"Aluguel, \\\"casa\\\"\",\"mes\":2,\"ano\":2020,\"valor\":1000,"
+					+ "\"usuario\":1,\"tipo\":\"RECEITA\",\"status\":\"PENDENTE\"}\n"))
+		;
+	}
+	
+	private void simularExportacao() {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setDescricao("Aluguel, \"casa\"");
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		
+		Mockito.doAnswer(invocacao -> {
+			Consumer<Lancamento> consumidor = invocacao.getArgument(1);
+			consumidor.accept(lancamento);
+			return null;
+		}).when(service).exportarLancamentos(Mockito.eq(1l), Mockito.any());
+	}
+	
+	@Test
+	public void ingerirRespondeQuandoGravadoTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).build();
+		Mockito.when(usuarioService.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		CompletableFuture<Lancamento> gravacao = new CompletableFuture<>();
+		Mockito.when(ingestao.enfileirar(Mockito.any(Lancamento.class))).thenReturn(gravacao);
+		
+		MvcResult resultado = mvc.perform(MockMvcRequestBuilders.post(API.concat("/ingestao")).contentType(JSON)
+				.content("{\"descricao\":\"Salário\",\"ano\":2020,\"mes\":1,\"valor\":5000,\"usuario\":1,\"tipo\":\"RECEITA\"}"))
+			.andExpect(MockMvcResultMatchers.request().asyncStarted())
+			.andReturn();
+		Lancamento salvo = LancamentoRepositoryTest.criarLancamento();
+		salvo.setId(10l);
+		gravacao.complete(salvo);
+		
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+			.andExpect(MockMvcResultMatchers.status().isCreated())
+			.andExpect(MockMvcResultMatchers.jsonPath("id").value(10))
+		;
+	}
+	
+	@Test
+	public void ingerirComFilaCheiaTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).build();
+		Mockito.when(usuarioService.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		Mockito.when(ingestao.enfileirar(Mockito.any(Lancamento.class)))
+			.thenThrow(new IngestaoSobrecarregadaException("Fila de ingestão cheia, tente novamente em instantes."));
+		
+		MvcResult resultado = mvc.perform(MockMvcRequestBuilders.post(API.concat("/ingestao")).contentType(JSON)
+				.content("{\"descricao\":\"Salário\",\"ano\":2020,\"mes\":1,\"valor\":5000,\"usuario\":1,\"tipo\":\"RECEITA\"}"))
+			.andReturn();
+		
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+			.andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+			.andExpect(MockMvcResultMatchers.header().string("Retry-After", "1"))
+		;
+	}
+	
+	@Test
+	public void importarJsonTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).build();
+		Mockito.when(usuarioService.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		Mockito.when(service.importarLancamentos(Mockito.anyList())).thenAnswer(invocacao -> {
+			List<Lancamento> lancamentos = invocacao.getArgument(0);
+			for (int i = 0; i < lancamentos.size(); i++) {
+				lancamentos.get(i).setId(i + 10l);
+			}
+			return lancamentos;
+		});
+		
+		String json = "[{\"descricao\":\"Salário\",\"ano\":2020,\"mes\":1,\"valor\":5000,\"usuario\":1,\"tipo\":\"RECEITA\"},"
+				+ "{\"descricao\":\"Aluguel\",\"ano\":2020,\"mes\":1,\"valor\":1500,\"usuario\":1,\"tipo\":\"DESPESA\"}]";
+		
+		mvc.perform(MockMvcRequestBuilders.post(API.concat("/importar")).contentType(JSON).content(json))
+			.andExpect(MockMvcResultMatchers.status().isCreated())
+			.andExpect(MockMvcResultMatchers.jsonPath("$[0]").value(10))
+			.andExpect(MockMvcResultMatchers.jsonPath("$[1]").value(11))
+		;
+		Mockito.verify(usuarioService, Mockito.times(1)).buscarPorId(1l);
+	}
+	
+	@Test
+	public void importarCsvTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).build();
+		Mockito.when(usuarioService.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		Mockito.when(service.importarLancamentos(Mockito.anyList())).thenAnswer(invocacao -> invocacao.getArgument(0));
+		
+		String csv = "descricao,ano,mes,valor,usuario,tipo\r\n"
+				+ "\"Aluguel, \"\"casa\"\"\",2020,1,1500.50,1,DESPESA\r\n"
+				+ "Salário,2020,1,5000,1,RECEITA\r\n";
+		
+		mvc.perform(MockMvcRequestBuilders.post(API.concat("/importar")).contentType("text/csv").content(csv))
+			.andExpect(MockMvcResultMatchers.status().isCreated())
+		;
+		Mockito.verify(service).importarLancamentos(Mockito.argThat(lancamentos -> lancamentos.size() == 2
+				&& lancamentos.get(0).getDescricao().equals("Aluguel, \"casa\"")
+				&& lancamentos.get(0).getValor().compareTo(new BigDecimal("1500.50")) == 0));
+	}
+	
+	@Test
+	public void importarTipoInvalidoIndicaLancamentoTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).build();
+		Mockito.when(usuarioService.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		
+		String csv = "descricao,ano,mes,valor,usuario,tipo\r\n"
+				+ "Aluguel,2020,1,1500,1,DESPESA\r\n"
+				+ "Salário,2020,1,5000,1,SALARIO\r\n";
+		
+		mvc.perform(MockMvcRequestBuilders.post(API.concat("/importar")).contentType("text/csv").content(csv))
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+			.andExpect(MockMvcResultMatchers.content().string("Lançamento 2: Tipo ou status de lançamento inválido."))
+		;
+		Mockito.verify(service, Mockito.never()).importarLancamentos(Mockito.anyList());
+	}
+	
+	@Test
+	public void importarIgnoraIdEVersaoEnviadosTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).build();
+		Mockito.when(usuarioService.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		Mockito.when(service.importarLancamentos(Mockito.anyList())).thenAnswer(invocacao -> invocacao.getArgument(0));
+		
+		String json = "[{\"id\":99,\"versao\":3,\"descricao\":\"Aluguel\",\"ano\":2020,\"mes\":1,"
+				+ "\"valor\":1500,\"usuario\":1,\"tipo\":\"DESPESA\"}]";
+		
+		mvc.perform(MockMvcRequestBuilders.post(API.concat("/importar")).contentType(JSON).content(json))
+			.andExpect(MockMvcResultMatchers.status().isCreated())
+		;
+		Mockito.verify(service).importarLancamentos(Mockito.argThat(lancamentos -> lancamentos.size() == 1
+				&& lancamentos.get(0).getId() == null && lancamentos.get(0).getVersao() == null));
+	}
+	
+	@Test
+	public void importarCsvInvalidoTest() throws Exception {
+		String csv = "descricao,ano,mes\nAluguel,2020,1\n";
+		
+		mvc.perform(MockMvcRequestBuilders.post(API.concat("/importar")).contentType("text/csv").content(csv))
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		;
+		Mockito.verify(service, Mockito.never()).importarLancamentos(Mockito.anyList());
+	}
+	
+	@Test
+	public void atualizarStatusEmLotePorIdsTest() throws Exception {
+		Mockito.when(service.atualizarStatusEmLote(Arrays.asList(1l, 2l), StatusLancamento.EFETIVADO)).thenReturn(2);
+		
+		mvc.perform(MockMvcRequestBuilders.put(API.concat("/atualiza-status")).contentType(JSON)
+				.content("{\"ids\":[1,2],\"status\":\"EFETIVADO\"}"))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.content().string("2"))
+		;
+	}
+	
+	@Test
+	public void atualizarStatusEmLotePorFiltroTest() throws Exception {
+		Mockito.when(service.atualizarStatusEmLote(1l, 2020, 12, StatusLancamento.PENDENTE, StatusLancamento.EFETIVADO)).thenReturn(40);
+		
+		mvc.perform(MockMvcRequestBuilders.put(API.concat("/atualiza-status")).contentType(JSON)
+				.content("{\"usuario\":1,\"ano\":2020,\"mes\":12,\"statusAtual\":\"PENDENTE\",\"status\":\"EFETIVADO\"}"))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.content().string("40"))
+		;
+	}
+	
+	@Test
+	public void atualizarStatusEmLoteConflitoTest() throws Exception {
+		Mockito.when(service.atualizarStatusEmLote(Arrays.asList(1l, 2l), StatusLancamento.EFETIVADO))
+			.thenThrow(new ConflitoVersaoException("Lançamentos alterados por outra operação, tente novamente.", null));
+		
+		mvc.perform(MockMvcRequestBuilders.put(API.concat("/atualiza-status")).contentType(JSON)
+				.content("{\"ids\":[1,2],\"status\":\"EFETIVADO\"}"))
+			.andExpect(MockMvcResultMatchers.status().isConflict())
+			.andExpect(MockMvcResultMatchers.header().string("Retry-After", "1"))
+		;
+	}
+	
+	@Test
+	public void atualizarStatusEmLoteStatusInvalidoTest() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.put(API.concat("/atualiza-status")).contentType(JSON)
+				.content("{\"ids\":[1,2],\"status\":\"QUITADO\"}"))
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		;
+	}
+	
+	@Test
+	public void atualizarStatusSemBuscarLancamentoTest() throws Exception {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setStatus(StatusLancamento.EFETIVADO);
+		Mockito.when(service.atualizarStatus(1l, StatusLancamento.EFETIVADO, null)).thenReturn(Optional.of(lancamento));
+		
+		mvc.perform(MockMvcRequestBuilders.put(API.concat("/1/atualiza-status")).contentType(JSON)
+				.content("{\"status\":\"EFETIVADO\"}"))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("status").value("EFETIVADO"))
+		;
+		Mockito.verify(service, Mockito.never()).buscarPorId(Mockito.anyLong());
+	}
+	
+	@Test
+	public void atualizarStatusLancamentoInexistenteTest() throws Exception {
+		Mockito.when(service.atualizarStatus(1l, StatusLancamento.EFETIVADO, null)).thenReturn(Optional.empty());
+		
+		mvc.perform(MockMvcRequestBuilders.put(API.concat("/1/atualiza-status")).contentType(JSON)
+				.content("{\"status\":\"EFETIVADO\"}"))
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		;
+	}
+	
+	@Test
+	public void atualizarStatusVersaoDesatualizadaTest() throws Exception {
+		Mockito.when(service.atualizarStatus(1l, StatusLancamento.EFETIVADO, 3l))
+			.thenThrow(new ConflitoVersaoException("Lançamento alterado por outra operação.", 4l));
+		
+		mvc.perform(MockMvcRequestBuilders.put(API.concat("/1/atualiza-status")).contentType(JSON)
+				.content("{\"status\":\"EFETIVADO\",\"versao\":3}"))
+			.andExpect(MockMvcResultMatchers.status().isConflict())
+			.andExpect(MockMvcResultMatchers.header().string("Retry-After", "1"))
+		;
+	}
+	
+	@Test
+	public void atualizarStatusInvalidoTest() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.put(API.concat("/1/atualiza-status")).contentType(JSON)
+				.content("{\"status\":\"QUITADO\"}"))
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		;
+		Mockito.verify(service, Mockito.never()).atualizarStatus(Mockito.anyLong(), Mockito.any(StatusLancamento.class), Mockito.any());
+	}
+	
+	@Test
+	public void atualizarSemBuscarLancamentoTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).build();
+		Mockito.when(usuarioService.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		Mockito.when(service.atualizarLancamento(Mockito.eq(1l), Mockito.any(Lancamento.class)))
+			.thenAnswer(invocacao -> Optional.of(invocacao.getArgument(1)));
+		
+		mvc.perform(MockMvcRequestBuilders.put(API.concat("/1")).contentType(JSON)
+				.content("{\"descricao\":\"Aluguel\",\"ano\":2020,\"mes\":2,\"valor\":10,\"usuario\":1,\"tipo\":\"DESPESA\"}"))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("descricao").value("Aluguel"))
+		;
+		Mockito.verify(service, Mockito.never()).buscarPorId(Mockito.anyLong());
+	}
+	
+	@Test
+	public void deletarSemBuscarLancamentoTest() throws Exception {
+		Mockito.when(service.deletarLancamento(1l)).thenReturn(true);
+		Mockito.when(service.deletarLancamento(2l)).thenReturn(false);
+		
+		mvc.perform(MockMvcRequestBuilders.delete(API.concat("/1")))
+			.andExpect(MockMvcResultMatchers.status().isNoContent())
+		;
+		mvc.perform(MockMvcRequestBuilders.delete(API.concat("/2")))
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		;
+		Mockito.verify(service, Mockito.never()).buscarPorId(Mockito.anyLong());
+	}
+}
@@ -1,140 +1,247 @@
-package br.com.estudo.fullstack.api.resource;
-
-import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mockito;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.http.MediaType;
-import org.springframework.test.context.ActiveProfiles;
-import org.springframework.test.context.junit.jupiter.SpringExtension;
-import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
-import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
-import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
-
-import br.com.estudo.fullstack.api.dto.UsuarioDTO;
-import br.com.estudo.fullstack.exception.ErroAutenticacaoException;
-import br.com.estudo.fullstack.exception.RegraNegocioException;
-import br.com.estudo.fullstack.model.entity.Usuario;
-import br.com.estudo.fullstack.service.LancamentoService;
-import br.com.estudo.fullstack.service.UsuarioService;
-
-@ExtendWith(SpringExtension.class)
-@ActiveProfiles("test")
-@WebMvcTest(controllers = UsuarioResource.class)
-@AutoConfigureMockMvc
-public class UsuarioResourceTest {
-
-	static final String API = "/api/usuarios";
-	static final MediaType JSON = MediaType.APPLICATION_JSON;
-	
-	@Autowired
-	MockMvc mvc;
-	
-	@MockBean
-	UsuarioService service;
-	
-	@MockBean
-	LancamentoService lancamentoService;
-	
-	@Test
-	public void autenticarUsuarioOKTest() throws Exception {
-		String email = "cliqueParaAmado@.com";
-		String senha = "AmadoBatista";
-		
-		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();		
-		Usuario usuario = Usuario.builder().nome("oMeuEnderecoTaNaInternet").email(email).senha(senha).build();
-		
-		Mockito.when(service.autenticar(email, senha)).thenReturn(usuario);
-		String json = new ObjectMapper().writeValueAsString(dto);
-		
-		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
-													.post(API.concat("/autenticar"))
-													.accept(JSON)
-													.contentType(JSON)
-													.content(json);
-		
-		mvc.perform(request)
-			.andExpect(MockMvcResultMatchers.status().isOk())
-			.andExpect(MockMvcResultMatchers.jsonPath("id").value(usuario.getId() ) )
-			.andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome() ) )
-			.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail() ) )
-			
-		;
-	}
-	
-	@Test
-	public void autenticarUsuarioErroAutenticacaoTest() throws Exception {
-		String email = "cliqueParaAmado@.com";
-		String senha = "AmadoBatista";
-		
-		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();		
-		
-		Mockito.when(service.autenticar(email, senha)).thenThrow(ErroAutenticacaoException.class);
-		
-		String json = new ObjectMapper().writeValueAsString(dto);
-		
-		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
-													.post(API.concat("/autenticar"))
-													.accept(JSON)
-													.contentType(JSON)
-													.content(json);
-		
-		mvc.perform(request)
-			.andExpect(MockMvcResultMatchers.status().isBadRequest())				
-		;
-	}
-	
-	@Test
-	public void salvarUsuarioOKTest() throws Exception {
-		String email = "cliqueParaAmado@.com";
-		String senha = "AmadoBatista";
-		
-		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();		
-		Usuario usuario = Usuario.builder().nome("oMeuEnderecoTaNaInternet").email(email).senha(senha).build();
-		
-		Mockito.when(service.salvarUsuario(Mockito.any(Usuario.class))).thenReturn(usuario);
-		String json = new ObjectMapper().writeValueAsString(dto);
-		
-		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
-													.post(API)
-													.accept(JSON)
-													.contentType(JSON)
-													.content(json);
-		
-		mvc.perform(request)
-			.andExpect(MockMvcResultMatchers.status().isCreated())
-			.andExpect(MockMvcResultMatchers.jsonPath("id").value(usuario.getId() ) )
-			.andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome() ) )
-			.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail() ) )
-			
-		;
-	}
-	
-	@Test
-	public void salvarUsuarioFailUsuarioInvalidoTest() throws Exception {
-		String email = "cliqueParaAmado@.com";
-		String senha = "AmadoBatista";
-		
-		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();		
-		
-		Mockito.when(service.salvarUsuario(Mockito.any(Usuario.class))).thenThrow(RegraNegocioException.class);
-		
-		String json = new ObjectMapper().writeValueAsString(dto);
-		
-		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
-													.post(API)
-													.accept(JSON)
-													.contentType(JSON)
-													.content(json);
-		
-		mvc.perform(request)
-			.andExpect(MockMvcResultMatchers.status().isBadRequest())				
-		;
-	}
-}
+package br.com.estudo.fullstack.api.resource;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.estudo.fullstack.api.dto.UsuarioDTO;
+import br.com.estudo.fullstack.api.notificacao.CanalNotificacoesUsuario;
+import br.com.estudo.fullstack.exception.ErroAutenticacaoException;
+import br.com.estudo.fullstack.exception.RegraNegocioException;
+import br.com.estudo.fullstack.model.entity.ResumoMensal;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import br.com.estudo.fullstack.service.LancamentoService;
+import br.com.estudo.fullstack.service.UsuarioService;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = UsuarioResource.class)
+@AutoConfigureMockMvc
+public class UsuarioResourceTest {
+
+	static final String API = "/api/usuarios";
+	static final MediaType JSON = MediaType.APPLICATION_JSON;
+	
+	@Autowired
+	MockMvc mvc;
+	
+	@MockBean
+	UsuarioService service;
+	
+	@MockBean
+	LancamentoService lancamentoService;
+	
+	@MockBean
+	CanalNotificacoesUsuario notificacoes;
+	
+	@Test
+	public void autenticarUsuarioOKTest() throws Exception {
+		String email = "cliqueParaAmado@.com";
+		String senha = "AmadoBatista";
+		
+		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();		
+		Usuario usuario = Usuario.builder().nome("oMeuEnderecoTaNaInternet").email(email).senha(senha).build();
+		
+		Mockito.when(service.autenticar(email, senha)).thenReturn(usuario);
+		String json = new ObjectMapper().writeValueAsString(dto);
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.post(API.concat("/autenticar"))
+													.accept(JSON)
+													.contentType(JSON)
+													.content(json);
+		
+		mvc.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("id").value(usuario.getId() ) )
+			.andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome() ) )
+			.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail() ) )
+			
+		;
+	}
+	
+	@Test
+	public void autenticarUsuarioErroAutenticacaoTest() throws Exception {
+		String email = "cliqueParaAmado@.com";
+		String senha = "AmadoBatista";
+		
+		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();		
+		
+		Mockito.when(service.autenticar(email, senha)).thenThrow(ErroAutenticacaoException.class);
+		
+		String json = new ObjectMapper().writeValueAsString(dto);
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.post(API.concat("/autenticar"))
+													.accept(JSON)
+													.contentType(JSON)
+													.content(json);
+		
+		mvc.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())				
+		;
+	}
+	
+	@Test
+	public void salvarUsuarioOKTest() throws Exception {
+		String email = "cliqueParaAmado@.com";
+		String senha = "AmadoBatista";
+		
+		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();		
+		Usuario usuario = Usuario.builder().nome("oMeuEnderecoTaNaInternet").email(email).senha(senha).build();
+		
+		Mockito.when(service.salvarUsuario(Mockito.any(Usuario.class))).thenReturn(usuario);
+		String json = new ObjectMapper().writeValueAsString(dto);
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.post(API)
+													.accept(JSON)
+													.contentType(JSON)
+													.content(json);
+		
+		mvc.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isCreated())
+			.andExpect(MockMvcResultMatchers.jsonPath("id").value(usuario.getId() ) )
+			.andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome() ) )
+			.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail() ) )
+			
+		;
+	}
+	
+	@Test
+	public void salvarUsuarioFailUsuarioInvalidoTest() throws Exception {
+		String email = "cliqueParaAmado@.com";
+		String senha = "AmadoBatista";
+		
+		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();		
+		
+		Mockito.when(service.salvarUsuario(Mockito.any(Usuario.class))).thenThrow(RegraNegocioException.class);
+		
+		String json = new ObjectMapper().writeValueAsString(dto);
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.post(API)
+													.accept(JSON)
+													.contentType(JSON)
+													.content(json);
+		
+		mvc.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())				
+		;
+	}
+	
+	@Test
+	public void obterResumoMensalTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).nome("oMeuEnderecoTaNaInternet").build();
+		
+		Mockito.when(service.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		Mockito.when(lancamentoService.obterResumoMensal(1l, 2020, StatusLancamento.EFETIVADO)).thenReturn(Arrays.asList(
+				new ResumoMensal(1l, 2020, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(1000), 2l),
+				new ResumoMensal(1l, 2020, 1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(300), 1l),
+				new ResumoMensal(1l, 2020, 2, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(50), 1l)));
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.get(API.concat("/1/resumo?ano=2020"))
+													.accept(JSON);
+		
+		mvc.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+			.andExpect(MockMvcResultMatchers.jsonPath("$[0].saldo").value(700))
+			.andExpect(MockMvcResultMatchers.jsonPath("$[1].mes").value(2))
+			.andExpect(MockMvcResultMatchers.jsonPath("$[1].saldo").value(-50))
+		;
+	}
+	
+	@Test
+	public void obterResumoMensalStatusInvalidoTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).nome("oMeuEnderecoTaNaInternet").build();
+		
+		Mockito.when(service.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.get(API.concat("/1/resumo?status=QUALQUER"))
+													.accept(JSON);
+		
+		mvc.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+		;
+		Mockito.verify(lancamentoService, Mockito.never()).obterResumoMensal(Mockito.anyLong(), Mockito.any(), Mockito.any());
+	}
+	
+	@Test
+	public void obterSaldoComEtagTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).nome("oMeuEnderecoTaNaInternet").build();
+		
+		Mockito.when(service.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		Mockito.when(lancamentoService.obterVersaoDados(1l)).thenReturn("a1-7");
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(BigDecimal.valueOf(700));
+		
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.header().string("ETag", "\"a1-7\""))
+			.andExpect(MockMvcResultMatchers.content().string("700"))
+		;
+	}
+	
+	@Test
+	public void obterSaldoNaoModificadoTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).nome("oMeuEnderecoTaNaInternet").build();
+		
+		Mockito.when(service.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		Mockito.when(lancamentoService.obterVersaoDados(1l)).thenReturn("a1-7");
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+													.get(API.concat("/1/saldo"))
+													.header("If-None-Match", "\"a1-7\"")
+													.accept(JSON);
+		
+		mvc.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isNotModified())
+			.andExpect(MockMvcResultMatchers.header().string("ETag", "\"a1-7\""))
+			.andExpect(MockMvcResultMatchers.content().string(""))
+		;
+		Mockito.verify(lancamentoService, Mockito.never()).obterSaldoPorUsuario(Mockito.anyLong());
+	}
+	
+	@Test
+	public void assinarEventosAbreCanalDoUsuarioTest() throws Exception {
+		Usuario usuario = Usuario.builder().id(1l).nome("oMeuEnderecoTaNaInternet").build();
+		
+		Mockito.when(service.buscarPorId(1l)).thenReturn(Optional.of(usuario));
+		
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/eventos")))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+		;
+		Mockito.verify(notificacoes).assinar(Mockito.eq(1l), Mockito.any(), Mockito.any());
+	}
+	
+	@Test
+	public void assinarEventosUsuarioInexistenteTest() throws Exception {
+		Mockito.when(service.buscarPorId(1l)).thenReturn(Optional.empty());
+		
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/eventos")))
+			.andExpect(MockMvcResultMatchers.status().isNotFound())
+		;
+		Mockito.verifyNoInteractions(notificacoes);
+	}
+}
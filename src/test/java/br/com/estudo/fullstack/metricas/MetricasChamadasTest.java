@@ -0,0 +1,126 @@
+package br.com.estudo.fullstack.metricas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import br.com.estudo.fullstack.BancoEscritaTest;
+import br.com.estudo.fullstack.exception.RegraNegocioException;
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import br.com.estudo.fullstack.model.repository.LancamentoRepository;
+import br.com.estudo.fullstack.service.LancamentoService;
+import br.com.estudo.fullstack.service.UsuarioService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MetricasChamadasTest extends BancoEscritaTest {
+
+	@Autowired
+	MeterRegistry registry;
+
+	@Autowired
+	LancamentoService service;
+
+	@Autowired
+	UsuarioService usuarioService;
+
+	@Autowired
+	LancamentoRepository repository;
+
+	@Test
+	public void chamadasDeServicoSaoMedidasPorResultadoTest() {
+		Usuario usuario = criarUsuario();
+		long sucessos = contar("financas.servico", "LancamentoService", "obterSaldoPorUsuario", MetricasChamadas.SUCESSO);
+		long recusadas = contar("financas.servico", "LancamentoService", "salvarLancamento", "RegraNegocioException");
+
+		service.obterSaldoPorUsuario(usuario.getId());
+		assertThrows(RegraNegocioException.class, () -> service.salvarLancamento(new Lancamento()));
+
+		assertEquals(sucessos + 1, contar("financas.servico", "LancamentoService", "obterSaldoPorUsuario", MetricasChamadas.SUCESSO));
+		assertEquals(recusadas + 1, contar("financas.servico", "LancamentoService", "salvarLancamento", "RegraNegocioException"));
+	}
+
+	@Test
+	public void usuarioServiceEhMedidoTest() {
+		long antes = contar("financas.servico", "UsuarioService", "buscarPorId", MetricasChamadas.SUCESSO);
+
+		usuarioService.buscarPorId(criarUsuario().getId());
+
+		assertEquals(antes + 1, contar("financas.servico", "UsuarioService", "buscarPorId", MetricasChamadas.SUCESSO));
+	}
+
+	@Test
+	public void consultasDoRepositorioSaoMedidasTest() {
+		Usuario usuario = criarUsuario();
+		long saldo = contar("financas.repositorio", "LancamentoRepository", "obterSaldoPorUsuarioEStatus", MetricasChamadas.SUCESSO);
+		long porId = contar("financas.repositorio", "LancamentoRepository", "findById", MetricasChamadas.SUCESSO);
+
+		repository.obterSaldoPorUsuarioEStatus(usuario.getId(), TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
+		repository.findById(-1l);
+
+		assertEquals(saldo + 1, contar("financas.repositorio", "LancamentoRepository", "obterSaldoPorUsuarioEStatus", MetricasChamadas.SUCESSO));
+		assertEquals(porId + 1, contar("financas.repositorio", "LancamentoRepository", "findById", MetricasChamadas.SUCESSO));
+	}
+
+	@Test
+	public void tamanhoDoResultadoDaBuscaEhRegistradoTest() {
+		Usuario usuario = criarUsuario();
+		service.importarLancamentos(List.of(novoLancamento(usuario), novoLancamento(usuario), novoLancamento(usuario)));
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+
+		service.buscarLancamentos(filtro);
+
+		DistributionSummary resultados = registry.get("financas.servico.resultados")
+				.tag("servico", "LancamentoService").tag("metodo", "buscarLancamentos").summary();
+		assertTrue(resultados.max() >= 3);
+	}
+
+	@Test
+	public void poolEEstatisticasDoHibernateSaoPublicadosTest() {
+		assertNotNull(registry.find("hikaricp.connections.active").gauge());
+		assertNotNull(registry.find("hibernate.entities.loads").functionCounter());
+		assertNotNull(registry.find("hibernate.statements").functionCounter());
+	}
+
+	@Test
+	public void requisicaoRegistraConsultasEEntidadesCarregadasTest() throws Exception {
+		Usuario usuario = criarUsuario();
+		Long id = service.salvarLancamento(novoLancamento(usuario)).getId();
+		SimpleMeterRegistry registroRequisicao = new SimpleMeterRegistry();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/lancamentos/" + id);
+
+		new MetricasRequisicao(registroRequisicao).doFilter(request, new MockHttpServletResponse(), (req, resp) -> {
+			req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/lancamentos/{id}");
+			repository.findById(id);
+		});
+		// fora da requisição nada é contado
+		repository.findById(id);
+
+		DistributionSummary consultas = registroRequisicao.get("financas.http.consultas")
+				.tag("method", "GET").tag("uri", "/api/lancamentos/{id}").summary();
+		DistributionSummary entidades = registroRequisicao.get("financas.http.entidades.carregadas")
+				.tag("uri", "/api/lancamentos/{id}").summary();
+		assertEquals(1, consultas.count());
+		assertEquals(1, consultas.totalAmount());
+		// o lançamento e o usuário do @ManyToOne
+		assertEquals(2, entidades.totalAmount());
+	}
+
+	private long contar(String nome, String componente, String metodo, String resultado) {
+		Timer timer = registry.find(nome).tag(nome.equals("financas.servico") ? "servico" : "repositorio", componente)
+				.tag("metodo", metodo).tag("resultado", resultado).timer();
+		return timer == null ? 0 : timer.count();
+	}
+}
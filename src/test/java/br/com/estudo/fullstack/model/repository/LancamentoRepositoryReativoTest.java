@@ -0,0 +1,141 @@
+package br.com.estudo.fullstack.model.repository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import br.com.estudo.fullstack.service.LancamentoService;
+import reactor.test.StepVerifier;
+
+/**
+ * As linhas são gravadas pelo JPA e lidas pelo R2DBC no mesmo banco H2 em memória.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:reativo;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas",
+		"financas.reativo.habilitado=true",
+		"financas.reativo.url=r2dbc:h2:mem:///reativo?options=DB_CLOSE_DELAY=-1" })
+@ActiveProfiles("test")
+public class LancamentoRepositoryReativoTest {
+
+	@Autowired
+	LancamentoRepositoryReativo repository;
+
+	@Autowired
+	LancamentoService service;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	Usuario usuario;
+
+	@BeforeEach
+	public void setUp() {
+		usuario = usuarioRepository.save(Usuario.builder().nome("reativo")
+				.email("reativo" + System.nanoTime() + "@email.com").senha("senha").build());
+	}
+
+	@Test
+	public void listarAplicaFiltrosEOrdemTest() {
+		Lancamento marco = salvar("Mercado", 3, TipoLancamento.DESPESA);
+		Lancamento janeiro = salvar("Salário 100%", 1, TipoLancamento.RECEITA);
+		salvar("Aluguel", 1, TipoLancamento.DESPESA);
+
+		StepVerifier.create(repository.listar(filtro(null, null)))
+			.expectNextMatches(listagem -> listagem.getId().equals(janeiro.getId()))
+			.expectNextCount(1)
+			.expectNextMatches(listagem -> listagem.getId().equals(marco.getId())
+					&& listagem.getTipo() == TipoLancamento.DESPESA && listagem.getStatus() == StatusLancamento.PENDENTE)
+			.verifyComplete();
+		StepVerifier.create(repository.listar(filtro(null, TipoLancamento.DESPESA)))
+			.expectNextCount(2)
+			.verifyComplete();
+		StepVerifier.create(repository.listar(filtro("100%", null)))
+			.expectNextMatches(listagem -> listagem.getDescricao().equals("Salário 100%"))
+			.verifyComplete();
+		StepVerifier.create(repository.listar(filtro("10_%", null)))
+			.verifyComplete();
+	}
+
+	@Test
+	public void listarPorDescricaoIgnoraAcentosTest() {
+		salvar("Salário", 1, TipoLancamento.RECEITA);
+		salvar("PRESTAÇÃO do carro", 1, TipoLancamento.DESPESA);
+
+		StepVerifier.create(repository.listar(filtro("salario", null)))
+			.expectNextMatches(listagem -> listagem.getDescricao().equals("Salário"))
+			.verifyComplete();
+		StepVerifier.create(repository.listar(filtro("SALÁRIO", null)))
+			.expectNextCount(1)
+			.verifyComplete();
+		StepVerifier.create(repository.listar(filtro("prestacao", null)))
+			.expectNextMatches(listagem -> listagem.getDescricao().equals("PRESTAÇÃO do carro"))
+			.verifyComplete();
+	}
+
+	@Test
+	public void listarEntregaConformeADemandaTest() {
+		for (int i = 0; i < 5; i++) {
+			salvar("Lançamento " + i, 1, TipoLancamento.RECEITA);
+		}
+
+		StepVerifier.create(repository.listar(filtro(null, null)), 0)
+			.expectSubscription()
+			.expectNoEvent(Duration.ofMillis(100))
+			.thenRequest(2)
+			.expectNextCount(2)
+			.expectNoEvent(Duration.ofMillis(100))
+			.thenRequest(3)
+			.expectNextCount(3)
+			.verifyComplete();
+	}
+
+	@Test
+	public void obterSaldoMantidoOuCalculadoTest() {
+		StepVerifier.create(repository.obterSaldo(usuario.getId()))
+			.expectNextMatches(saldo -> saldo.signum() == 0)
+			.verifyComplete();
+
+		Lancamento receita = salvar("Salário", 1, TipoLancamento.RECEITA);
+		service.atualizarStatus(receita.getId(), StatusLancamento.EFETIVADO, null);
+
+		StepVerifier.create(repository.obterSaldo(usuario.getId()))
+			.expectNextMatches(saldo -> saldo.compareTo(service.obterSaldoPorUsuario(usuario.getId())) == 0
+					&& saldo.compareTo(BigDecimal.ZERO) > 0)
+			.verifyComplete();
+	}
+
+	@Test
+	public void obterSaldoDeUsuarioInexistenteTest() {
+		StepVerifier.create(repository.obterSaldo(-1l))
+			.verifyComplete();
+	}
+
+	private Lancamento salvar(String descricao, int mes, TipoLancamento tipo) {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setDescricao(descricao);
+		lancamento.setMes(mes);
+		lancamento.setTipo(tipo);
+		lancamento.setUsuario(usuario);
+		return service.salvarLancamento(lancamento);
+	}
+
+	private Lancamento filtro(String descricao, TipoLancamento tipo) {
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+		filtro.setDescricao(descricao);
+		filtro.setTipo(tipo);
+		return filtro;
+	}
+}
@@ -1,99 +1,350 @@
-package br.com.estudo.fullstack.model.repository;
-
-import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.util.Optional;
-
-import static org.junit.jupiter.api.Assertions.*;
-import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
-import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
-import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.test.context.ActiveProfiles;
-import org.springframework.test.context.junit.jupiter.SpringExtension;
-
-import br.com.estudo.fullstack.model.entity.Lancamento;
-import br.com.estudo.fullstack.model.enums.StatusLancamento;
-import br.com.estudo.fullstack.model.enums.TipoLancamento;
-
-@ExtendWith(SpringExtension.class)
-@DataJpaTest
-@AutoConfigureTestDatabase(replace = Replace.NONE)
-@ActiveProfiles("test")
-public class LancamentoRepositoryTest {
-	
-	@Autowired
-	LancamentoRepository repository;
-	
-	@Autowired
-	TestEntityManager entityManager;
-	
-	@Test
-	public void salvarLancamentoTest() {
-		//cenário
-		Lancamento lancamento = criarLancamento();
-		
-		lancamento = repository.save(lancamento);
-
-		assertNotNull(lancamento.getId());
-	}
-	
-	@Test
-	public void deletarLancamentoTest() {
-		//cenário
-		Lancamento lancamento = criarLancamentoPersistir();
-		lancamento = entityManager.find(Lancamento.class, lancamento.getId());
-		
-		repository.delete(lancamento);
-		
-		assertNull(entityManager.find(Lancamento.class, lancamento.getId()));
-	}
-	
-	@Test
-	public void atualizarLancamentoTest() {
-		Lancamento lancamento = criarLancamentoPersistir();
-		
-		lancamento.setAno(2021);
-		lancamento.setDescricao("Teste Atualizar");
-		lancamento.setStatus(StatusLancamento.EFETIVADO);
-		repository.save(lancamento);
-		
-		Lancamento lancamentoAtualizado = entityManager.find(Lancamento.class, lancamento.getId());
-
-		assertEquals(2021, lancamentoAtualizado.getAno());
-		assertEquals("Teste Atualizar", lancamentoAtualizado.getDescricao());
-		assertEquals(StatusLancamento.EFETIVADO, lancamentoAtualizado.getStatus());
-	}
-	
-	@Test
-	public void buscarLancamentoPorIdTest() {
-		Lancamento lancamento = criarLancamentoPersistir();
-		
-		Optional<Lancamento> lancamentoEncontrado = repository.findById(lancamento.getId());
-		
-		assertTrue(lancamentoEncontrado.isPresent());
-	}
-	
-	private Lancamento criarLancamentoPersistir() {
-		Lancamento lancamento = criarLancamento();
-		entityManager.persist(lancamento);
-		return lancamento;
-	}
-	
-	public static Lancamento criarLancamento() {
-
-		Lancamento lancamento = new Lancamento();
-		lancamento.setDescricao("Lançamento teste");
-		lancamento.setAno(2020);
-		lancamento.setMes(2);
-		lancamento.setValor(BigDecimal.valueOf(1000));
-		lancamento.setDataCadastro(LocalDate.now());
-		lancamento.setTipo(TipoLancamento.RECEITA);
-		lancamento.setStatus(StatusLancamento.PENDENTE);
-		
-		return lancamento;
-	}
-}
+package br.com.estudo.fullstack.model.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.ResumoMensal;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+public class LancamentoRepositoryTest {
+	
+	@Autowired
+	LancamentoRepository repository;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void salvarLancamentoTest() {
+		//cenário
+		Lancamento lancamento = criarLancamento();
+		
+		lancamento = repository.save(lancamento);
+
+		assertNotNull(lancamento.getId());
+	}
+	
+	@Test
+	public void deletarLancamentoTest() {
+		//cenário
+		Lancamento lancamento = criarLancamentoPersistir();
+		lancamento = entityManager.find(Lancamento.class, lancamento.getId());
+		
+		repository.delete(lancamento);
+		
+		assertNull(entityManager.find(Lancamento.class, lancamento.getId()));
+	}
+	
+	@Test
+	public void atualizarLancamentoTest() {
+		Lancamento lancamento = criarLancamentoPersistir();
+		
+		lancamento.setAno(2021);
+		lancamento.setDescricao("Teste Atualizar");
+		lancamento.setStatus(StatusLancamento.EFETIVADO);
+		repository.save(lancamento);
+		
+		Lancamento lancamentoAtualizado = entityManager.find(Lancamento.class, lancamento.getId());
+
+		assertEquals(2021, lancamentoAtualizado.getAno());
+		assertEquals("Teste Atualizar", lancamentoAtualizado.getDescricao());
+		assertEquals(StatusLancamento.EFETIVADO, lancamentoAtualizado.getStatus());
+	}
+	
+	@Test
+	public void buscarLancamentoPorIdTest() {
+		Lancamento lancamento = criarLancamentoPersistir();
+		
+		Optional<Lancamento> lancamentoEncontrado = repository.findById(lancamento.getId());
+		
+		assertTrue(lancamentoEncontrado.isPresent());
+	}
+	
+	@Test
+	public void obterSaldoPorUsuarioEStatusTest() {
+		Usuario usuario = Usuario.builder().nome("Amado Batista").email("amado@.com").senha("amado").build();
+		entityManager.persist(usuario);
+		
+		persistirLancamento(usuario, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 1000);
+		persistirLancamento(usuario, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 500);
+		persistirLancamento(usuario, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 300);
+		persistirLancamento(usuario, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 200);
+		
+		BigDecimal saldo = repository.obterSaldoPorUsuarioEStatus(usuario.getId(), TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
+		
+		assertEquals(0, BigDecimal.valueOf(1200).compareTo(saldo));
+	}
+	
+	@Test
+	public void obterSaldoPorUsuarioSemLancamentosTest() {
+		Usuario usuario = Usuario.builder().nome("Amado Batista").email("amado@.com").senha("amado").build();
+		entityManager.persist(usuario);
+		
+		BigDecimal saldo = repository.obterSaldoPorUsuarioEStatus(usuario.getId(), TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
+		
+		assertEquals(0, BigDecimal.ZERO.compareTo(saldo));
+	}
+	
+	@Test
+	public void calcularResumoMensalPorUsuarioTest() {
+		Usuario usuario = Usuario.builder().nome("Amado Batista").email("amado@.com").senha("amado").build();
+		entityManager.persist(usuario);
+		
+		persistirLancamento(usuario, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 1000);
+		persistirLancamento(usuario, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 500);
+		persistirLancamento(usuario, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 300);
+		
+		List<ResumoMensal> resumos = repository.calcularResumoMensalPorUsuario(usuario.getId());
+		TotalLancamentos receitas = repository.obterTotalPorUsuarioEMes(usuario.getId(), 2020, 2, 
+				TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
+		
+		assertEquals(2, resumos.size());
+		assertEquals(0, BigDecimal.valueOf(1500).compareTo(receitas.getTotal()));
+		assertEquals(2l, receitas.getQuantidade());
+	}
+	
+	@Test
+	public void buscarPaginaPorUsuarioTest() {
+		Usuario usuario = Usuario.builder().nome("Amado Batista").email("amado@.com").senha("amado").build();
+		entityManager.persist(usuario);
+		
+		Lancamento marco = persistirLancamento(usuario, 2020, 3);
+		Lancamento janeiro = persistirLancamento(usuario, 2020, 1);
+		Lancamento dezembro = persistirLancamento(usuario, 2019, 12);
+		Lancamento janeiroOutro = persistirLancamento(usuario, 2020, 1);
+		
+		List<Lancamento> primeiraPagina = repository.buscarPaginaPorUsuario(usuario.getId(), 
+				Integer.MIN_VALUE, Integer.MIN_VALUE, Long.MIN_VALUE, 2);
+		Lancamento ultimo = primeiraPagina.get(1);
+		List<Lancamento> segundaPagina = repository.buscarPaginaPorUsuario(usuario.getId(), 
+				ultimo.getAno(), ultimo.getMes(), ultimo.getId(), 2);
+		
+		assertEquals(dezembro.getId(), primeiraPagina.get(0).getId());
+		assertEquals(janeiro.getId(), primeiraPagina.get(1).getId());
+		assertEquals(janeiroOutro.getId(), segundaPagina.get(0).getId());
+		assertEquals(marco.getId(), segundaPagina.get(1).getId());
+	}
+	
+	@Test
+	public void paginaProfundaNaoPercorreLancamentosAnterioresTest() {
+		Usuario usuario = Usuario.builder().nome("Amado Batista").email("amado@.com").senha("amado").build();
+		entityManager.persist(usuario);
+		for (int ano = 2010; ano < 2020; ano++) {
+			for (int mes = 1; mes <= 12; mes++) {
+				persistirLancamento(usuario, ano, mes);
+			}
+		}
+		entityManager.flush();
+		
+		String plano = (String) entityManager.getEntityManager()
+				.createNativeQuery("explain analyze " + LancamentoRepository.PAGINA_POR_USUARIO)
+				.setParameter("idUsuario", usuario.getId())
+				.setParameter("ano", 2019)
+				.setParameter("mes", 6)
+				.setParameter("id", Long.MAX_VALUE)
+				.setParameter("tamanho", 5)
+				.getSingleResult();
+		
+		// a página começa em junho de 2019: só as 12 linhas de 2019 podem ser lidas no índice, não as 120 do usuário
+		Matcher linhasLidas = Pattern.compile("scanCount: (\\d+)").matcher(plano);
+		while (linhasLidas.find()) {
+			assertTrue(Integer.parseInt(linhasLidas.group(1)) <= 13, plano);
+		}
+		assertTrue(plano.contains("scanCount"), plano);
+	}
+	
+	@Test
+	public void atualizarStatusPorIdsTest() {
+		Usuario usuario = Usuario.builder().nome("Amado Batista").email("amado@.com").senha("amado").build();
+		entityManager.persist(usuario);
+		
+		Lancamento pendente = persistirLancamento(usuario, 2020, 2);
+		Lancamento outroPendente = persistirLancamento(usuario, 2020, 2);
+		Lancamento efetivado = persistirLancamento(usuario, 2020, 2);
+		efetivado.setStatus(StatusLancamento.EFETIVADO);
+		Lancamento foraDoLote = persistirLancamento(usuario, 2020, 2);
+		entityManager.flush();
+		
+		List<Long> ids = repository.buscarIdsPorUsuarioEMesEStatus(usuario.getId(), 2020, 2, StatusLancamento.PENDENTE);
+		ids.remove(foraDoLote.getId());
+		ids.add(efetivado.getId());
+		List<ResumoMensal> alterados = repository.calcularResumoPorIdsComStatusDiferente(ids, StatusLancamento.EFETIVADO);
+		int atualizados = repository.atualizarStatusPorIdsEUsuario(ids, usuario.getId(), StatusLancamento.EFETIVADO, 7l);
+		
+		assertEquals(2, atualizados);
+		assertEquals(1, alterados.size());
+		assertEquals(2l, alterados.get(0).getQuantidade());
+		assertEquals(StatusLancamento.PENDENTE, alterados.get(0).getStatus());
+		assertEquals(StatusLancamento.EFETIVADO, entityManager.find(Lancamento.class, pendente.getId()).getStatus());
+		assertEquals(StatusLancamento.EFETIVADO, entityManager.find(Lancamento.class, outroPendente.getId()).getStatus());
+		assertEquals(StatusLancamento.PENDENTE, entityManager.find(Lancamento.class, foraDoLote.getId()).getStatus());
+		assertEquals(7l, entityManager.find(Lancamento.class, pendente.getId()).getVersaoAlteracao());
+		assertNull(entityManager.find(Lancamento.class, efetivado.getId()).getVersaoAlteracao());
+	}
+	
+	@Test
+	public void buscarAlteradosDesdeTest() {
+		Usuario usuario = Usuario.builder().nome("Amado Batista").email("amado@.com").senha("amado").build();
+		entityManager.persist(usuario);
+		
+		persistirLancamento(usuario, 2020, 2).setVersaoAlteracao(3l);
+		Lancamento alterado = persistirLancamento(usuario, 2020, 1);
+		alterado.setVersaoAlteracao(6l);
+		Lancamento novo = persistirLancamento(usuario, 2020, 3);
+		novo.setVersaoAlteracao(5l);
+		entityManager.flush();
+		
+		List<LancamentoListagem> alterados = repository.buscarAlteradosDesde(usuario.getId(), 4l);
+		
+		assertEquals(2, alterados.size());
+		assertEquals(novo.getId(), alterados.get(0).getId());
+		assertEquals(alterado.getId(), alterados.get(1).getId());
+	}
+	
+	@Test
+	public void buscarPorFiltroTest() {
+		Usuario usuario = Usuario.builder().nome("Amado Batista").email("amado@.com").senha("amado").build();
+		Usuario outroUsuario = Usuario.builder().nome("Amado Batista").email("batista@.com").senha("amado").build();
+		entityManager.persist(usuario);
+		entityManager.persist(outroUsuario);
+		
+		Lancamento aluguel = persistirLancamento(usuario, 2020, 2);
+		aluguel.setDescricao("Aluguel 100% pago");
+		aluguel.setTipo(TipoLancamento.DESPESA);
+		persistirLancamento(usuario, 2020, 2).setDescricao("Salário");
+		persistirLancamento(usuario, 2020, 3).setDescricao("Aluguel");
+		persistirLancamento(outroUsuario, 2020, 2).setDescricao("Aluguel");
+		entityManager.flush();
+		
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+		filtro.setAno(2020);
+		filtro.setMes(2);
+		
+		assertEquals(2, repository.findAll(LancamentoSpecifications.filtro(filtro)).size());
+		
+		filtro.setDescricao("ALUGUEL");
+		assertEquals(Arrays.asList(aluguel), repository.findAll(LancamentoSpecifications.filtro(filtro)));
+		
+		filtro.setDescricao("100%");
+		assertEquals(1, repository.findAll(LancamentoSpecifications.filtro(filtro)).size());
+		
+		filtro.setDescricao(null);
+		filtro.setTipo(TipoLancamento.RECEITA);
+		assertEquals(1, repository.findAll(LancamentoSpecifications.filtro(filtro)).size());
+		
+		filtro.setTipo(null);
+		filtro.setMes(null);
+		filtro.setDescricao("0%");
+		assertEquals(1, repository.findAll(LancamentoSpecifications.filtro(filtro)).size());
+	}
+	
+	@Test
+	public void buscarPorDescricaoIgnoraAcentosTest() {
+		Usuario usuario = Usuario.builder().nome("Amado Batista").email("amado@.com").senha("amado").build();
+		entityManager.persist(usuario);
+		
+		persistirLancamento(usuario, 2020, 2).setDescricao("Salário");
+		persistirLancamento(usuario, 2020, 2).setDescricao("PRESTAÇÃO do carro");
+		entityManager.flush();
+		
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+		
+		filtro.setDescricao("salario");
+		assertEquals(1, repository.findAll(LancamentoSpecifications.filtro(filtro)).size());
+		
+		filtro.setDescricao("SALÁRIO");
+		assertEquals(1, repository.findAll(LancamentoSpecifications.filtro(filtro)).size());
+		
+		filtro.setDescricao("prestacao");
+		assertEquals(1, repository.findAll(LancamentoSpecifications.filtro(filtro)).size());
+	}
+	
+	@Test
+	public void listarProjecaoPorFiltroTest() {
+		Usuario usuario = Usuario.builder().nome("Amado Batista").email("amado@.com").senha("amado").build();
+		entityManager.persist(usuario);
+		
+		Lancamento marco = persistirLancamento(usuario, 2020, 3);
+		Lancamento fevereiro = persistirLancamento(usuario, 2020, 2);
+		persistirLancamento(usuario, 2021, 1);
+		entityManager.flush();
+		entityManager.clear();
+		
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+		filtro.setAno(2020);
+		
+		List<LancamentoListagem> listagem = repository.listar(LancamentoSpecifications.filtro(filtro), Sort.by("ano", "mes", "id"));
+		
+		assertEquals(2, listagem.size());
+		assertEquals(fevereiro.getId(), listagem.get(0).getId());
+		assertEquals(marco.getId(), listagem.get(1).getId());
+		assertEquals("Lançamento teste", listagem.get(0).getDescricao());
+		assertEquals(0, BigDecimal.valueOf(1000).compareTo(listagem.get(0).getValor()));
+		assertEquals(TipoLancamento.RECEITA, listagem.get(0).getTipo());
+		assertEquals(StatusLancamento.PENDENTE, listagem.get(0).getStatus());
+	}
+	
+	private Lancamento persistirLancamento(Usuario usuario, Integer ano, Integer mes) {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setAno(ano);
+		lancamento.setMes(mes);
+		return entityManager.persist(lancamento);
+	}
+	
+	private void persistirLancamento(Usuario usuario, TipoLancamento tipo, StatusLancamento status, long valor) {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setTipo(tipo);
+		lancamento.setStatus(status);
+		lancamento.setValor(BigDecimal.valueOf(valor));
+		entityManager.persist(lancamento);
+	}
+	
+	private Lancamento criarLancamentoPersistir() {
+		Lancamento lancamento = criarLancamento();
+		entityManager.persist(lancamento);
+		return lancamento;
+	}
+	
+	public static Lancamento criarLancamento() {
+
+		Lancamento lancamento = new Lancamento();
+		lancamento.setDescricao("Lançamento teste");
+		lancamento.setAno(2020);
+		lancamento.setMes(2);
+		lancamento.setValor(BigDecimal.valueOf(1000));
+		lancamento.setDataCadastro(LocalDate.now());
+		lancamento.setTipo(TipoLancamento.RECEITA);
+		lancamento.setStatus(StatusLancamento.PENDENTE);
+		
+		return lancamento;
+	}
+}
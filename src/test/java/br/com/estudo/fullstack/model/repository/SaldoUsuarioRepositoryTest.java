@@ -0,0 +1,46 @@
+package br.com.estudo.fullstack.model.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.estudo.fullstack.model.entity.SaldoUsuario;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+public class SaldoUsuarioRepositoryTest {
+
+	@Autowired
+	SaldoUsuarioRepository repository;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void adicionarAoSaldoTest() {
+		entityManager.persist(new SaldoUsuario(1l, BigDecimal.valueOf(100)));
+		
+		int atualizados = repository.adicionarAoSaldo(1l, BigDecimal.valueOf(-40));
+		entityManager.clear();
+		
+		assertEquals(1, atualizados);
+		assertEquals(0, BigDecimal.valueOf(60).compareTo(entityManager.find(SaldoUsuario.class, 1l).getSaldo()));
+	}
+	
+	@Test
+	public void adicionarAoSaldoInexistenteTest() {
+		assertEquals(0, repository.adicionarAoSaldo(1l, BigDecimal.TEN));
+	}
+}
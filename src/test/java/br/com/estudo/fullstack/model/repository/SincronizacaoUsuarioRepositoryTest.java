@@ -0,0 +1,57 @@
+package br.com.estudo.fullstack.model.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.estudo.fullstack.model.entity.LancamentoExcluido;
+import br.com.estudo.fullstack.model.entity.SincronizacaoUsuario;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+public class SincronizacaoUsuarioRepositoryTest {
+
+	@Autowired
+	SincronizacaoUsuarioRepository repository;
+	
+	@Autowired
+	LancamentoExcluidoRepository excluidoRepository;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void incrementarVersaoTest() {
+		entityManager.persist(new SincronizacaoUsuario(1l, 4l));
+		
+		assertEquals(1, repository.incrementarVersao(1l));
+		assertEquals(5l, repository.obterVersao(1l));
+	}
+	
+	@Test
+	public void incrementarVersaoInexistenteTest() {
+		assertEquals(0, repository.incrementarVersao(1l));
+		assertNull(repository.obterVersao(1l));
+	}
+	
+	@Test
+	public void buscarIdsExcluidosDesdeTest() {
+		entityManager.persist(LancamentoExcluido.builder().idLancamento(10l).idUsuario(1l).versaoAlteracao(2l).build());
+		entityManager.persist(LancamentoExcluido.builder().idLancamento(11l).idUsuario(1l).versaoAlteracao(4l).build());
+		entityManager.persist(LancamentoExcluido.builder().idLancamento(12l).idUsuario(2l).versaoAlteracao(4l).build());
+		
+		assertEquals(Arrays.asList(11l), excluidoRepository.buscarIdsExcluidosDesde(1l, 2l));
+	}
+}
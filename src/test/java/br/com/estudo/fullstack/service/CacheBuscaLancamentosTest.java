@@ -0,0 +1,142 @@
+package br.com.estudo.fullstack.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.repository.LancamentoRepositoryTest;
+import br.com.estudo.fullstack.service.impl.CacheBuscaLancamentos;
+import br.com.estudo.fullstack.service.impl.ExecucaoUnica;
+import br.com.estudo.fullstack.service.impl.SincronizacaoLancamentos;
+import br.com.estudo.fullstack.service.impl.VersaoDadosUsuario;
+
+public class CacheBuscaLancamentosTest {
+
+	SincronizacaoLancamentos sincronizacao;
+	CacheBuscaLancamentos cache;
+	AtomicInteger consultas;
+
+	@BeforeEach
+	public void setUp() {
+		sincronizacao = Mockito.mock(SincronizacaoLancamentos.class);
+		cache = new CacheBuscaLancamentos(new VersaoDadosUsuario(sincronizacao), new ExecucaoUnica(), 1000);
+		consultas = new AtomicInteger();
+	}
+
+	@Test
+	public void reutilizaResultadoDoMesmoFiltroTest() {
+		List<Lancamento> primeiro = cache.obter(filtro(1l, " Aluguel "), this::buscar);
+		List<Lancamento> segundo = cache.obter(filtro(1l, "aluguel"), this::buscar);
+
+		assertEquals(primeiro, segundo);
+		assertEquals(1, consultas.get());
+	}
+
+	@Test
+	public void escritaInvalidaSomenteBuscasDoUsuarioTest() {
+		cache.obter(filtro(1l, null), this::buscar);
+		cache.obter(filtro(2l, null), this::buscar);
+
+		// a escrita pode ter passado por outra instância: só a versão gravada no banco muda
+		Mockito.when(sincronizacao.obterVersao(1l)).thenReturn(1l);
+		cache.obter(filtro(1l, null), this::buscar);
+		cache.obter(filtro(2l, null), this::buscar);
+
+		assertEquals(3, consultas.get());
+	}
+
+	@Test
+	public void naoGuardaFiltroSemUsuarioTest() {
+		Lancamento filtro = filtro(1l, null);
+		filtro.setUsuario(null);
+
+		cache.obter(filtro, this::buscar);
+		cache.obter(filtro, this::buscar);
+
+		assertEquals(2, consultas.get());
+	}
+
+	@Test
+	public void buscasConcorrentesIguaisConsultamUmaVezTest() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		CountDownLatch largada = new CountDownLatch(1);
+		try {
+			List<Future<List<Lancamento>>> resultados = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				resultados.add(executor.submit(() -> {
+					largada.await();
+					return cache.obter(filtro(1l, "aluguel"), () -> {
+						try {
+							Thread.sleep(200);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						return buscar();
+					});
+				}));
+			}
+			largada.countDown();
+
+			List<Lancamento> primeiro = resultados.get(0).get(5, TimeUnit.SECONDS);
+			for (Future<List<Lancamento>> resultado : resultados) {
+				assertEquals(primeiro, resultado.get(5, TimeUnit.SECONDS));
+			}
+			assertEquals(1, consultas.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void resultadoGuardadoNaoPodeSerAlteradoTest() {
+		List<Lancamento> resultado = cache.obter(filtro(1l, null), this::buscar);
+
+		assertThrows(UnsupportedOperationException.class, () -> resultado.add(new Lancamento()));
+	}
+
+	@Test
+	public void alteracaoDoChamadorNaoChegaAoCacheTest() {
+		List<Lancamento> primeiro = cache.obter(filtro(1l, null), this::buscar);
+		primeiro.get(0).setDescricao("alterado");
+		primeiro.get(0).getUsuario().setNome("alterado");
+
+		List<Lancamento> segundo = cache.obter(filtro(1l, null), this::buscar);
+
+		assertNotSame(primeiro.get(0), segundo.get(0));
+		assertEquals("Lançamento teste", segundo.get(0).getDescricao());
+		assertEquals("usuario", segundo.get(0).getUsuario().getNome());
+		assertNull(segundo.get(0).getUsuario().getSenha());
+		assertEquals(1, consultas.get());
+	}
+
+	private List<Lancamento> buscar() {
+		consultas.incrementAndGet();
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(1l).nome("usuario").senha("senha").build());
+		return new ArrayList<>(Collections.singletonList(lancamento));
+	}
+
+	private Lancamento filtro(Long idUsuario, String descricao) {
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(idUsuario).build());
+		filtro.setAno(2020);
+		filtro.setMes(2);
+		filtro.setDescricao(descricao);
+		return filtro;
+	}
+}
@@ -0,0 +1,169 @@
+package br.com.estudo.fullstack.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.com.estudo.fullstack.exception.RegraNegocioException;
+import br.com.estudo.fullstack.service.impl.ExecucaoUnica;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ExecucaoUnicaTest {
+
+	static final int CHAMADAS = 32;
+
+	SimpleMeterRegistry registry;
+	ExecucaoUnica execucaoUnica;
+	ExecutorService executor;
+
+	@BeforeEach
+	public void setUp() {
+		registry = new SimpleMeterRegistry();
+		execucaoUnica = new ExecucaoUnica();
+		execucaoUnica.bindTo(registry);
+		executor = Executors.newFixedThreadPool(CHAMADAS);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void chamadasConcorrentesIguaisCompartilhamCalculoTest() throws Exception {
+		AtomicInteger calculos = new AtomicInteger();
+		CountDownLatch liberar = new CountDownLatch(1);
+
+		List<Future<Object>> resultados = new ArrayList<>();
+		for (int i = 0; i < CHAMADAS; i++) {
+			resultados.add(executor.submit(() -> execucaoUnica.executar("saldo", 1l, () -> {
+				calculos.incrementAndGet();
+				aguardar(liberar);
+				return new Object();
+			})));
+		}
+		aguardarCompartilhadas("saldo", CHAMADAS - 1);
+		liberar.countDown();
+
+		Object primeiro = resultados.get(0).get(5, TimeUnit.SECONDS);
+		for (Future<Object> resultado : resultados) {
+			assertSame(primeiro, resultado.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, calculos.get());
+		assertEquals(1, contador("saldo", "executada"));
+		assertEquals(CHAMADAS - 1, contador("saldo", "compartilhada"));
+	}
+
+	@Test
+	public void chavesDiferentesNaoCompartilhamCalculoTest() throws Exception {
+		AtomicInteger calculos = new AtomicInteger();
+		CountDownLatch iniciados = new CountDownLatch(CHAMADAS);
+		CountDownLatch liberar = new CountDownLatch(1);
+
+		List<Future<Long>> resultados = new ArrayList<>();
+		for (long i = 0; i < CHAMADAS; i++) {
+			long chave = i;
+			resultados.add(executor.submit(() -> execucaoUnica.executar("saldo", chave, () -> {
+				calculos.incrementAndGet();
+				iniciados.countDown();
+				aguardar(liberar);
+				return chave;
+			})));
+		}
+		assertTrue(iniciados.await(5, TimeUnit.SECONDS));
+		liberar.countDown();
+
+		for (int i = 0; i < CHAMADAS; i++) {
+			assertEquals(Long.valueOf(i), resultados.get(i).get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(CHAMADAS, calculos.get());
+		assertEquals(0, contador("saldo", "compartilhada"));
+	}
+
+	@Test
+	public void chamadaPosteriorAoTerminoCalculaNovamenteTest() {
+		AtomicInteger calculos = new AtomicInteger();
+
+		execucaoUnica.executar("busca", "chave", calculos::incrementAndGet);
+		execucaoUnica.executar("busca", "chave", calculos::incrementAndGet);
+
+		assertEquals(2, calculos.get());
+		assertEquals(2, contador("busca", "executada"));
+	}
+
+	@Test
+	public void erroDoCalculoChegaATodosQueAguardavamTest() throws Exception {
+		CountDownLatch liberar = new CountDownLatch(1);
+
+		List<Future<Object>> resultados = new ArrayList<>();
+		for (int i = 0; i < CHAMADAS; i++) {
+			resultados.add(executor.submit(() -> execucaoUnica.executar("saldo", 1l, () -> {
+				aguardar(liberar);
+				throw new RegraNegocioException("Falha no cálculo.");
+			})));
+		}
+		aguardarCompartilhadas("saldo", CHAMADAS - 1);
+		liberar.countDown();
+
+		for (Future<Object> resultado : resultados) {
+			Exception erro = assertThrows(Exception.class, () -> resultado.get(5, TimeUnit.SECONDS));
+			assertTrue(erro.getCause() instanceof RegraNegocioException);
+		}
+		assertEquals("ok", execucaoUnica.executar("saldo", 1l, () -> "ok"));
+	}
+
+	@Test
+	public void dentroDeTransacaoNaoCompartilhaCalculoTest() throws Exception {
+		CountDownLatch iniciado = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		Future<Object> emAndamento = executor.submit(() -> execucaoUnica.executar("saldo", 1l, () -> {
+			iniciado.countDown();
+			aguardar(liberar);
+			return "fora";
+		}));
+		assertTrue(iniciado.await(5, TimeUnit.SECONDS));
+
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		try {
+			assertEquals("dentro", execucaoUnica.executar("saldo", 1l, () -> "dentro"));
+		} finally {
+			TransactionSynchronizationManager.setActualTransactionActive(false);
+			liberar.countDown();
+		}
+		assertEquals("fora", emAndamento.get(5, TimeUnit.SECONDS));
+		assertEquals(0, contador("saldo", "compartilhada"));
+	}
+
+	private void aguardarCompartilhadas(String operacao, int quantidade) throws InterruptedException {
+		long limite = System.currentTimeMillis() + 5000;
+		while (contador(operacao, "compartilhada") < quantidade && System.currentTimeMillis() < limite) {
+			Thread.sleep(5);
+		}
+		assertEquals(quantidade, contador(operacao, "compartilhada"));
+	}
+
+	private long contador(String operacao, String resultado) {
+		return registry.find("financas.execucao.unica").tag("operacao", operacao).tag("resultado", resultado)
+				.functionCounters().stream().mapToLong(contador -> (long) contador.count()).sum();
+	}
+
+	private static void aguardar(CountDownLatch liberar) {
+		try {
+			liberar.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
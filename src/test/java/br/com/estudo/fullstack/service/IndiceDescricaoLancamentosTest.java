@@ -0,0 +1,126 @@
+package br.com.estudo.fullstack.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import br.com.estudo.fullstack.model.repository.DescricaoLancamento;
+import br.com.estudo.fullstack.model.repository.LancamentoRepository;
+import br.com.estudo.fullstack.service.impl.IndiceDescricaoLancamentos;
+
+public class IndiceDescricaoLancamentosTest {
+
+	LancamentoRepository repository;
+	IndiceDescricaoLancamentos indice;
+
+	@BeforeEach
+	public void setUp() {
+		repository = Mockito.mock(LancamentoRepository.class);
+		indice = new IndiceDescricaoLancamentos(repository, 2, 30);
+		Mockito.when(repository.buscarDescricoesPorUsuario(1l)).thenReturn(Arrays.asList(
+				descricao(1l, "Aluguel apartamento"),
+				descricao(2l, "Conta de Luz"),
+				descricao(3l, "Aluguel garagem"),
+				descricao(4l, "Salário")));
+	}
+
+	@Test
+	public void buscarPorTrechoIgnorandoCaixaEAcentosTest() {
+		assertEquals(new HashSet<>(Arrays.asList(1l, 3l)), indice.buscar(1l, "ALUGUEL"));
+		assertEquals(new HashSet<>(Arrays.asList(4l)), indice.buscar(1l, "salario"));
+		assertEquals(new HashSet<>(Arrays.asList(2l)), indice.buscar(1l, "z"));
+		assertTrue(indice.buscar(1l, "mercado").isEmpty());
+	}
+
+	@Test
+	public void montaIndiceUmaVezPorUsuarioTest() {
+		indice.buscar(1l, "aluguel");
+		indice.buscar(1l, "luz");
+		indice.sugerir(1l, "al", 10);
+
+		Mockito.verify(repository, Mockito.times(1)).buscarDescricoesPorUsuario(1l);
+		assertTrue(indice.carregado(1l));
+	}
+
+	@Test
+	public void aplicaAlteracoesNoIndiceCarregadoTest() {
+		indice.buscar(1l, "aluguel");
+
+		indice.adicionar(1l, 5l, "Aluguel escritório");
+		indice.remover(1l, 1l);
+		indice.adicionar(1l, 2l, "Conta de Água");
+
+		assertEquals(new HashSet<>(Arrays.asList(3l, 5l)), indice.buscar(1l, "aluguel"));
+		assertEquals(new HashSet<>(Arrays.asList(2l)), indice.buscar(1l, "agua"));
+		assertTrue(indice.buscar(1l, "luz").isEmpty());
+	}
+
+	@Test
+	public void sugerirPorInicioDePalavraOrdenadoPorFrequenciaTest() {
+		indice.buscar(1l, "aluguel");
+		indice.adicionar(1l, 6l, "Aluguel garagem");
+
+		List<String> sugestoes = indice.sugerir(1l, "alu", 10);
+
+		assertEquals(Arrays.asList("Aluguel garagem", "Aluguel apartamento"), sugestoes);
+		assertEquals(Arrays.asList("Aluguel garagem"), indice.sugerir(1l, "alu", 1));
+		assertEquals(Arrays.asList("Aluguel garagem"), indice.sugerir(1l, "gar", 10));
+		assertTrue(indice.sugerir(1l, "uguel", 10).isEmpty());
+	}
+
+	@Test
+	public void sugerirConsideraTodasAsOcorrenciasDoTermoTest() {
+		indice.buscar(1l, "aluguel");
+		indice.adicionar(1l, 7l, "Supermercado mercado central");
+		indice.adicionar(1l, 8l, "Hipermercado");
+		indice.adicionar(1l, 9l, "Feira/mercado");
+
+		assertEquals(Arrays.asList("Feira/mercado", "Supermercado mercado central"), indice.sugerir(1l, "merc", 10));
+	}
+
+	@Test
+	public void limpezaPeriodicaDescartaIndiceInativoTest() {
+		IndiceDescricaoLancamentos semInatividade = new IndiceDescricaoLancamentos(repository, 10, 0);
+		semInatividade.buscar(1l, "aluguel");
+		assertTrue(semInatividade.carregado(1l));
+
+		semInatividade.removerInativos();
+
+		assertFalse(semInatividade.carregado(1l));
+		indice.buscar(1l, "aluguel");
+		indice.removerInativos();
+		assertTrue(indice.carregado(1l));
+	}
+
+	@Test
+	public void descartaUsuarioMenosRecenteAoAtingirLimiteTest() {
+		indice.buscar(1l, "aluguel");
+		indice.buscar(2l, "aluguel");
+		indice.buscar(3l, "aluguel");
+
+		assertFalse(indice.carregado(1l));
+		assertTrue(indice.carregado(2l));
+		assertTrue(indice.carregado(3l));
+	}
+
+	private static DescricaoLancamento descricao(Long id, String descricao) {
+		return new DescricaoLancamento() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public String getDescricao() {
+				return descricao;
+			}
+		};
+	}
+}
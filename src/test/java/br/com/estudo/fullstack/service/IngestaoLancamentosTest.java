@@ -0,0 +1,187 @@
+package br.com.estudo.fullstack.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import br.com.estudo.fullstack.BancoEscritaTest;
+import br.com.estudo.fullstack.exception.IngestaoSobrecarregadaException;
+import br.com.estudo.fullstack.exception.RegraNegocioException;
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.service.impl.IngestaoLancamentos;
+
+public class IngestaoLancamentosTest extends BancoEscritaTest {
+
+	static final int LANCAMENTOS = 200;
+
+	@Autowired
+	LancamentoService service;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	IngestaoLancamentos ingestao;
+
+	@AfterEach
+	public void tearDown() throws InterruptedException {
+		if (ingestao != null) {
+			ingestao.encerrar();
+		}
+	}
+
+	@Test
+	public void lancamentosSimultaneosDividemCommitsTest() throws Exception {
+		Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		Usuario usuario = criarUsuario();
+		ingestao = iniciar(service, 50, 20, 1000);
+		estatisticas.clear();
+
+		List<CompletableFuture<Lancamento>> resultados = new ArrayList<>();
+		for (int i = 0; i < LANCAMENTOS; i++) {
+			resultados.add(ingestao.enfileirar(novoLancamento(usuario)));
+		}
+		for (CompletableFuture<Lancamento> resultado : resultados) {
+			assertNotNull(resultado.get(30, TimeUnit.SECONDS).getId());
+		}
+		long transacoes = estatisticas.getSuccessfulTransactionCount();
+
+		// o future só completa depois do commit, então uma nova consulta já enxerga todos os lançamentos
+		assertEquals(LANCAMENTOS, service.buscarLancamentos(filtro(usuario)).size());
+		assertTrue(transacoes <= LANCAMENTOS / 10, "transações: " + transacoes);
+	}
+
+	@Test
+	public void filaCheiaRecusaNovosLancamentosTest() throws Exception {
+		LancamentoService servico = Mockito.mock(LancamentoService.class);
+		CountDownLatch gravando = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		Mockito.when(servico.importarLancamentos(Mockito.anyList())).thenAnswer(invocacao -> {
+			gravando.countDown();
+			liberar.await(5, TimeUnit.SECONDS);
+			return invocacao.getArgument(0);
+		});
+		ingestao = iniciar(servico, 1, 1, 2);
+
+		List<CompletableFuture<Lancamento>> aceitos = new ArrayList<>();
+		aceitos.add(ingestao.enfileirar(new Lancamento()));
+		assertTrue(gravando.await(5, TimeUnit.SECONDS));
+		aceitos.add(ingestao.enfileirar(new Lancamento()));
+		aceitos.add(ingestao.enfileirar(new Lancamento()));
+
+		assertThrows(IngestaoSobrecarregadaException.class, () -> ingestao.enfileirar(new Lancamento()));
+		liberar.countDown();
+		for (CompletableFuture<Lancamento> aceito : aceitos) {
+			assertNotNull(aceito.get(5, TimeUnit.SECONDS));
+		}
+		Mockito.verify(servico, Mockito.times(4)).validarLancamento(Mockito.any());
+	}
+
+	@Test
+	public void loteComFalhaGravaCadaLancamentoSeparadoTest() throws Exception {
+		LancamentoService servico = Mockito.mock(LancamentoService.class);
+		CountDownLatch liberar = new CountDownLatch(1);
+		Mockito.when(servico.importarLancamentos(Mockito.anyList())).thenAnswer(invocacao -> {
+			liberar.await(5, TimeUnit.SECONDS);
+			throw new RegraNegocioException("Lançamento 2: Usuário inexistente.");
+		});
+		Lancamento valido = new Lancamento();
+		valido.setDescricao("valido");
+		Lancamento invalido = new Lancamento();
+		invalido.setDescricao("invalido");
+		invalido.setId(99l);
+		Mockito.when(servico.salvarLancamento(Mockito.any(Lancamento.class))).thenAnswer(invocacao -> {
+			Lancamento lancamento = invocacao.getArgument(0);
+			assertNull(lancamento.getId());
+			if ("invalido".equals(lancamento.getDescricao())) {
+				throw new RegraNegocioException("Usuário inexistente.");
+			}
+			return lancamento;
+		});
+		ingestao = iniciar(servico, 10, 200, 10);
+
+		CompletableFuture<Lancamento> primeiro = ingestao.enfileirar(valido);
+		CompletableFuture<Lancamento> segundo = ingestao.enfileirar(invalido);
+		liberar.countDown();
+
+		assertSame(valido, primeiro.get(5, TimeUnit.SECONDS));
+		ExecutionException erro = assertThrows(ExecutionException.class, () -> segundo.get(5, TimeUnit.SECONDS));
+		assertTrue(erro.getCause() instanceof RegraNegocioException);
+		Mockito.verify(servico, Mockito.times(1)).importarLancamentos(Mockito.anyList());
+	}
+
+	@Test
+	public void lancamentoInvalidoNaoEntraNaFilaTest() {
+		LancamentoService servico = Mockito.mock(LancamentoService.class);
+		Mockito.doThrow(new RegraNegocioException("Informe uma Descrição válida.")).when(servico).validarLancamento(Mockito.any());
+		ingestao = iniciar(servico, 10, 10, 10);
+
+		assertThrows(RegraNegocioException.class, () -> ingestao.enfileirar(new Lancamento()));
+		Mockito.verify(servico, Mockito.never()).importarLancamentos(Mockito.anyList());
+	}
+
+	@Test
+	public void encerrarGravaOQueEstaNaFilaTest() throws Exception {
+		LancamentoService servico = Mockito.mock(LancamentoService.class);
+		Mockito.when(servico.importarLancamentos(Mockito.anyList())).thenAnswer(invocacao -> {
+			Thread.sleep(20);
+			return invocacao.getArgument(0);
+		});
+		ingestao = iniciar(servico, 2, 1, 100);
+
+		List<CompletableFuture<Lancamento>> resultados = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			resultados.add(ingestao.enfileirar(new Lancamento()));
+		}
+		ingestao.encerrar();
+
+		for (CompletableFuture<Lancamento> resultado : resultados) {
+			assertTrue(resultado.isDone() && !resultado.isCompletedExceptionally());
+		}
+		assertThrows(IngestaoSobrecarregadaException.class, () -> ingestao.enfileirar(new Lancamento()));
+	}
+
+	@Test
+	public void desabilitadaSalvaNaTransacaoDoChamadorTest() throws Exception {
+		LancamentoService servico = Mockito.mock(LancamentoService.class);
+		Lancamento lancamento = new Lancamento();
+		Mockito.when(servico.salvarLancamento(lancamento)).thenReturn(lancamento);
+		ingestao = new IngestaoLancamentos(servico, false, 10, 10, 10, 10);
+		ingestao.iniciar();
+
+		CompletableFuture<Lancamento> resultado = ingestao.enfileirar(lancamento);
+
+		assertTrue(resultado.isDone());
+		assertSame(lancamento, resultado.get());
+		Mockito.verify(servico, Mockito.never()).importarLancamentos(Mockito.anyList());
+	}
+
+	private static IngestaoLancamentos iniciar(LancamentoService servico, int tamanhoLote, long intervaloMillis,
+			int capacidadeFila) {
+		IngestaoLancamentos ingestao = new IngestaoLancamentos(servico, true, tamanhoLote, intervaloMillis,
+				capacidadeFila, 10);
+		ingestao.iniciar();
+		return ingestao;
+	}
+
+
+	private Lancamento filtro(Usuario usuario) {
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+		return filtro;
+	}
+}
@@ -0,0 +1,205 @@
+package br.com.estudo.fullstack.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import br.com.estudo.fullstack.BancoEscritaTest;
+import br.com.estudo.fullstack.exception.ConflitoVersaoException;
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.ResumoMensal;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.repository.LancamentoRepository;
+
+/**
+ * Várias threads editando lançamentos como clientes fariam: leem, alteram o valor e enviam a versão lida, repetindo
+ * a leitura quando recebem conflito.
+ */
+public class LancamentoServiceConcorrenciaTest extends BancoEscritaTest {
+
+	static final int THREADS = 8;
+	static final int INCREMENTOS = 25;
+
+	@Autowired
+	LancamentoService service;
+
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+
+	ExecutorService executor;
+
+	@BeforeEach
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void edicoesConcorrentesNoMesmoLancamentoNaoSePerdemTest() throws Exception {
+		Usuario usuario = criarUsuario();
+		Lancamento lancamento = service.salvarLancamento(novoLancamento(usuario));
+
+		executar(i -> lancamento.getId());
+
+		Lancamento atualizado = service.buscarPorId(lancamento.getId()).get();
+		BigDecimal esperado = BigDecimal.valueOf(1000 + THREADS * INCREMENTOS);
+		assertEquals(0, esperado.compareTo(atualizado.getValor()));
+		assertEquals(Long.valueOf(lancamento.getVersao() + THREADS * INCREMENTOS), atualizado.getVersao());
+		List<ResumoMensal> resumo = service.obterResumoMensal(usuario.getId(), 2020, StatusLancamento.PENDENTE);
+		assertEquals(0, esperado.compareTo(resumo.get(0).getTotal()));
+	}
+
+	@Test
+	public void edicoesEmLancamentosDistintosNaoConflitamTest() throws Exception {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			ids.add(service.salvarLancamento(novoLancamento(criarUsuario())).getId());
+		}
+
+		int conflitos = executar(ids::get);
+
+		assertEquals(0, conflitos);
+		for (Long id : ids) {
+			assertEquals(0, BigDecimal.valueOf(1000 + INCREMENTOS).compareTo(service.buscarPorId(id).get().getValor()));
+		}
+	}
+
+	@Test
+	public void versaoDesatualizadaEhConflitoTest() {
+		Lancamento lancamento = service.salvarLancamento(novoLancamento(criarUsuario()));
+		Long versaoLida = lancamento.getVersao();
+		service.atualizarStatus(lancamento.getId(), StatusLancamento.EFETIVADO, versaoLida);
+
+		ConflitoVersaoException conflito = assertThrows(ConflitoVersaoException.class,
+				() -> service.atualizarStatus(lancamento.getId(), StatusLancamento.CANCELADO, versaoLida));
+
+		assertEquals(Long.valueOf(versaoLida + 1), conflito.getVersaoAtual());
+		assertEquals(StatusLancamento.EFETIVADO, service.buscarPorId(lancamento.getId()).get().getStatus());
+	}
+
+	@Test
+	public void statusEmLoteIntercaladoComAlteracaoUnitariaMantemSaldoEResumoTest() throws Exception {
+		Usuario usuario = criarUsuario();
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			ids.add(service.salvarLancamento(novoLancamento(usuario)).getId());
+		}
+		Long avulso = ids.get(0);
+
+		Future<?> unitarias = executor.submit(() -> {
+			for (int i = 0; i < INCREMENTOS * 4; i++) {
+				try {
+					service.atualizarStatus(avulso, i % 2 == 0 ? StatusLancamento.EFETIVADO : StatusLancamento.CANCELADO, null);
+				} catch (ConflitoVersaoException e) {
+					// o lote alterou a linha entre a leitura e a escrita; a próxima volta tenta de novo
+				}
+			}
+		});
+		for (int i = 0; i < INCREMENTOS; i++) {
+			service.atualizarStatusEmLote(ids, i % 2 == 0 ? StatusLancamento.EFETIVADO : StatusLancamento.PENDENTE);
+		}
+		unitarias.get(60, TimeUnit.SECONDS);
+
+		assertTrue(service.reconciliarSaldo(usuario.getId()));
+		for (StatusLancamento status : StatusLancamento.values()) {
+			BigDecimal mantido = service.obterResumoMensal(usuario.getId(), 2020, status).stream()
+					.map(ResumoMensal::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+			BigDecimal calculado = lancamentoRepository.calcularResumoMensalPorUsuario(usuario.getId()).stream()
+					.filter(grupo -> grupo.getStatus() == status)
+					.map(ResumoMensal::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+			assertEquals(0, calculado.compareTo(mantido), status.name());
+		}
+	}
+
+	@Test
+	public void primeirasEscritasConcorrentesDoUsuarioTest() throws Exception {
+		Usuario usuario = criarUsuario();
+		CyclicBarrier largada = new CyclicBarrier(THREADS);
+		List<Future<Lancamento>> resultados = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			resultados.add(executor.submit(() -> {
+				Lancamento novo = novoLancamento(usuario);
+				largada.await();
+				return service.salvarLancamento(novo);
+			}));
+		}
+
+		Set<Long> versoes = new TreeSet<>();
+		for (Future<Lancamento> resultado : resultados) {
+			versoes.add(resultado.get(60, TimeUnit.SECONDS).getVersaoAlteracao());
+		}
+
+		assertEquals(THREADS, versoes.size());
+		assertEquals(Long.valueOf(THREADS), versoes.stream().max(Long::compare).get());
+		assertTrue(service.reconciliarSaldo(usuario.getId()));
+		ResumoMensal resumo = service.obterResumoMensal(usuario.getId(), 2020, StatusLancamento.PENDENTE).get(0);
+		assertEquals(Long.valueOf(THREADS), resumo.getQuantidade());
+		assertEquals(0, BigDecimal.valueOf(1000 * THREADS).compareTo(resumo.getTotal()));
+	}
+
+	/**
+	 * Cada thread soma 1 ao valor do lançamento indicado {@link #INCREMENTOS} vezes; devolve o total de conflitos.
+	 */
+	private int executar(IdPorThread idPorThread) throws Exception {
+		List<Future<Integer>> resultados = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			Long id = idPorThread.id(i);
+			resultados.add(executor.submit((Callable<Integer>) () -> {
+				int conflitos = 0;
+				for (int j = 0; j < INCREMENTOS; j++) {
+					conflitos += incrementar(id);
+				}
+				return conflitos;
+			}));
+		}
+		int conflitos = 0;
+		for (Future<Integer> resultado : resultados) {
+			conflitos += resultado.get(60, TimeUnit.SECONDS);
+		}
+		return conflitos;
+	}
+
+	/**
+	 * Soma 1 ao valor a partir da versão lida, lendo de novo a cada conflito; devolve quantos conflitos houve.
+	 */
+	private int incrementar(Long id) {
+		int conflitos = 0;
+		while (true) {
+			Lancamento lido = service.buscarPorId(id).get();
+			Lancamento alterado = novoLancamento(lido.getUsuario());
+			alterado.setValor(lido.getValor().add(BigDecimal.ONE));
+			alterado.setVersao(lido.getVersao());
+			try {
+				service.atualizarLancamento(id, alterado);
+				return conflitos;
+			} catch (ConflitoVersaoException e) {
+				conflitos++;
+			}
+		}
+	}
+
+	private interface IdPorThread {
+
+		Long id(int thread);
+	}
+}
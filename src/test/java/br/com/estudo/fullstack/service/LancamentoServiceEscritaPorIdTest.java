@@ -0,0 +1,103 @@
+package br.com.estudo.fullstack.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import br.com.estudo.fullstack.BancoEscritaTest;
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+
+/**
+ * Conta os comandos SQL das escritas por id contra o H2. Os números incluem a reserva da versão de sincronização
+ * (update e select) e os deltas de saldo e resumo mensal, que já existem para o usuário montado no setUp.
+ */
+public class LancamentoServiceEscritaPorIdTest extends BancoEscritaTest {
+
+	@Autowired
+	LancamentoService service;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	Statistics estatisticas;
+	Usuario usuario;
+	Lancamento lancamento;
+
+	@BeforeEach
+	public void setUp() {
+		estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		usuario = criarUsuario();
+
+		// um lançamento já efetivado deixa criadas as linhas de saldo e de resumo dos dois status
+		Lancamento efetivado = service.salvarLancamento(novoLancamento(usuario));
+		service.atualizarStatus(efetivado.getId(), StatusLancamento.EFETIVADO, null);
+		lancamento = service.salvarLancamento(novoLancamento(usuario));
+		estatisticas.clear();
+	}
+
+	@Test
+	public void atualizarStatusPorIdTest() {
+		assertTrue(service.atualizarStatus(lancamento.getId(), StatusLancamento.EFETIVADO, null).isPresent());
+
+		// estado, versão (update e select), lançamento, saldo e os dois grupos do resumo
+		assertEquals(7, estatisticas.getPrepareStatementCount());
+		assertEquals(0, estatisticas.getEntityLoadCount());
+		assertEquals(0, BigDecimal.valueOf(2000).compareTo(service.obterSaldoPorUsuario(usuario.getId())));
+	}
+
+	@Test
+	public void atualizarLancamentoPorIdTest() {
+		Lancamento alterado = novoLancamento(usuario);
+		alterado.setDescricao("Lançamento alterado");
+		alterado.setValor(BigDecimal.valueOf(1500));
+
+		assertTrue(service.atualizarLancamento(lancamento.getId(), alterado).isPresent());
+
+		// estado, versão (update e select), lançamento e o grupo pendente do resumo; o saldo não muda
+		assertEquals(5, estatisticas.getPrepareStatementCount());
+		assertEquals(0, estatisticas.getEntityLoadCount());
+		assertEquals(StatusLancamento.PENDENTE, service.buscarPorId(lancamento.getId()).get().getStatus());
+	}
+
+	@Test
+	public void deletarLancamentoPorIdTest() {
+		assertTrue(service.deletarLancamento(lancamento.getId()));
+
+		// estado, versão (update e select), exclusão registrada, lançamento e o grupo pendente do resumo
+		assertEquals(6, estatisticas.getPrepareStatementCount());
+		assertEquals(0, estatisticas.getEntityLoadCount());
+		assertFalse(service.buscarPorId(lancamento.getId()).isPresent());
+	}
+
+	@Test
+	public void escritaPorIdInexistenteConsultaUmaVezTest() {
+		assertFalse(service.deletarLancamento(-1l));
+		assertFalse(service.atualizarStatus(-1l, StatusLancamento.EFETIVADO, null).isPresent());
+
+		assertEquals(2, estatisticas.getPrepareStatementCount());
+	}
+
+	@Test
+	public void escritaPorIdUsaMenosComandosQueCarregarESalvarTest() {
+		Lancamento carregado = service.buscarPorId(lancamento.getId()).get();
+		carregado.setStatus(StatusLancamento.EFETIVADO);
+		service.atualizarLancamento(carregado);
+		long carregandoEntidade = estatisticas.getPrepareStatementCount();
+
+		Lancamento outro = service.salvarLancamento(novoLancamento(usuario));
+		estatisticas.clear();
+		service.atualizarStatus(outro.getId(), StatusLancamento.EFETIVADO, null);
+
+		assertTrue(estatisticas.getPrepareStatementCount() < carregandoEntidade);
+	}
+}
@@ -1,241 +1,771 @@
-package br.com.estudo.fullstack.service;
-
-import static org.junit.jupiter.api.Assertions.*;
-
-import java.math.BigDecimal;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Optional;
-
-import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mockito;
-import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.boot.test.mock.mockito.SpyBean;
-import org.springframework.data.domain.Example;
-import org.springframework.test.context.ActiveProfiles;
-import org.springframework.test.context.junit.jupiter.SpringExtension;
-
-import br.com.estudo.fullstack.exception.RegraNegocioException;
-import br.com.estudo.fullstack.model.entity.Lancamento;
-import br.com.estudo.fullstack.model.entity.Usuario;
-import br.com.estudo.fullstack.model.enums.StatusLancamento;
-import br.com.estudo.fullstack.model.enums.TipoLancamento;
-import br.com.estudo.fullstack.model.repository.LancamentoRepository;
-import br.com.estudo.fullstack.model.repository.LancamentoRepositoryTest;
-import br.com.estudo.fullstack.service.impl.LancamentoServiceImpl;
-
-@ExtendWith(SpringExtension.class)
-@ActiveProfiles("test")
-public class LancamentoServiceTest {
-
-	@SpyBean
-	LancamentoServiceImpl service;
-	@MockBean
-	LancamentoRepository repository;
-
-	@Test
-	public void salvarLancamentoOKTest() {
-		Lancamento lancamentoASalvar = LancamentoRepositoryTest.criarLancamento();
-		Mockito.doNothing().when(service).validarLancamento(lancamentoASalvar);
-
-		Lancamento lancamentoSalvo = LancamentoRepositoryTest.criarLancamento();
-		lancamentoSalvo.setId(1l);
-		Mockito.when(repository.save(lancamentoASalvar)).thenReturn(lancamentoSalvo);
-
-		Lancamento lancamento = service.salvarLancamento(lancamentoASalvar);
-		assertEquals(lancamento.getId(), lancamentoSalvo.getId());
-		assertEquals(lancamento.getStatus(), StatusLancamento.PENDENTE);
-	}
-
-	@Test
-	public void salvarLancamentoErroValidacaoTest() {
-		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
-		Mockito.doThrow(RegraNegocioException.class).when(service).validarLancamento(lancamento);
-
-		assertThrows(RegraNegocioException.class, () -> {
-			service.salvarLancamento(lancamento);
-		});
-		Mockito.verify(repository, Mockito.never()).save(lancamento);
-	}
-
-	@Test
-	public void atualizarLancamentoOKTest() {
-		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
-		lancamento.setId(1l);
-		lancamento.setStatus(StatusLancamento.EFETIVADO);
-
-		Mockito.doNothing().when(service).validarLancamento(lancamento);
-		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
-
-		service.atualizarLancamento(lancamento);
-		Mockito.verify(repository, Mockito.times(1)).save(lancamento);
-	}
-
-	@Test
-	public void atualizarLancamentoInexistenteTest() {
-		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
-
-		assertThrows(NullPointerException.class, () -> {
-			service.atualizarLancamento(lancamento);
-		});
-		Mockito.verify(repository, Mockito.never()).save(lancamento);
-	}
-
-	@Test
-	public void deletarLancamentoOKTest() {
-		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
-		lancamento.setId(1l);
-
-		service.deletarLancamento(lancamento);
-
-		Mockito.verify(repository, Mockito.times(1)).delete(lancamento);
-	}
-
-	@Test
-	public void deletarLancamentoInexistenteTest() {
-		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
-
-		assertThrows(NullPointerException.class, () -> {
-			service.deletarLancamento(lancamento);
-		});
-
-		Mockito.verify(repository, Mockito.never()).delete(lancamento);
-	}
-	
-	@Test
-	public void filtrarLancamentoTest() {
-		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
-		lancamento.setId(1l);
-		
-		List<Lancamento> lista = Arrays.asList(lancamento);
-		Mockito.when(repository.findAll(Mockito.any(Example.class))).thenReturn(lista);
-		
-		List<Lancamento> resultado = service.buscarLancamentos(lancamento);
-		
-		assertEquals(lista, resultado);
-	}
-	
-	@Test
-	public void atualizarStatusOKTest() {
-		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
-		lancamento.setId(1l);
-		lancamento.setStatus(StatusLancamento.PENDENTE);
-		
-		StatusLancamento novoStatus = StatusLancamento.EFETIVADO;
-		Mockito.doReturn(lancamento).when(service).atualizarLancamento(lancamento);
-		
-		service.atualizarStatus(lancamento, novoStatus);
-		
-		assertEquals(lancamento.getStatus(), novoStatus);
-	}
-	
-	@Test
-	public void buscarLancamentoPorIdTest() {
-		
-		Long id = 1l;
-		
-		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
-		lancamento.setId(id);
-		
-		Mockito.when(repository.findById(id)).thenReturn(Optional.of(lancamento));
-		
-		Optional<Lancamento> resultado = service.buscarPorId(id);
-		
-		assertTrue(resultado.isPresent());
-	}
-	
-	@Test
-	public void buscarLancamentoPorIdInexistenteTest() {
-		
-		Long id = 1l;
-		
-		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
-		lancamento.setId(id);
-		
-		Mockito.when(repository.findById(id)).thenReturn(Optional.empty());
-		
-		Optional<Lancamento> resultado = service.buscarPorId(id);
-		
-		assertFalse(resultado.isPresent());
-	}
-	
-	@Test
-	public void validarLancamentoOKTest() {
-		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
-		Usuario usuario = Usuario.builder()
-				.nome("oMeuEnderecoTaNaInternet")
-				.email("cliqueParaAmado@.com")
-				.senha("AmadoBatista").build();
-		usuario.setId(1l);
-		lancamento.setUsuario(usuario);
-
-		//ação / verificação
-	    assertDoesNotThrow(() -> {
-	    	service.validarLancamento(lancamento);
-	    });
-	}
-	
-	@Test
-	public void validarLancamentoErroValidacaoTest() {
-		Lancamento lancamento = new Lancamento();
-
-		//Validar Descrição
-	    Exception exception = assertThrows(RegraNegocioException.class, () ->{
-	    	service.validarLancamento(lancamento);
-	    });
-	    assertEquals(exception.getMessage(),"Informe uma Descrição válida!");
-
-	    lancamento.setDescricao("Teste");
-
-		//Validar Mês
-	    exception = assertThrows(RegraNegocioException.class, () ->{
-	    	service.validarLancamento(lancamento);
-	    });
-	    assertEquals(exception.getMessage(),"Informe um Mês válido!");
-
-	    lancamento.setMes(2);
-
-		//Validar Ano
-	    exception = assertThrows(RegraNegocioException.class, () ->{
-	    	service.validarLancamento(lancamento);
-	    });
-	    assertEquals(exception.getMessage(),"Informe um Ano válido!");
-
-	    lancamento.setAno(2020);
-
-		//Validar Usuario
-	    exception = assertThrows(RegraNegocioException.class, () ->{
-	    	service.validarLancamento(lancamento);
-	    });
-	    assertEquals(exception.getMessage(),"Informe um Usuário válido!");
-
-		Usuario usuario = Usuario.builder()
-				.nome("oMeuEnderecoTaNaInternet")
-				.email("cliqueParaAmado@.com")
-				.senha("AmadoBatista").build();
-		usuario.setId(1l);
-	    lancamento.setUsuario(usuario);
-
-		//Validar Valor
-	    exception = assertThrows(RegraNegocioException.class, () ->{
-	    	service.validarLancamento(lancamento);
-	    });
-	    assertEquals(exception.getMessage(),"Informe um Valor válido!");
-
-	    lancamento.setValor(BigDecimal.valueOf(1000));
-
-		//Validar Tipo Lançamento
-	    exception = assertThrows(RegraNegocioException.class, () ->{
-	    	service.validarLancamento(lancamento);
-	    });
-	    assertEquals(exception.getMessage(),"Informe um Tipo de Lançamento!");
-	    
-	    lancamento.setTipo(TipoLancamento.RECEITA);
-
-	    //encerra as validações
-	    assertDoesNotThrow(() -> {
-	    	service.validarLancamento(lancamento);
-	    });
-	}
-}
+package br.com.estudo.fullstack.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.estudo.fullstack.exception.ConflitoVersaoException;
+import br.com.estudo.fullstack.exception.RegraNegocioException;
+import br.com.estudo.fullstack.model.entity.Lancamento;
+import br.com.estudo.fullstack.model.entity.ResumoMensal;
+import br.com.estudo.fullstack.model.entity.SaldoUsuario;
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.enums.StatusLancamento;
+import br.com.estudo.fullstack.model.enums.TipoLancamento;
+import br.com.estudo.fullstack.model.repository.EstadoLancamento;
+import br.com.estudo.fullstack.model.repository.LancamentoListagem;
+import br.com.estudo.fullstack.model.repository.LancamentoRepository;
+import br.com.estudo.fullstack.model.repository.LancamentoRepositoryTest;
+import br.com.estudo.fullstack.model.repository.ResumoMensalRepository;
+import br.com.estudo.fullstack.model.repository.SaldoUsuarioRepository;
+import br.com.estudo.fullstack.model.repository.TotalLancamentos;
+import br.com.estudo.fullstack.service.impl.CacheBuscaLancamentos;
+import br.com.estudo.fullstack.service.impl.ExecucaoUnica;
+import br.com.estudo.fullstack.service.impl.IndiceDescricaoLancamentos;
+import br.com.estudo.fullstack.service.impl.LancamentoServiceImpl;
+import br.com.estudo.fullstack.service.impl.SincronizacaoLancamentos;
+import br.com.estudo.fullstack.service.impl.VersaoDadosUsuario;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class LancamentoServiceTest {
+
+	@SpyBean
+	LancamentoServiceImpl service;
+	@MockBean
+	LancamentoRepository repository;
+	@MockBean
+	SaldoUsuarioRepository saldoRepository;
+	@MockBean
+	ResumoMensalRepository resumoRepository;
+	@MockBean
+	EntityManager entityManager;
+	@MockBean
+	IndiceDescricaoLancamentos indiceDescricao;
+	@MockBean
+	CacheBuscaLancamentos cacheBusca;
+	@MockBean
+	VersaoDadosUsuario versaoDados;
+	@MockBean
+	SincronizacaoLancamentos sincronizacao;
+	@MockBean
+	ExecucaoUnica execucaoUnica;
+
+	@BeforeEach
+	public void setUp() {
+		Mockito.when(cacheBusca.obter(Mockito.any(Lancamento.class), Mockito.any()))
+			.thenAnswer(invocacao -> invocacao.getArgument(1, Supplier.class).get());
+		Mockito.when(execucaoUnica.executar(Mockito.anyString(), Mockito.any(), Mockito.any()))
+			.thenAnswer(invocacao -> invocacao.getArgument(2, Supplier.class).get());
+	}
+
+	@Test
+	public void salvarLancamentoOKTest() {
+		Lancamento lancamentoASalvar = LancamentoRepositoryTest.criarLancamento();
+		Mockito.doNothing().when(service).validarLancamento(lancamentoASalvar);
+
+		Lancamento lancamentoSalvo = LancamentoRepositoryTest.criarLancamento();
+		lancamentoSalvo.setId(1l);
+		Mockito.when(repository.save(lancamentoASalvar)).thenReturn(lancamentoSalvo);
+
+		Lancamento lancamento = service.salvarLancamento(lancamentoASalvar);
+		assertEquals(lancamento.getId(), lancamentoSalvo.getId());
+		assertEquals(lancamento.getStatus(), StatusLancamento.PENDENTE);
+	}
+
+	@Test
+	public void salvarLancamentoErroValidacaoTest() {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		Mockito.doThrow(RegraNegocioException.class).when(service).validarLancamento(lancamento);
+
+		assertThrows(RegraNegocioException.class, () -> {
+			service.salvarLancamento(lancamento);
+		});
+		Mockito.verify(repository, Mockito.never()).save(lancamento);
+	}
+
+	@Test
+	public void atualizarLancamentoOKTest() {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setStatus(StatusLancamento.EFETIVADO);
+
+		Mockito.doNothing().when(service).validarLancamento(lancamento);
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+
+		service.atualizarLancamento(lancamento);
+		Mockito.verify(repository, Mockito.times(1)).save(lancamento);
+	}
+
+	@Test
+	public void atualizarLancamentoInexistenteTest() {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+
+		assertThrows(NullPointerException.class, () -> {
+			service.atualizarLancamento(lancamento);
+		});
+		Mockito.verify(repository, Mockito.never()).save(lancamento);
+	}
+
+	@Test
+	public void deletarLancamentoOKTest() {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+
+		service.deletarLancamento(lancamento);
+
+		Mockito.verify(repository, Mockito.times(1)).delete(lancamento);
+	}
+
+	@Test
+	public void deletarLancamentoInexistenteTest() {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+
+		assertThrows(NullPointerException.class, () -> {
+			service.deletarLancamento(lancamento);
+		});
+
+		Mockito.verify(repository, Mockito.never()).delete(lancamento);
+	}
+	
+	@Test
+	public void filtrarLancamentoTest() {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		
+		List<Lancamento> lista = Arrays.asList(lancamento);
+		Mockito.when(repository.findAll(Mockito.any(Specification.class), Mockito.any(Sort.class))).thenReturn(lista);
+		
+		List<Lancamento> resultado = service.buscarLancamentos(lancamento);
+		
+		assertEquals(lista, resultado);
+	}
+	
+	@Test
+	public void atualizarStatusOKTest() {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setStatus(StatusLancamento.PENDENTE);
+		
+		StatusLancamento novoStatus = StatusLancamento.EFETIVADO;
+		Mockito.doReturn(lancamento).when(service).atualizarLancamento(lancamento);
+		
+		service.atualizarStatus(lancamento, novoStatus);
+		
+		assertEquals(lancamento.getStatus(), novoStatus);
+	}
+	
+	@Test
+	public void buscarLancamentoPorIdTest() {
+		
+		Long id = 1l;
+		
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(id);
+		
+		Mockito.when(repository.findById(id)).thenReturn(Optional.of(lancamento));
+		
+		Optional<Lancamento> resultado = service.buscarPorId(id);
+		
+		assertTrue(resultado.isPresent());
+	}
+	
+	@Test
+	public void buscarLancamentoPorIdInexistenteTest() {
+		
+		Long id = 1l;
+		
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(id);
+		
+		Mockito.when(repository.findById(id)).thenReturn(Optional.empty());
+		
+		Optional<Lancamento> resultado = service.buscarPorId(id);
+		
+		assertFalse(resultado.isPresent());
+	}
+	
+	@Test
+	public void validarLancamentoOKTest() {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		Usuario usuario = Usuario.builder()
+				.nome("oMeuEnderecoTaNaInternet")
+				.email("cliqueParaAmado@.com")
+				.senha("AmadoBatista").build();
+		usuario.setId(1l);
+		lancamento.setUsuario(usuario);
+
+		//ação / verificação
+	    assertDoesNotThrow(() -> {
+	    	service.validarLancamento(lancamento);
+	    });
+	}
+	
+	@Test
+	public void validarLancamentoErroValidacaoTest() {
+		Lancamento lancamento = new Lancamento();
+
+		//Validar Descrição
+	    Exception exception = assertThrows(RegraNegocioException.class, () ->{
+	    	service.validarLancamento(lancamento);
+	    });
+	    assertEquals(exception.getMessage(),"Informe uma Descrição válida!");
+
+	    lancamento.setDescricao("Teste");
+
+		//Validar Mês
+	    exception = assertThrows(RegraNegocioException.class, () ->{
+	    	service.validarLancamento(lancamento);
+	    });
+	    assertEquals(exception.getMessage(),"Informe um Mês válido!");
+
+	    lancamento.setMes(2);
+
+		//Validar Ano
+	    exception = assertThrows(RegraNegocioException.class, () ->{
+	    	service.validarLancamento(lancamento);
+	    });
+	    assertEquals(exception.getMessage(),"Informe um Ano válido!");
+
+	    lancamento.setAno(2020);
+
+		//Validar Usuario
+	    exception = assertThrows(RegraNegocioException.class, () ->{
+	    	service.validarLancamento(lancamento);
+	    });
+	    assertEquals(exception.getMessage(),"Informe um Usuário válido!");
+
+		Usuario usuario = Usuario.builder()
+				.nome("oMeuEnderecoTaNaInternet")
+				.email("cliqueParaAmado@.com")
+				.senha("AmadoBatista").build();
+		usuario.setId(1l);
+	    lancamento.setUsuario(usuario);
+
+		//Validar Valor
+	    exception = assertThrows(RegraNegocioException.class, () ->{
+	    	service.validarLancamento(lancamento);
+	    });
+	    assertEquals(exception.getMessage(),"Informe um Valor válido!");
+
+	    lancamento.setValor(BigDecimal.valueOf(1000));
+
+		//Validar Tipo Lançamento
+	    exception = assertThrows(RegraNegocioException.class, () ->{
+	    	service.validarLancamento(lancamento);
+	    });
+	    assertEquals(exception.getMessage(),"Informe um Tipo de Lançamento!");
+	    
+	    lancamento.setTipo(TipoLancamento.RECEITA);
+
+	    //encerra as validações
+	    assertDoesNotThrow(() -> {
+	    	service.validarLancamento(lancamento);
+	    });
+	}
+	
+	@Test
+	public void efetivarLancamentoAtualizaSaldoTest() {
+		Lancamento anterior = criarLancamentoComUsuario();
+		Lancamento lancamento = criarLancamentoComUsuario();
+		lancamento.setStatus(StatusLancamento.EFETIVADO);
+
+		Mockito.doNothing().when(service).validarLancamento(lancamento);
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(anterior));
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+		Mockito.when(saldoRepository.adicionarAoSaldo(Mockito.anyLong(), Mockito.any(BigDecimal.class))).thenReturn(1);
+
+		service.atualizarLancamento(lancamento);
+
+		Mockito.verify(saldoRepository).adicionarAoSaldo(1l, BigDecimal.valueOf(1000));
+	}
+
+	@Test
+	public void cancelarDespesaEfetivadaEstornaSaldoTest() {
+		Lancamento anterior = criarLancamentoComUsuario();
+		anterior.setTipo(TipoLancamento.DESPESA);
+		anterior.setStatus(StatusLancamento.EFETIVADO);
+		Lancamento lancamento = criarLancamentoComUsuario();
+		lancamento.setTipo(TipoLancamento.DESPESA);
+		lancamento.setStatus(StatusLancamento.CANCELADO);
+
+		Mockito.doNothing().when(service).validarLancamento(lancamento);
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(anterior));
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+		Mockito.when(saldoRepository.adicionarAoSaldo(Mockito.anyLong(), Mockito.any(BigDecimal.class))).thenReturn(1);
+
+		service.atualizarLancamento(lancamento);
+
+		Mockito.verify(saldoRepository).adicionarAoSaldo(1l, BigDecimal.valueOf(1000));
+	}
+
+	@Test
+	public void deletarLancamentoEfetivadoEstornaSaldoTest() {
+		Lancamento lancamento = criarLancamentoComUsuario();
+		lancamento.setStatus(StatusLancamento.EFETIVADO);
+		Mockito.when(saldoRepository.adicionarAoSaldo(Mockito.anyLong(), Mockito.any(BigDecimal.class))).thenReturn(1);
+
+		service.deletarLancamento(lancamento);
+
+		Mockito.verify(saldoRepository).adicionarAoSaldo(1l, BigDecimal.valueOf(-1000));
+	}
+
+	@Test
+	public void atualizarLancamentoPendenteNaoAlteraSaldoTest() {
+		Lancamento lancamento = criarLancamentoComUsuario();
+		lancamento.setDescricao("Outra descrição");
+
+		Mockito.doNothing().when(service).validarLancamento(lancamento);
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(criarLancamentoComUsuario()));
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+
+		service.atualizarLancamento(lancamento);
+
+		Mockito.verify(saldoRepository, Mockito.never()).adicionarAoSaldo(Mockito.anyLong(), Mockito.any(BigDecimal.class));
+	}
+
+	@Test
+	public void efetivarLancamentoSemSaldoMantidoRecalculaTest() {
+		Lancamento lancamento = criarLancamentoComUsuario();
+		lancamento.setStatus(StatusLancamento.EFETIVADO);
+
+		Mockito.doNothing().when(service).validarLancamento(lancamento);
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(criarLancamentoComUsuario()));
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+		Mockito.when(saldoRepository.adicionarAoSaldo(Mockito.anyLong(), Mockito.any(BigDecimal.class))).thenReturn(0);
+		Mockito.when(repository.obterSaldoPorUsuarioEStatus(1l, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO))
+			.thenReturn(BigDecimal.valueOf(1000));
+
+		service.atualizarLancamento(lancamento);
+
+		Mockito.verify(saldoRepository).save(new SaldoUsuario(1l, BigDecimal.valueOf(1000)));
+	}
+
+	@Test
+	public void obterSaldoMantidoTest() {
+		Mockito.when(saldoRepository.findById(1l)).thenReturn(Optional.of(new SaldoUsuario(1l, BigDecimal.valueOf(250))));
+
+		BigDecimal saldo = service.obterSaldoPorUsuario(1l);
+
+		assertEquals(BigDecimal.valueOf(250), saldo);
+		Mockito.verify(repository, Mockito.never()).obterSaldoPorUsuarioEStatus(
+				Mockito.anyLong(), Mockito.any(TipoLancamento.class), Mockito.any(StatusLancamento.class));
+	}
+
+	@Test
+	public void reconciliarSaldoDivergenteTest() {
+		Mockito.when(saldoRepository.findById(1l)).thenReturn(Optional.of(new SaldoUsuario(1l, BigDecimal.valueOf(250))));
+		Mockito.when(repository.obterSaldoPorUsuarioEStatus(1l, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO))
+			.thenReturn(BigDecimal.valueOf(300));
+
+		assertFalse(service.reconciliarSaldo(1l));
+		Mockito.verify(saldoRepository).save(new SaldoUsuario(1l, BigDecimal.valueOf(300)));
+	}
+
+	@Test
+	public void reconciliarSaldoConsistenteTest() {
+		Mockito.when(saldoRepository.findById(1l)).thenReturn(Optional.of(new SaldoUsuario(1l, BigDecimal.valueOf(300))));
+		Mockito.when(repository.obterSaldoPorUsuarioEStatus(1l, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO))
+			.thenReturn(BigDecimal.valueOf(300));
+
+		assertTrue(service.reconciliarSaldo(1l));
+		Mockito.verify(saldoRepository, Mockito.never()).save(Mockito.any(SaldoUsuario.class));
+	}
+
+	@Test
+	public void efetivarLancamentoMoveResumoMensalTest() {
+		Lancamento lancamento = criarLancamentoComUsuario();
+		lancamento.setStatus(StatusLancamento.EFETIVADO);
+
+		Mockito.doNothing().when(service).validarLancamento(lancamento);
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(criarLancamentoComUsuario()));
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+		Mockito.when(resumoRepository.adicionarAoResumo(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt(),
+				Mockito.any(TipoLancamento.class), Mockito.any(StatusLancamento.class), Mockito.any(BigDecimal.class),
+				Mockito.anyLong())).thenReturn(1);
+
+		service.atualizarLancamento(lancamento);
+
+		Mockito.verify(resumoRepository).adicionarAoResumo(1l, 2020, 2, TipoLancamento.RECEITA,
+				StatusLancamento.PENDENTE, BigDecimal.valueOf(-1000), -1l);
+		Mockito.verify(resumoRepository).adicionarAoResumo(1l, 2020, 2, TipoLancamento.RECEITA,
+				StatusLancamento.EFETIVADO, BigDecimal.valueOf(1000), 1l);
+	}
+
+	@Test
+	public void salvarLancamentoSemResumoMantidoRecalculaTest() {
+		Lancamento lancamento = criarLancamentoComUsuario();
+		lancamento.setId(null);
+
+		Mockito.doNothing().when(service).validarLancamento(lancamento);
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+		Mockito.when(repository.obterTotalPorUsuarioEMes(1l, 2020, 2, TipoLancamento.RECEITA, StatusLancamento.PENDENTE))
+			.thenReturn(new TotalLancamentos() {
+				public BigDecimal getTotal() { return BigDecimal.valueOf(1500); }
+				public Long getQuantidade() { return 2l; }
+			});
+
+		service.salvarLancamento(lancamento);
+
+		Mockito.verify(resumoRepository).save(new ResumoMensal(1l, 2020, 2, TipoLancamento.RECEITA,
+				StatusLancamento.PENDENTE, BigDecimal.valueOf(1500), 2l));
+	}
+
+	@Test
+	public void exportarLancamentosDesanexaCadaLinhaTest() {
+		Lancamento primeiro = criarLancamentoComUsuario();
+		Lancamento segundo = criarLancamentoComUsuario();
+		segundo.setId(2l);
+		Mockito.when(repository.buscarTodosPorUsuario(1l)).thenReturn(Stream.of(primeiro, segundo));
+		
+		List<Lancamento> exportados = new ArrayList<>();
+		service.exportarLancamentos(1l, exportados::add);
+		
+		assertEquals(Arrays.asList(primeiro, segundo), exportados);
+		Mockito.verify(entityManager).detach(primeiro);
+		Mockito.verify(entityManager).detach(segundo);
+	}
+
+	@Test
+	public void importarLancamentosTest() {
+		Lancamento primeiro = criarLancamentoComUsuario();
+		Lancamento segundo = criarLancamentoComUsuario();
+		primeiro.setId(null);
+		segundo.setId(null);
+		segundo.setStatus(StatusLancamento.EFETIVADO);
+		List<Lancamento> lancamentos = Arrays.asList(primeiro, segundo);
+		Mockito.when(repository.saveAll(lancamentos)).thenReturn(lancamentos);
+		Mockito.when(resumoRepository.adicionarAoResumo(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt(),
+				Mockito.any(TipoLancamento.class), Mockito.any(StatusLancamento.class), Mockito.any(BigDecimal.class),
+				Mockito.anyLong())).thenReturn(1);
+
+		List<Lancamento> salvos = service.importarLancamentos(lancamentos);
+
+		assertEquals(2, salvos.size());
+		assertEquals(StatusLancamento.PENDENTE, segundo.getStatus());
+		Mockito.verify(repository, Mockito.times(1)).saveAll(lancamentos);
+		Mockito.verify(resumoRepository, Mockito.times(1)).adicionarAoResumo(1l, 2020, 2, TipoLancamento.RECEITA,
+				StatusLancamento.PENDENTE, BigDecimal.valueOf(2000), 2l);
+	}
+
+	@Test
+	public void filtrarLancamentoPorDescricaoUsaIndiceTest() {
+		Lancamento filtro = criarLancamentoComUsuario();
+		filtro.setDescricao("aluguel");
+		Mockito.when(indiceDescricao.buscar(1l, "aluguel")).thenReturn(new HashSet<>(Arrays.asList(5l, 7l)));
+		List<Lancamento> lista = Arrays.asList(criarLancamentoComUsuario());
+		Mockito.when(repository.findAll(Mockito.any(Specification.class), Mockito.any(Sort.class))).thenReturn(lista);
+
+		List<Lancamento> resultado = service.buscarLancamentos(filtro);
+
+		assertEquals(lista, resultado);
+		Mockito.verify(indiceDescricao).buscar(1l, "aluguel");
+	}
+
+	@Test
+	public void filtrarLancamentoPorDescricaoSemOcorrenciasNaoConsultaBaseTest() {
+		Lancamento filtro = criarLancamentoComUsuario();
+		filtro.setDescricao("inexistente");
+		Mockito.when(indiceDescricao.buscar(1l, "inexistente")).thenReturn(Collections.emptySet());
+
+		List<Lancamento> resultado = service.buscarLancamentos(filtro);
+
+		assertTrue(resultado.isEmpty());
+		Mockito.verify(repository, Mockito.never()).findAll(Mockito.any(Specification.class), Mockito.any(Sort.class));
+	}
+
+	@Test
+	public void listarLancamentosPorDescricaoSemOcorrenciasTest() {
+		Lancamento filtro = criarLancamentoComUsuario();
+		filtro.setDescricao("inexistente");
+		Mockito.when(indiceDescricao.buscar(1l, "inexistente")).thenReturn(Collections.emptySet());
+
+		assertTrue(service.listarLancamentos(filtro).isEmpty());
+		Mockito.verify(repository, Mockito.never()).listar(Mockito.any(Specification.class), Mockito.any(Sort.class));
+	}
+
+	@Test
+	public void salvarLancamentoAtualizaIndiceDescricaoTest() {
+		Lancamento lancamento = criarLancamentoComUsuario();
+		Mockito.doNothing().when(service).validarLancamento(lancamento);
+		Lancamento salvo = criarLancamentoComUsuario();
+		salvo.setId(9l);
+		Mockito.when(repository.save(lancamento)).thenReturn(salvo);
+
+		service.salvarLancamento(lancamento);
+
+		Mockito.verify(indiceDescricao).adicionar(1l, 9l, salvo.getDescricao());
+	}
+
+	@Test
+	public void salvarLancamentoAtribuiVersaoAlteracaoTest() {
+		Lancamento lancamento = criarLancamentoComUsuario();
+		lancamento.setId(null);
+		Mockito.doNothing().when(service).validarLancamento(lancamento);
+		Mockito.when(sincronizacao.reservarVersoes(Collections.singleton(1l))).thenReturn(Collections.singletonMap(1l, 8l));
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+
+		service.salvarLancamento(lancamento);
+
+		assertEquals(8l, lancamento.getVersaoAlteracao());
+	}
+
+	@Test
+	public void atualizarLancamentoTrocandoUsuarioRegistraExclusaoTest() {
+		Lancamento existente = criarLancamentoComUsuario();
+		Lancamento lancamento = criarLancamentoComUsuario();
+		Usuario outroUsuario = Usuario.builder().id(2l).nome("Outro").build();
+		lancamento.setUsuario(outroUsuario);
+		Mockito.doNothing().when(service).validarLancamento(lancamento);
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(existente));
+		Mockito.when(sincronizacao.reservarVersoes(Mockito.anyCollection())).thenReturn(mapa(1l, 5l, 2l, 9l));
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+
+		service.atualizarLancamento(lancamento);
+
+		assertEquals(9l, lancamento.getVersaoAlteracao());
+		Mockito.verify(sincronizacao).registrarExclusao(1l, 1l, 5l);
+	}
+
+	@Test
+	public void deletarLancamentoRegistraExclusaoTest() {
+		Lancamento lancamento = criarLancamentoComUsuario();
+		Mockito.when(sincronizacao.reservarVersoes(Collections.singleton(1l))).thenReturn(Collections.singletonMap(1l, 3l));
+
+		service.deletarLancamento(lancamento);
+
+		Mockito.verify(sincronizacao).registrarExclusao(1l, 1l, 3l);
+		Mockito.verify(repository).delete(lancamento);
+	}
+
+	@Test
+	public void buscarAlteracoesDesdeVersaoTest() {
+		List<LancamentoListagem> alterados = Arrays.asList(new LancamentoListagem(4l, "Aluguel", 2020, 2,
+				BigDecimal.TEN, TipoLancamento.DESPESA, StatusLancamento.PENDENTE));
+		Mockito.when(sincronizacao.obterVersao(1l)).thenReturn(12l);
+		Mockito.when(repository.buscarAlteradosDesde(1l, 10l)).thenReturn(alterados);
+		Mockito.when(sincronizacao.buscarExcluidosDesde(1l, 10l)).thenReturn(Arrays.asList(2l));
+
+		AlteracoesLancamentos alteracoes = service.buscarAlteracoes(1l, 10l);
+
+		assertEquals(12l, alteracoes.getVersao());
+		assertFalse(alteracoes.isCompleta());
+		assertEquals(alterados, alteracoes.getAlterados());
+		assertEquals(Arrays.asList(2l), alteracoes.getExcluidos());
+		Mockito.verify(repository, Mockito.never()).listar(Mockito.any(Specification.class), Mockito.any(Sort.class));
+	}
+
+	@Test
+	public void buscarAlteracoesIgnoraExclusaoDeLancamentoQueVoltouTest() {
+		List<LancamentoListagem> alterados = Arrays.asList(new LancamentoListagem(4l, "Aluguel", 2020, 2,
+				BigDecimal.TEN, TipoLancamento.DESPESA, StatusLancamento.PENDENTE));
+		Mockito.when(sincronizacao.obterVersao(1l)).thenReturn(12l);
+		Mockito.when(repository.buscarAlteradosDesde(1l, 10l)).thenReturn(alterados);
+		Mockito.when(sincronizacao.buscarExcluidosDesde(1l, 10l)).thenReturn(Arrays.asList(4l, 2l, 2l));
+
+		AlteracoesLancamentos alteracoes = service.buscarAlteracoes(1l, 10l);
+
+		assertEquals(alterados, alteracoes.getAlterados());
+		assertEquals(Arrays.asList(2l), alteracoes.getExcluidos());
+	}
+
+	@Test
+	public void buscarAlteracoesVersaoDesconhecidaDevolveListaCompletaTest() {
+		Mockito.when(sincronizacao.obterVersao(1l)).thenReturn(12l);
+
+		AlteracoesLancamentos alteracoes = service.buscarAlteracoes(1l, 40l);
+
+		assertTrue(alteracoes.isCompleta());
+		assertTrue(alteracoes.getExcluidos().isEmpty());
+		Mockito.verify(repository).listar(Mockito.any(Specification.class), Mockito.any(Sort.class));
+		Mockito.verify(repository, Mockito.never()).buscarAlteradosDesde(Mockito.anyLong(), Mockito.anyLong());
+	}
+
+	@Test
+	public void importarLancamentosErroValidacaoTest() {
+		Lancamento valido = criarLancamentoComUsuario();
+		Lancamento invalido = criarLancamentoComUsuario();
+		invalido.setMes(13);
+
+		Exception exception = assertThrows(RegraNegocioException.class, () -> {
+			service.importarLancamentos(Arrays.asList(valido, invalido));
+		});
+
+		assertEquals("Lançamento 2: Informe um Mês válido!", exception.getMessage());
+		Mockito.verify(repository, Mockito.never()).saveAll(Mockito.any());
+	}
+
+	@Test
+	public void atualizarStatusEmLoteAplicaDeltasAgregadosTest() {
+		List<Long> ids = Arrays.asList(1l, 2l, 3l);
+		Mockito.when(repository.buscarUsuariosPorIds(ids)).thenReturn(Collections.singletonList(1l));
+		Mockito.when(repository.calcularResumoPorIdsComStatusDiferente(ids, StatusLancamento.EFETIVADO)).thenReturn(Arrays.asList(
+				new ResumoMensal(1l, 2020, 2, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(3000), 2l),
+				new ResumoMensal(1l, 2020, 2, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.valueOf(500), 1l)));
+		Mockito.when(sincronizacao.reservarVersoes(Mockito.anyCollection())).thenReturn(Collections.singletonMap(1l, 4l));
+		Mockito.when(repository.atualizarStatusPorIdsEUsuario(ids, 1l, StatusLancamento.EFETIVADO, 4l)).thenReturn(3);
+		Mockito.when(saldoRepository.adicionarAoSaldo(Mockito.anyLong(), Mockito.any(BigDecimal.class))).thenReturn(1);
+		Mockito.when(resumoRepository.adicionarAoResumo(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt(),
+				Mockito.any(TipoLancamento.class), Mockito.any(StatusLancamento.class), Mockito.any(BigDecimal.class),
+				Mockito.anyLong())).thenReturn(1);
+
+		int atualizados = service.atualizarStatusEmLote(ids, StatusLancamento.EFETIVADO);
+
+		assertEquals(3, atualizados);
+		Mockito.verify(saldoRepository, Mockito.times(1)).adicionarAoSaldo(1l, BigDecimal.valueOf(2500));
+		Mockito.verify(resumoRepository).adicionarAoResumo(1l, 2020, 2, TipoLancamento.RECEITA,
+				StatusLancamento.PENDENTE, BigDecimal.valueOf(-3000), -2l);
+		Mockito.verify(resumoRepository).adicionarAoResumo(1l, 2020, 2, TipoLancamento.RECEITA,
+				StatusLancamento.EFETIVADO, BigDecimal.valueOf(3000), 2l);
+		Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+		Mockito.verify(repository, Mockito.never()).save(Mockito.any(Lancamento.class));
+		InOrder ordem = Mockito.inOrder(sincronizacao, repository);
+		ordem.verify(sincronizacao).reservarVersoes(Collections.singleton(1l));
+		ordem.verify(repository).calcularResumoPorIdsComStatusDiferente(ids, StatusLancamento.EFETIVADO);
+	}
+
+	@Test
+	public void atualizarStatusEmLoteComUsuarioNaoTravadoEhConflitoTest() {
+		List<Long> ids = Arrays.asList(1l, 2l);
+		Mockito.when(repository.buscarUsuariosPorIds(ids)).thenReturn(Collections.singletonList(1l));
+		// o lançamento 2 passou para o usuário 2 depois da busca dos usuários
+		Mockito.when(repository.calcularResumoPorIdsComStatusDiferente(ids, StatusLancamento.EFETIVADO)).thenReturn(Arrays.asList(
+				new ResumoMensal(1l, 2020, 2, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(3000), 1l),
+				new ResumoMensal(2l, 2020, 2, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(500), 1l)));
+		Mockito.when(sincronizacao.reservarVersoes(Mockito.anyCollection())).thenReturn(Collections.singletonMap(1l, 4l));
+
+		assertThrows(ConflitoVersaoException.class, () -> service.atualizarStatusEmLote(ids, StatusLancamento.EFETIVADO));
+
+		Mockito.verify(repository, Mockito.never()).atualizarStatusPorIdsEUsuario(Mockito.anyList(), Mockito.anyLong(),
+				Mockito.any(StatusLancamento.class), Mockito.anyLong());
+		Mockito.verify(saldoRepository, Mockito.never()).adicionarAoSaldo(Mockito.anyLong(), Mockito.any(BigDecimal.class));
+	}
+
+	@Test
+	public void atualizarStatusPorIdAtualizaSemCarregarEntidadeTest() {
+		EstadoLancamento estado = criarEstado(4l);
+		Mockito.when(repository.buscarEstadoPorId(1l)).thenReturn(Optional.of(estado));
+		Mockito.when(sincronizacao.reservarVersoes(Collections.singleton(1l))).thenReturn(Collections.singletonMap(1l, 5l));
+		Mockito.when(repository.atualizarPorIdEVersao(Mockito.any(Lancamento.class), Mockito.eq(4l))).thenReturn(1);
+		Mockito.when(saldoRepository.adicionarAoSaldo(Mockito.anyLong(), Mockito.any(BigDecimal.class))).thenReturn(1);
+
+		Optional<Lancamento> atualizado = service.atualizarStatus(1l, StatusLancamento.EFETIVADO, null);
+
+		assertEquals(StatusLancamento.EFETIVADO, atualizado.get().getStatus());
+		assertEquals(Long.valueOf(5l), atualizado.get().getVersaoAlteracao());
+		Mockito.verify(saldoRepository).adicionarAoSaldo(1l, BigDecimal.valueOf(1000));
+		Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+		Mockito.verify(repository, Mockito.never()).save(Mockito.any(Lancamento.class));
+	}
+
+	@Test
+	public void atualizarStatusPorIdRefazLeituraQuandoVersaoMudaTest() {
+		EstadoLancamento lido = criarEstado(4l);
+		EstadoLancamento atual = criarEstado(6l);
+		Mockito.when(repository.buscarEstadoPorId(1l)).thenReturn(Optional.of(lido), Optional.of(atual));
+		Mockito.when(sincronizacao.reservarVersoes(Collections.singleton(1l))).thenReturn(Collections.singletonMap(1l, 7l));
+		Mockito.when(repository.atualizarPorIdEVersao(Mockito.any(Lancamento.class), Mockito.eq(4l))).thenReturn(0);
+		Mockito.when(repository.atualizarPorIdEVersao(Mockito.any(Lancamento.class), Mockito.eq(6l))).thenReturn(1);
+
+		assertTrue(service.atualizarStatus(1l, StatusLancamento.CANCELADO, null).isPresent());
+
+		Mockito.verify(repository, Mockito.times(2)).buscarEstadoPorId(1l);
+		Mockito.verify(resumoRepository, Mockito.times(1)).adicionarAoResumo(1l, 2020, 2, TipoLancamento.RECEITA,
+				StatusLancamento.CANCELADO, BigDecimal.valueOf(1000), 1l);
+	}
+
+	@Test
+	public void atualizarStatusPorIdVersaoEsperadaDiferenteTest() {
+		EstadoLancamento estado = criarEstado(4l);
+		Mockito.when(repository.buscarEstadoPorId(1l)).thenReturn(Optional.of(estado));
+
+		ConflitoVersaoException conflito = assertThrows(ConflitoVersaoException.class,
+				() -> service.atualizarStatus(1l, StatusLancamento.EFETIVADO, 3l));
+
+		assertEquals(Long.valueOf(4l), conflito.getVersaoAtual());
+		Mockito.verify(sincronizacao, Mockito.never()).reservarVersoes(Mockito.anyCollection());
+		Mockito.verify(repository, Mockito.never()).atualizarPorIdEVersao(Mockito.any(Lancamento.class), Mockito.anyLong());
+	}
+
+	@Test
+	public void deletarLancamentoPorIdInexistenteTest() {
+		Mockito.when(repository.buscarEstadoPorId(1l)).thenReturn(Optional.empty());
+
+		assertFalse(service.deletarLancamento(1l));
+
+		Mockito.verify(sincronizacao, Mockito.never()).reservarVersoes(Mockito.anyCollection());
+		Mockito.verify(repository, Mockito.never()).deletarPorIdEVersao(Mockito.anyLong(), Mockito.anyLong());
+	}
+
+	@Test
+	public void deletarLancamentoPorIdRegistraExclusaoTest() {
+		EstadoLancamento estado = criarEstado(4l);
+		Mockito.when(repository.buscarEstadoPorId(1l)).thenReturn(Optional.of(estado));
+		Mockito.when(sincronizacao.reservarVersoes(Collections.singleton(1l))).thenReturn(Collections.singletonMap(1l, 5l));
+		Mockito.when(repository.deletarPorIdEVersao(1l, 4l)).thenReturn(1);
+
+		assertTrue(service.deletarLancamento(1l));
+
+		Mockito.verify(sincronizacao).registrarExclusao(1l, 1l, 5l);
+		Mockito.verify(repository, Mockito.never()).delete(Mockito.any(Lancamento.class));
+	}
+
+	private static EstadoLancamento criarEstado(Long versao) {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		EstadoLancamento estado = Mockito.mock(EstadoLancamento.class);
+		Mockito.when(estado.getId()).thenReturn(1l);
+		Mockito.when(estado.getIdUsuario()).thenReturn(1l);
+		Mockito.when(estado.getDescricao()).thenReturn(lancamento.getDescricao());
+		Mockito.when(estado.getAno()).thenReturn(lancamento.getAno());
+		Mockito.when(estado.getMes()).thenReturn(lancamento.getMes());
+		Mockito.when(estado.getValor()).thenReturn(lancamento.getValor());
+		Mockito.when(estado.getTipo()).thenReturn(lancamento.getTipo());
+		Mockito.when(estado.getStatus()).thenReturn(lancamento.getStatus());
+		Mockito.when(estado.getVersaoAlteracao()).thenReturn(versao);
+		Mockito.when(estado.getVersao()).thenReturn(versao);
+		return estado;
+	}
+
+	private static Map<Long, Long> mapa(Long chave, Long valor, Long outraChave, Long outroValor) {
+		Map<Long, Long> mapa = new HashMap<>();
+		mapa.put(chave, valor);
+		mapa.put(outraChave, outroValor);
+		return mapa;
+	}
+
+	private Lancamento criarLancamentoComUsuario() {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1l);
+		Usuario usuario = Usuario.builder()
+				.nome("oMeuEnderecoTaNaInternet")
+				.email("cliqueParaAmado@.com")
+				.senha("AmadoBatista").build();
+		usuario.setId(1l);
+		lancamento.setUsuario(usuario);
+		return lancamento;
+	}
+}
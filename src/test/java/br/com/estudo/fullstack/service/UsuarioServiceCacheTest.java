@@ -0,0 +1,92 @@
+package br.com.estudo.fullstack.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.estudo.fullstack.model.entity.Usuario;
+import br.com.estudo.fullstack.model.repository.UsuarioRepository;
+import br.com.estudo.fullstack.service.impl.UsuarioServiceImpl;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@ContextConfiguration(classes = UsuarioServiceCacheTest.Configuracao.class)
+public class UsuarioServiceCacheTest {
+
+	@Configuration
+	@EnableCaching
+	@Import(UsuarioServiceImpl.class)
+	static class Configuracao {
+
+		@Bean
+		public CacheManager cacheManager() {
+			return new CaffeineCacheManager(UsuarioServiceImpl.CACHE_USUARIOS);
+		}
+	}
+
+	@MockBean
+	UsuarioRepository repository;
+
+	@Autowired
+	UsuarioService service;
+
+	@Autowired
+	CacheManager cacheManager;
+
+	@BeforeEach
+	public void setUp() {
+		cacheManager.getCache(UsuarioServiceImpl.CACHE_USUARIOS).clear();
+	}
+
+	@Test
+	public void buscarPorIdConsultaBaseUmaVezTest() {
+		Usuario usuario = Usuario.builder().id(1l).nome("Amado").email("amado@.com").senha("amado").build();
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(usuario));
+
+		Optional<Usuario> primeiro = service.buscarPorId(1l);
+		Optional<Usuario> segundo = service.buscarPorId(1l);
+
+		assertSame(usuario, primeiro.get());
+		assertSame(usuario, segundo.get());
+		Mockito.verify(repository, Mockito.times(1)).findById(1l);
+	}
+
+	@Test
+	public void buscarPorIdNaoGuardaUsuarioInexistenteTest() {
+		Mockito.when(repository.findById(2l)).thenReturn(Optional.empty());
+
+		assertFalse(service.buscarPorId(2l).isPresent());
+		assertFalse(service.buscarPorId(2l).isPresent());
+
+		Mockito.verify(repository, Mockito.times(2)).findById(2l);
+	}
+
+	@Test
+	public void salvarUsuarioInvalidaCacheTest() {
+		Usuario usuario = Usuario.builder().id(1l).nome("Amado").email("amado@.com").senha("amado").build();
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(usuario));
+		Mockito.when(repository.save(usuario)).thenReturn(usuario);
+
+		service.buscarPorId(1l);
+		service.salvarUsuario(usuario);
+		service.buscarPorId(1l);
+
+		Mockito.verify(repository, Mockito.times(2)).findById(1l);
+	}
+}